@@ -14,6 +14,11 @@ public class Node<T> {
     private Node<T> sw;
     private Node<T> se;
 
+    // mass aggregates of subtree (see QuadTree.aggregate)
+    private double mass;
+    private double massX;
+    private double massY;
+
     /**
      * Constructs a new quad tree node.
      *
@@ -120,4 +125,32 @@ public class Node<T> {
     public Node<T> getSe() {
         return se;
     }
+
+
+    /**
+     * Total mass of points in subtree
+     */
+    public double getMass() {
+        return mass;
+    }
+
+    /**
+     * Center of mass of subtree, x
+     */
+    public double getMassX() {
+        return massX;
+    }
+
+    /**
+     * Center of mass of subtree, y
+     */
+    public double getMassY() {
+        return massY;
+    }
+
+    void setMass(double mass, double massX, double massY) {
+        this.mass = mass;
+        this.massX = massX;
+        this.massY = massY;
+    }
 }
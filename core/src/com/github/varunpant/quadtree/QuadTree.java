@@ -2,6 +2,7 @@ package com.github.varunpant.quadtree;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Datastructure: A point Quad Tree for representing 2D data. Each
@@ -246,6 +247,54 @@ public class QuadTree<T> {
                 node.getY() > bottom ||
                 (node.getY() + node.getH()) < top);
     }
+    /**
+     * Computes mass aggregates of all nodes: total mass and center of mass
+     * of points in node subtree (Node.getMass(), getMassX(), getMassY()).
+     * Should be called again after points are changed.
+     *
+     * @param massFunc mass of point value, 0 - point does not contribute
+     */
+    public void aggregate(ToDoubleFunction<T> massFunc) {
+        this.aggregate(this.root_, massFunc);
+    }
+
+    private void aggregate(Node<T> node, ToDoubleFunction<T> massFunc) {
+        switch (node.getNodeType()) {
+            case EMPTY:
+                node.setMass(0, 0, 0);
+                break;
+
+            case LEAF:
+                Point<T> pt = node.getPoint();
+                node.setMass(massFunc.applyAsDouble(pt.getValue()), pt.getX(), pt.getY());
+                break;
+
+            case POINTER:
+                Node<T> ne = node.getNe();
+                Node<T> se = node.getSe();
+                Node<T> sw = node.getSw();
+                Node<T> nw = node.getNw();
+
+                this.aggregate(ne, massFunc);
+                this.aggregate(se, massFunc);
+                this.aggregate(sw, massFunc);
+                this.aggregate(nw, massFunc);
+
+                double mass = ne.getMass() + se.getMass() + sw.getMass() + nw.getMass();
+                double x = ne.getMass() * ne.getMassX() + se.getMass() * se.getMassX() +
+                        sw.getMass() * sw.getMassX() + nw.getMass() * nw.getMassX();
+                double y = ne.getMass() * ne.getMassY() + se.getMass() * se.getMassY() +
+                        sw.getMass() * sw.getMassY() + nw.getMass() * nw.getMassY();
+
+                if (mass > 0) {
+                    node.setMass(mass, x / mass, y / mass);
+                } else {
+                    node.setMass(0, node.getX() + node.getW() / 2, node.getY() + node.getH() / 2);
+                }
+                break;
+        }
+    }
+
     /**
      * Clones the quad-tree and returns the new instance.
      * @return {QuadTree} A clone of the tree.
@@ -0,0 +1,274 @@
+package ru.geekbrains.entities.auxiliary;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ru.geekbrains.entities.objects.Planet;
+import ru.geekbrains.math.Integrator;
+import ru.geekbrains.math.KeplerOrbit;
+import ru.geekbrains.screen.GravityField;
+import ru.geekbrains.screen.World;
+
+/**
+ * Trajectory prediction service: path of coasting body under gravity of planets.
+ * <br>
+ * Predictions are computed on background thread (one for all predictors),
+ * last computed trajectory is shown meanwhile.
+ * While body follows predicted path (current position within TOLERANCE of predicted one)
+ * trajectory is reused - passed points are dropped from its head,
+ * new prediction is requested when less than half of time span is left or body left the path.
+ * <br>
+ * Conic orbit (KeplerOrbit) around single planet if body is coasting, numeric integration otherwise.
+ * Background job uses own copy of initial state and static data of World (planets, gravity field).
+ * <br>
+ * Methods should be called from simulation thread.
+ */
+public class TrajectoryPredictor {
+
+    private static final float TOLERANCE = 2f;          // max distance from predicted path
+
+    private static final float MAX_TURN = 0.05f;    // orbit sampling: max turn of path per segment, rad
+    private static final float MAX_STEP = 30f;      // max segment length
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+
+        Thread thread = new Thread(r, "trajectory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+
+    // initial state of next prediction, set before update()
+    public final Vector2 pos = new Vector2();
+    public final Vector2 vel = new Vector2();
+    public final Vector2 force = new Vector2();     // acting during first step only (shot impulse)
+    public float mass = 1;
+    public float radius = 1;
+    public boolean coasting;                        // no thrust - conic orbit allowed
+    public int steps;                               // time span, steps of dt
+
+
+    private final World world;
+
+    private Trajectory front = new Trajectory();    // shown
+    private Trajectory back = new Trajectory();     // being computed
+    private Future<?> pending;
+
+    // used by background job only
+    private final Integrator batch = new Integrator(1);
+    private final KeplerOrbit orbit = new KeplerOrbit();
+    private final Vector2 buf = new Vector2();
+
+
+    public TrajectoryPredictor(World world) {
+        this.world = world;
+    }
+
+
+    /**
+     * Take finished prediction, check current one against initial state, request new one if needed
+     * @param dt simulation step
+     */
+    public void update(float dt) {
+
+        long tick = world.getTick();
+
+        if (pending != null && pending.isDone()) {
+
+            try {
+                pending.get();
+
+                Trajectory tmp = front;
+                front = back;
+                back = tmp;
+            }
+            catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+            pending = null;
+        }
+
+        boolean onPath = front.follow((tick - front.tick) * dt, pos, TOLERANCE);
+
+        // half of time span passed or left the path
+        boolean expired = front.size() == 0 || !onPath ||
+                front.t[front.count - 1] - (tick - front.tick) * dt < steps * dt / 2;
+
+        if (expired && pending == null) {
+
+            back.tick = tick;
+            back.dt = dt;
+            back.pos.set(pos);
+            back.vel.set(vel);
+            back.force.set(force);
+            back.mass = mass;
+            back.radius = radius;
+            back.coasting = coasting;
+            back.steps = steps;
+
+            Trajectory job = back;
+            pending = EXECUTOR.submit(() -> compute(job));
+        }
+    }
+
+    /**
+     * Last valid trajectory (passed points dropped)
+     */
+    public Trajectory getTrajectory() {
+        return front;
+    }
+
+    public void dispose() {
+
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Background job
+     */
+    private void compute(Trajectory tr) {
+
+        tr.clear(tr.steps);
+
+        // coasting around single planet - exact orbit, no integration
+        if (tr.coasting && world.planets.size() == 1 && predictOrbit(tr)) {
+            return;
+        }
+
+        batch.clear();
+        batch.add(tr.pos.x, tr.pos.y, tr.vel.x, tr.vel.y, tr.mass);
+        batch.fx[0] = tr.force.x;
+        batch.fy[0] = tr.force.y;
+
+        for (int i = 0; i < tr.steps; i++) {
+
+            // calculate gravitation force from planets
+            world.gravityField.applyForces(batch, buf);
+
+            // check collision to planet
+            if (world.getPlanetHit(batch.x[0], batch.y[0], tr.radius) != null) {
+                break;
+            }
+
+            // update velocity, position
+            batch.step(tr.dt);
+
+            tr.x[tr.count] = batch.x[0];
+            tr.y[tr.count] = batch.y[0];
+            tr.t[tr.count] = (i + 1) * tr.dt;
+            tr.count++;
+        }
+    }
+
+    /**
+     * Sample conic orbit around the only planet (same time span as integration)
+     * @return false if orbit is degenerate
+     */
+    private boolean predictOrbit(Trajectory tr) {
+
+        Planet planet = world.planets.get(0);
+
+        // force acts during first step
+        float vx = tr.vel.x + tr.force.x / tr.mass * tr.dt;
+        float vy = tr.vel.y + tr.force.y / tr.mass * tr.dt;
+
+        if (!orbit.set(tr.pos.x - planet.pos.x, tr.pos.y - planet.pos.y, vx, vy,
+                GravityField.G * planet.getMass())) {
+            return false;
+        }
+
+        tr.count = orbit.sample(tr.steps * tr.dt, planet.getRadius() + tr.radius,
+                MAX_TURN, MAX_STEP, planet.pos.x, planet.pos.y, tr.x, tr.y, tr.t);
+        return true;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Predicted points with time from initial state, reusable buffers.
+     * Points before head are passed by body.
+     */
+    public static class Trajectory {
+
+        long tick;                  // world tick of initial state
+        float dt;
+
+        final Vector2 pos = new Vector2();
+        final Vector2 vel = new Vector2();
+        final Vector2 force = new Vector2();
+        float mass;
+        float radius;
+        boolean coasting;
+        int steps;
+
+        float[] x = new float[0];
+        float[] y = new float[0];
+        float[] t = new float[0];
+        int head = 0;
+        int count = 0;
+
+
+        public int size() {
+            return count - head;
+        }
+
+        public float getX(int i) {
+            return x[head + i];
+        }
+
+        public float getY(int i) {
+            return y[head + i];
+        }
+
+
+        void clear(int capacity) {
+
+            if (x.length < capacity) {
+                x = new float[capacity];
+                y = new float[capacity];
+                t = new float[capacity];
+            }
+            head = 0;
+            count = 0;
+        }
+
+        /**
+         * Drop points passed at time, check that position is on the path
+         * @return false if position is farther than tolerance from predicted one
+         */
+        boolean follow(float time, Vector2 position, float tolerance) {
+
+            while (head < count && t[head] <= time) {
+                head++;
+            }
+
+            if (head == count) {
+                return false;
+            }
+
+            // predicted position at time - between previous point (or initial state) and head
+            float x0 = head > 0 ? x[head - 1] : pos.x;
+            float y0 = head > 0 ? y[head - 1] : pos.y;
+            float t0 = head > 0 ? t[head - 1] : 0;
+
+            float k = (time - t0) / (t[head] - t0);
+            float px = x0 + (x[head] - x0) * k;
+            float py = y0 + (y[head] - y0) * k;
+
+            return position.dst2(px, py) <= tolerance * tolerance;
+        }
+    }
+}
@@ -7,23 +7,21 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Disposable;
 
-import java.util.ArrayList;
-
 import ru.geekbrains.StarGame;
 import ru.geekbrains.entities.objects.DummyObject;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
-import ru.geekbrains.entities.objects.Planet;
 import ru.geekbrains.entities.objects.Ship;
-import ru.geekbrains.screen.GameScreen;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
 import ru.geekbrains.screen.RendererType;
+import ru.geekbrains.screen.World;
 
 public class TrajectorySimulator implements Disposable {
 
     protected GameObject target;
 
-    protected Planet planet;
+    protected World world;
 
     public DummyObject tracer;
 
@@ -35,8 +33,7 @@ public class TrajectorySimulator implements Disposable {
 
 
 
-    private ArrayList<Vector2> trajectory = new ArrayList<>();
-
+    private TrajectoryPredictor predictor;
 
     private Vector2 tmp0 = new Vector2();
 
@@ -47,10 +44,12 @@ public class TrajectorySimulator implements Disposable {
 
         this.target = owner;
         this.model = simType;
-        this.planet = GameScreen.INSTANCE.planet;
+        this.world = owner.getWorld();
 
         this.tracer = new DummyObject(owner);
 
+        this.predictor = new TrajectoryPredictor(world);
+
         color = new Color(0.5f,1f,0f,0.4f);
 
     }
@@ -65,13 +64,13 @@ public class TrajectorySimulator implements Disposable {
         }
 
 
-        trajectory.clear();
         tracer.setMass(model.getMass());
         tracer.setRadius(model.getRadius());
         tracer.dir.set(target.dir);
         tracer.pos.set(target.pos);
         tracer.vel.set(target.vel);
 
+        predictor.force.setZero();
 
         if (model.type.contains(ObjectType.SHELL)) {
 
@@ -79,33 +78,21 @@ public class TrajectorySimulator implements Disposable {
             tracer.dir.set(((Ship)target).gun.dir);
 
             tmp0.set(target.dir).setLength(((Ship)target).gun.power); // dummy shell speed
-            tracer.applyForce(tmp0);             // dummy force applied to shell
+            predictor.force.set(tmp0);             // dummy force applied to shell
 
             color.set(0f,0.76f,0.9f,0.5f);
 
             iterationCount = 150;
         }
 
+        predictor.pos.set(tracer.pos);
+        predictor.vel.set(tracer.vel);
+        predictor.mass = tracer.getMass();
+        predictor.radius = tracer.getRadius();
+        predictor.coasting = model.type.contains(ObjectType.SHELL) || ((Ship)target).throttle == 0;
+        predictor.steps = iterationCount;
 
-        for (int i = 0; i <  iterationCount; i++) {
-
-
-            // calculate gravitation force from planet
-            GameScreen.applyPlanetGravForce(tracer, planet);
-
-            // check collision to planet
-            tmp0.set(planet.pos).sub(tracer.pos);
-            if (tmp0.len() <= planet.getRadius() + tracer.getRadius()) {
-               break;
-            }
-
-            // update aceleration, velocity, position
-            tracer.update(dt);
-
-            // add new point to simulated trajectory
-            trajectory.add(tracer.pos.cpy());
-        }
-
+        predictor.update(dt);
     }
 
     public void draw(Renderer renderer) {
@@ -116,7 +103,7 @@ public class TrajectorySimulator implements Disposable {
             return;
         }
 
-        ShapeRenderer shape = renderer.shape;
+        ShapeRecorder shape = renderer.shape;
 
 
 
@@ -140,17 +127,19 @@ public class TrajectorySimulator implements Disposable {
 
         //shape.begin();
         //Gdx.gl.glLineWidth(1);
-        Gdx.gl.glLineWidth(2);
+        shape.setLineWidth(2);
         //Gdx.gl.glEnable(GL20.GL_BLEND);
         //Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
         shape.set(ShapeRenderer.ShapeType.Line);
         shape.setColor(color);
 
-        for(int i = 0; i< trajectory.size()-2;i++){
-            renderer.shape.line(trajectory.get(i), trajectory.get(i + 1));
+        TrajectoryPredictor.Trajectory trajectory = predictor.getTrajectory();
+
+        for(int i = 0; i < trajectory.size() - 2; i++){
+            renderer.shape.line(trajectory.getX(i), trajectory.getY(i), trajectory.getX(i + 1), trajectory.getY(i + 1));
         }
 
-        Gdx.gl.glLineWidth(2);
+        shape.setLineWidth(2);
 
         shape.flush();
         //shape.end();
@@ -160,5 +149,6 @@ public class TrajectorySimulator implements Disposable {
     @Override
     public void dispose() {
 
+        predictor.dispose();
     }
 }
@@ -2,21 +2,59 @@ package ru.geekbrains.entities.equipment;
 
 import com.badlogic.gdx.math.Vector2;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.analysis.UnivariateFunction;
 import org.apache.commons.math3.analysis.solvers.BrentSolver;
 import org.apache.commons.math3.analysis.solvers.UnivariateSolver;
 
 import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.math.QuarticSolver;
+import ru.geekbrains.screen.GravityField;
+import ru.geekbrains.screen.World;
 
 /**
  * Ballistic processing unit
+ * <br>
+ * Impact time is the smallest positive root of aim function (explicit quartic of time),
+ * found by World.solverMode: closed form (QuarticSolver) or root bracketing + BrentSolver.
+ * <br>
+ * Many targets at once - see InterceptBatch.
+ * Gun solution may be corrected for gravity of planets (World.bpuGravity).
  */
 public class BPU {
 
+    public enum SolverMode {
+        QUARTIC,        // closed form, Ferrari + Newton polishing
+        BRENT,          // scan brackets of dt*10, BrentSolver
+        COMPARE         // both, Brent result is used, difference collected to SolverStats
+    }
+
+    private static final double GRAVITY_STEP = 0.25;        // max integration step along paths, s
+    private static final int GRAVITY_ITERATIONS = 5;
+    private static final double GRAVITY_PROBE = 0.02;       // second secant point, relative to quartic root
+    private static final double GRAVITY_TOLERANCE = 1e-4;   // impact time, s
+    private static final double THREAT_SEGMENT = 0.5;       // threat assessment: max segment of path, s
+
     private AimFunctionGun gf;
     private AimFunctionMissile mf;
     private UnivariateSolver nonBracketing;
 
+    private double[] coef = new double[5];          // t^4 .. t^0
+    private double[] roots = new double[4];
+
+    // solution layout
+    private static final int GUIDE_X = 0;
+    private static final int GUIDE_Y = 1;
+    private static final int IMPACT_X = 2;
+    private static final int IMPACT_Y = 3;
+
+    private double[] solution = new double[4];
+
+    // gravity correction
+    private Vector2 g = new Vector2();              // field buffer
+    private double gvx, gvy, gix, giy;
+
    public GuideResult guideResult = new GuideResult();
 
     public BPU() {
@@ -31,9 +69,32 @@ public class BPU {
     }
 
 
-    protected static class AimFunctionGun implements UnivariateFunction {
+    /**
+     * Aim function - quartic of time, root is impact time
+     */
+    protected static abstract class AimFunction implements UnivariateFunction {
+
+        // relative state of target
+        double rx, ry, vx, vy, ax, ay;
 
-        double rx, ry, vx, vy, ax, ay, VCC;
+        // absolute state for gravity correction: shooter position, velocity, target acceleration
+        double px, py, ux, uy, tax, tay;
+
+        /**
+         * Coefficients at t^4 .. t^0
+         */
+        abstract void coefficients(double[] k);
+
+        /**
+         * Guide vector and impact vector for impact time t (see solution layout)
+         */
+        abstract void solution(double t, double[] out);
+    }
+
+
+    protected static class AimFunctionGun extends AimFunction {
+
+        double VCC;
 
         public double value(double t) {
 
@@ -43,12 +104,33 @@ public class BPU {
 
             return result;
         }
+
+        public void coefficients(double[] k) {
+
+            k[0] = (ax*ax + ay*ay) / 4;
+            k[1] = ax*vx + ay*vy;
+            k[2] = ax*rx + ay*ry - VCC*VCC + vx*vx + vy*vy;
+            k[3] = 2 * (rx*vx + ry*vy);
+            k[4] = rx*rx + ry*ry;
+        }
+
+        public void solution(double t, double[] out) {
+
+            // projectile velocity
+            double vs_x = rx / t + 0.5 * ax * t + vx;
+            double vs_y = ry / t + 0.5 * ay * t + vy;
+
+            out[GUIDE_X] = vs_x;
+            out[GUIDE_Y] = vs_y;
+            out[IMPACT_X] = rx + vs_x * t + 0.5 * ax * t*t;
+            out[IMPACT_Y] = ry + vs_y * t + 0.5 * ay * t*t;
+        }
     }
 
 
-    protected static class AimFunctionMissile implements UnivariateFunction {
+    protected static class AimFunctionMissile extends AimFunction {
 
-        double rx, ry, vx, vy, ax, ay, ACC;
+        double ACC;
 
         public double value(double t) {
 
@@ -57,6 +139,207 @@ public class BPU {
 
             return result;
         }
+
+        public void coefficients(double[] k) {
+
+            k[0] = -ACC*ACC + ax*ax + ay*ay;
+            k[1] = 4 * (ax*vx + ay*vy);
+            k[2] = 4 * (ax*rx + ay*ry + vx*vx + vy*vy);
+            k[3] = 8 * (rx*vx + ry*vy);
+            k[4] = 4 * (rx*rx + ry*ry);
+        }
+
+        public void solution(double t, double[] out) {
+
+            // missile acceleration
+            double as_x = 2 * rx / t + ax * t + 2 * vx;
+            double as_y = 2 * ry / t + ay * t + 2 * vy;
+
+            double vs_x = vx + as_x * t;
+            double vs_y = vy + as_y * t;
+
+            out[GUIDE_X] = as_x;
+            out[GUIDE_Y] = as_y;
+            out[IMPACT_X] = rx + vs_x * t + 0.5 * ax * t*t;
+            out[IMPACT_Y] = ry + vs_y * t + 0.5 * ay * t*t;
+        }
+    }
+
+
+    /**
+     * Solve aim function (state already set)
+     * @return impact time, NaN if none; guide and impact vectors in solution
+     */
+    private double solve(AimFunction f, int brackets, GameObject owner) {
+
+        World world = owner.getWorld();
+
+        // brackets of 10 base ticks - search horizon in seconds does not depend on tick rate
+        float dt = World.BASE_TICK_TIME;
+
+        double t = impactTime(f, brackets, dt, world);
+
+        if (Double.isNaN(t)) {
+            Arrays.fill(solution, 0);
+        }
+        else {
+            f.solution(t, solution);
+
+            if (f == gf && world != null && world.bpuGravity && world.gravityField != null && !world.planets.isEmpty()) {
+                t = gravityCorrection(world.gravityField, t, dt * (brackets - 1) * 10);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Gun solution with gravity of planets acting on projectile and target along their paths
+     * (aim function assumes constant accelerations, projectile accelerated as shooter).
+     * <br>
+     * Speed residual |vs(t)| - VCC is solved by secant iterations starting from quartic root.
+     * For time t target path is integrated in field, projectile velocity vs(t) is taken to meet it
+     * including gravity drop along straight line (see gravityResidual).
+     * @return corrected impact time, guide and impact vectors in solution;
+     *         quartic root and solution unchanged if not converged
+     */
+    private double gravityCorrection(GravityField field, double t0, double max) {
+
+        double t1 = t0;
+        double r1 = gravityResidual(field, t1);
+        double t2 = t0 * (1 + GRAVITY_PROBE);
+        double r2 = gravityResidual(field, t2);
+
+        for (int i = 0; i < GRAVITY_ITERATIONS && r2 != r1; i++) {
+
+            double t = t2 - r2 * (t2 - t1) / (r2 - r1);
+
+            if (!(t > 0 && t <= max)) {
+                return t0;
+            }
+
+            t1 = t2;
+            r1 = r2;
+            t2 = t;
+            r2 = gravityResidual(field, t2);
+
+            if (Math.abs(t2 - t1) < GRAVITY_TOLERANCE) {
+
+                solution[GUIDE_X] = gvx;
+                solution[GUIDE_Y] = gvy;
+                solution[IMPACT_X] = gix;
+                solution[IMPACT_Y] = giy;
+                return t2;
+            }
+        }
+        return t0;
+    }
+
+    /**
+     * Projectile speed needed to hit target at time t less VCC
+     * (projectile velocity, impact point stored to gvx, gvy, gix, giy)
+     */
+    private double gravityResidual(GravityField field, double t) {
+
+        int n = Math.min(Math.max((int)Math.ceil(t / GRAVITY_STEP), 4), 32);
+        double h = t / n;
+
+        // target: acceleration without gravity is kept, gravity taken along the path
+        double tx = gf.px + gf.rx;
+        double ty = gf.py + gf.ry;
+        double tvx = gf.ux + gf.vx;
+        double tvy = gf.uy + gf.vy;
+
+        field.getAcceleration((float) tx, (float) ty, g);
+        double anx = gf.tax - g.x;
+        double any = gf.tay - g.y;
+
+        for (int i = 0; i < n; i++) {
+
+            field.getAcceleration((float) tx, (float) ty, g);
+            tvx += (anx + g.x) * h;
+            tvy += (any + g.y) * h;
+            tx += tvx * h;
+            ty += tvy * h;
+        }
+
+        // projectile: straight line to target, gravity drop along it - integral (t - s) * g(s) ds
+        double wx = (tx - gf.px) / t;
+        double wy = (ty - gf.py) / t;
+        double dx = 0;
+        double dy = 0;
+
+        for (int i = 0; i < n; i++) {
+
+            double s = (i + 0.5) * h;
+            field.getAcceleration((float) (gf.px + wx * s), (float) (gf.py + wy * s), g);
+            dx += (t - s) * g.x * h;
+            dy += (t - s) * g.y * h;
+        }
+
+        // launch velocity relative to shooter
+        gvx = (tx - gf.px - dx) / t - gf.ux;
+        gvy = (ty - gf.py - dy) / t - gf.uy;
+        gix = tx - gf.px;
+        giy = ty - gf.py;
+
+        return Math.sqrt(gvx * gvx + gvy * gvy) - gf.VCC;
+    }
+
+    /**
+     * Smallest positive root of aim function not later than dt*10*(brackets - 1), NaN if none
+     */
+    private double impactTime(AimFunction f, int brackets, float dt, World world) {
+
+        switch (world != null ? world.solverMode : SolverMode.QUARTIC) {
+
+            case BRENT:
+                return bracketRoot(f, brackets, dt);
+
+            case COMPARE:
+                double brent = bracketRoot(f, brackets, dt);
+                double quartic = quarticRoot(f, brackets, dt);
+                world.solverStats.add(brent, quartic);
+                return brent;
+
+            default:
+                return quarticRoot(f, brackets, dt);
+        }
+    }
+
+    private double quarticRoot(AimFunction f, int brackets, float dt) {
+
+        f.coefficients(coef);
+
+        return QuarticSolver.smallestPositiveRoot(coef[0], coef[1], coef[2], coef[3], coef[4],
+                dt * (brackets - 1) * 10, roots);
+    }
+
+    /**
+     * Scan brackets [0, dt*i*10] for sign change, solve by BrentSolver
+     */
+    private double bracketRoot(UnivariateFunction f, int brackets, float dt) {
+
+        // Цикл - отделить корни
+        for (int i = 0; i < brackets; i++) {
+            try {
+
+                // Корней нет - функция не пересекает ось Ox
+                if (f.value(0) > 0 && f.value(dt * i*10) > 0 ||
+                        f.value(0) < 0 && f.value(dt * i*10) < 0) {
+
+                    continue;
+                }
+
+                double t = nonBracketing.solve(100, f,  0, dt * i*10);
+
+                if (!Double.isNaN(t) && !Double.isInfinite(t) && t > 0) {
+                    return t;
+                }
+            }
+            catch (Exception ignore) {}
+        }
+
+        return Double.NaN;
     }
 
     public void guideGun(GameObject owner, GameObject target, float maxVel, float dt) {
@@ -113,6 +396,13 @@ public class BPU {
         gf.ax = target.acc.x - owner.acc.x;
         gf.ay = target.acc.y - owner.acc.y;
 
+        gf.px = owner.pos.x;
+        gf.py = owner.pos.y;
+        gf.ux = owner.vel.x;
+        gf.uy = owner.vel.y;
+        gf.tax = target.acc.x;
+        gf.tay = target.acc.y;
+
 
 
 
@@ -124,41 +414,11 @@ public class BPU {
 
         // Гидра доминатус !!!!
 
-        //double tbd = 0;
-        // Цикл - отделить корни
-        for (int i = 0; i< 100; i++) {
-            try {
-
-                // Корней нет - функция не пересекает ось Ox
-                if (gf.value(0) > 0 && gf.value(dt * i*10) > 0 ||
-                        gf.value(0) < 0 && gf.value(dt * i*10) < 0) {
-
-                    continue;
-                }
-
-                double t = nonBracketing.solve(100, gf,  0, dt * i*10);
-
-
-                if (!Double.isNaN(t) && !Double.isInfinite(t) && t > 0) {
-
-                    double vs_x = gf.rx / t + 0.5 * gf.ax * t + gf.vx;
-                    double vs_y = gf.ry / t + 0.5 * gf.ay * t + gf.vy;
-
-                    double rs_x = gf.rx + vs_x * t + 0.5 * gf.ax * t*t;
-                    double rs_y = gf.ry + vs_y * t + 0.5 * gf.ay * t*t;
-
-                    guideResult.guideVector.set((float) vs_x, (float) vs_y);
-                    guideResult.impactVector.set((float) rs_x, (float) rs_y);
-                    guideResult.impactTime = t;
-                    guideResult.target = target;
-
-                    break;
-                }
-            }catch (Exception ignore) {}
+        double t = solve(gf, 100, owner);
 
+        if (!Double.isNaN(t)) {
+            setGuideResult(t, target);
         }
-
-
     }
 
     public void guideMissile(GameObject owner, GameObject target, float maxAcc, float dt) {
@@ -205,43 +465,184 @@ public class BPU {
         guideResult.impactVector.setZero();
 
         // i = 100 -> max_t =16
-        for (int i = 0; i< 70; i++) {
-            try {
+        double t = solve(mf, 70, owner);
 
-                // Корней нет - функция не пересекает ось Ox
-                if (mf.value(0) > 0 && mf.value(dt * i*10) > 0 ||
-                        mf.value(0) < 0 && mf.value(dt * i*10) < 0) {
+        if (!Double.isNaN(t)) {
+            setGuideResult(t, target);
+        }
+    }
 
-                    continue;
-                }
+    private void setGuideResult(double t, GameObject target) {
 
-                // Для ракет сделаем погрешность в вычислениях побольше
-                double t = nonBracketing.solve(100, mf,  0, dt * i*10);
+        guideResult.guideVector.set((float) solution[GUIDE_X], (float) solution[GUIDE_Y]);
+        guideResult.impactVector.set((float) solution[IMPACT_X], (float) solution[IMPACT_Y]);
+        guideResult.impactTime = t;
+        guideResult.target = target;
+    }
 
-                if (!Double.isNaN(t) && !Double.isInfinite(t) && t > 0) {
 
-                    double as_x = 2 * mf.rx / t + mf.ax * t + 2 * mf.vx;
-                    double as_y = 2 * mf.ry / t + mf.ay * t + 2 * mf.vy;
 
-                    double vs_x = mf.vx + as_x * t;
-                    double vs_y = mf.vy + as_y * t;
 
-                    double rs_x = mf.rx + vs_x * t + 0.5 * mf.ax * t*t;
-                    double rs_y = mf.ry + vs_y * t + 0.5 * mf.ay * t*t;
+    /**
+     * Threat assessment: time when threat comes within distance of ship (time to go).
+     * <br>
+     * Analytic closest approach: for relative motion with constant acceleration
+     * |r + v*t + a*t^2/2|^2 = distance^2 is quartic of time - smallest positive root.
+     * Gravity correction: path is split into segments of THREAT_SEGMENT, in each segment
+     * gravity is taken at predicted middle of paths of ship and threat (thrust is kept constant),
+     * root is searched in segment, then state is moved to segment end.
+     * @return 0 if already within distance, NaN if not within maxTime
+     *         or ship / threat falls on planet before
+     */
+    public double threatTime(GameObject ship, GameObject threat, float distance, float maxTime) {
 
-                    guideResult.guideVector.set((float) as_x, (float) as_y);
-                    guideResult.impactVector.set((float) rs_x, (float) rs_y);
-                    guideResult.impactTime = t;
-                    guideResult.target = target;
+        double d2 = (double)distance * distance;
 
-                    break;
-                }
+        World world = ship.getWorld();
+        GravityField field = world != null ? world.gravityField : null;
+
+        // no planets - single segment, accelerations as is
+        if (field == null || world.planets.isEmpty()) {
+
+            double rx = threat.pos.x - ship.pos.x;
+            double ry = threat.pos.y - ship.pos.y;
+
+            if (rx*rx + ry*ry <= d2) {
+                return 0;
+            }
+            return approachTime(rx, ry, threat.vel.x - ship.vel.x, threat.vel.y - ship.vel.y,
+                    threat.acc.x - ship.acc.x, threat.acc.y - ship.acc.y, d2, maxTime);
+        }
+
+        // ship, threat: position, velocity, acceleration without gravity
+        double sx = ship.pos.x, sy = ship.pos.y, svx = ship.vel.x, svy = ship.vel.y;
+        double tx = threat.pos.x, ty = threat.pos.y, tvx = threat.vel.x, tvy = threat.vel.y;
+
+        field.getAcceleration(ship.pos.x, ship.pos.y, g);
+        double sax = ship.acc.x - g.x;
+        double say = ship.acc.y - g.y;
+        field.getAcceleration(threat.pos.x, threat.pos.y, g);
+        double tax = threat.acc.x - g.x;
+        double tay = threat.acc.y - g.y;
+
+        double time = 0;
+
+        while (time < maxTime) {
+
+            double rx = tx - sx;
+            double ry = ty - sy;
+
+            if (rx*rx + ry*ry <= d2) {
+                return time;
             }
-            catch (Exception ignore) {}
 
+            double h = Math.min(THREAT_SEGMENT, maxTime - time);
+            double m = h / 2;
+
+            // gravity at predicted middle of segment
+            field.getAcceleration((float) sx, (float) sy, g);
+            field.getAcceleration((float)(sx + svx * m + 0.5 * (sax + g.x) * m * m),
+                    (float)(sy + svy * m + 0.5 * (say + g.y) * m * m), g);
+            double asx = sax + g.x;
+            double asy = say + g.y;
+
+            field.getAcceleration((float) tx, (float) ty, g);
+            field.getAcceleration((float)(tx + tvx * m + 0.5 * (tax + g.x) * m * m),
+                    (float)(ty + tvy * m + 0.5 * (tay + g.y) * m * m), g);
+            double atx = tax + g.x;
+            double aty = tay + g.y;
+
+            double t = approachTime(rx, ry, tvx - svx, tvy - svy, atx - asx, aty - asy, d2, h);
+
+            if (!Double.isNaN(t)) {
+                return time + t;
+            }
+
+            // to segment end
+            sx += svx * h + 0.5 * asx * h * h;
+            sy += svy * h + 0.5 * asy * h * h;
+            svx += asx * h;
+            svy += asy * h;
+
+            tx += tvx * h + 0.5 * atx * h * h;
+            ty += tvy * h + 0.5 * aty * h * h;
+            tvx += atx * h;
+            tvy += aty * h;
+
+            time += h;
+
+            // falls on planet
+            if (world.getPlanetHit((float) sx, (float) sy, ship.getRadius()) != null ||
+                    world.getPlanetHit((float) tx, (float) ty, threat.getRadius()) != null) {
+
+                return Double.NaN;
+            }
         }
+        return Double.NaN;
+    }
 
+    private double approachTime(double rx, double ry, double vx, double vy, double ax, double ay,
+                                double d2, double maxTime) {
 
+        return QuarticSolver.smallestPositiveRoot(
+                (ax*ax + ay*ay) / 4,
+                ax*vx + ay*vy,
+                vx*vx + vy*vy + rx*ax + ry*ay,
+                2 * (rx*vx + ry*vy),
+                rx*rx + ry*ry - d2,
+                maxTime, roots);
+    }
+
+
+    /**
+     * guideGun() for target i of batch, results written to batch arrays
+     */
+    void solveGun(InterceptBatch b, int i, float maxVel, float dt) {
+
+        gf.VCC = maxVel;
+
+        gf.rx = b.x[i] - b.sx;
+        gf.ry = b.y[i] - b.sy;
+        gf.vx = b.vx[i] - b.svx;
+        gf.vy = b.vy[i] - b.svy;
+        gf.ax = b.ax[i] - b.sax;
+        gf.ay = b.ay[i] - b.say;
+
+        gf.px = b.sx;
+        gf.py = b.sy;
+        gf.ux = b.svx;
+        gf.uy = b.svy;
+        gf.tax = b.ax[i];
+        gf.tay = b.ay[i];
+
+        setBatchResult(b, i, solve(gf, 100, b.shooter));
+    }
+
+    /**
+     * guideMissile() for target i of batch, results written to batch arrays
+     */
+    void solveMissile(InterceptBatch b, int i, float maxAcc, float dt) {
+
+        mf.ACC = maxAcc;
+
+        mf.rx = b.x[i] - b.sx;
+        mf.ry = b.y[i] - b.sy;
+        mf.vx = b.vx[i] - b.svx;
+        mf.vy = b.vy[i] - b.svy;
+        // as in guideMissile - shooter acceleration is not used
+        mf.ax = b.ax[i];
+        mf.ay = b.ay[i];
+
+        setBatchResult(b, i, solve(mf, 70, b.shooter));
+    }
+
+    private void setBatchResult(InterceptBatch b, int i, double t) {
+
+        b.impactTime[i] = t;
+        b.guideX[i] = (float) solution[GUIDE_X];
+        b.guideY[i] = (float) solution[GUIDE_Y];
+        b.impactX[i] = (float) solution[IMPACT_X];
+        b.impactY[i] = (float) solution[IMPACT_Y];
     }
 
 
@@ -262,6 +663,16 @@ public class BPU {
 
         public GameObject target = null;
 
+        public GuideResult set(GuideResult other) {
+
+            impactTime = other.impactTime;
+            guideVector.set(other.guideVector);
+            impactVector.set(other.impactVector);
+            target = other.target;
+
+            return this;
+        }
+
         public GuideResult clone() {
 
             GuideResult result = new GuideResult();
@@ -275,4 +686,44 @@ public class BPU {
         }
     }
 
+
+    /**
+     * Accuracy of closed form solver against Brent (SolverMode.COMPARE), per world (World.solverStats)
+     */
+    public static class SolverStats {
+
+        private long count;
+        private long bothFound;
+        private long brentOnly;
+        private long quarticOnly;
+        private double maxError;
+        private double sumError;
+
+        synchronized void add(double brent, double quartic) {
+
+            count++;
+
+            if (!Double.isNaN(brent) && !Double.isNaN(quartic)) {
+
+                double error = Math.abs(brent - quartic);
+                bothFound++;
+                sumError += error;
+                maxError = Math.max(maxError, error);
+            }
+            else if (!Double.isNaN(brent)) {
+                brentOnly++;
+            }
+            else if (!Double.isNaN(quartic)) {
+                quarticOnly++;
+            }
+        }
+
+        public synchronized String print() {
+
+            return String.format("solved: %d, both: %d, brent only: %d, quartic only: %d, " +
+                            "impact time error avg: %.3g max: %.3g",
+                    count, bothFound, brentOnly, quarticOnly,
+                    bothFound > 0 ? sumError / bothFound : 0, maxError);
+        }
+    }
 }
@@ -0,0 +1,443 @@
+package ru.geekbrains.entities.equipment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.entities.objects.ObjectType;
+import ru.geekbrains.math.IndexHeap;
+
+/**
+ * Weapon-target assignment for all point defence weapons of one ship.
+ * <br>
+ * Every tick weapons report candidate targets (bids) with intercept time solved by their own BPU
+ * and, if known, time the target needs to reach the ship. Fire control builds cost matrix
+ * weapon x target from bids and allocates targets to weapons:
+ * <br>
+ * 1. greedy - targets by priority (not covered first, missiles first, most urgent first),
+ *    each one to free weapon with the smallest intercept time,
+ * <br>
+ * 2. repair - target left without weapon takes weapon of assigned target
+ *    if that target can be passed to free weapon,
+ * <br>
+ * 3. swap - pairs of weapons exchange targets if total intercept time decreases,
+ * <br>
+ * 4. idle weapons - most urgent target they can reach, even if it is already engaged
+ *    (double fire is better than no fire).
+ * <br>
+ * Covered targets (interceptor already launched) go after all others.
+ * Result depends only on order of bids (weapons order), not on hash order.
+ * <br>
+ * Usage: update() - weapons collect targets and bid, assignment; weapon update() reads getTarget().
+ */
+public class FireControl {
+
+    private final List<Weapon> weapons = new ArrayList<>();
+
+    // bids of current tick
+    private final List<Bid> bids = new ArrayList<>();
+    private final List<Bid> bidPool = new ArrayList<>();
+
+    // targets of current tick, index in order of first bid
+    private final Map<GameObject, Integer> targetIndex = new HashMap<>();
+    private final List<GameObject> targets = new ArrayList<>();
+
+    private float[] urgency = new float[16];       // min time to reach ship among bids
+    private boolean[] covered = new boolean[16];
+    private int[] order = new int[16];             // targets by priority
+    private int[] rankOf = new int[16];            // position of target in order
+    private final IndexHeap byUrgency = new IndexHeap();
+
+    private float[][] cost = new float[0][];       // [weapon][target] intercept time, NaN - can't reach
+    private int[] capacity = new int[0];           // targets weapon may take this tick
+    private int[] free = new int[0];
+
+    // assignment: target of weapon slot, -1 - none
+    private int[][] assigned = new int[0][];
+    private int[] assignedCount = new int[16];     // weapons on target
+
+
+    /**
+     * Weapon managed by fire control
+     */
+    public interface Weapon {
+
+        /**
+         * Find candidate targets and bid them (FireControl.bid())
+         */
+        void collectTargets(FireControl fireControl, float dt);
+    }
+
+
+    public void add(Weapon weapon) {
+        weapons.add(weapon);
+    }
+
+    /**
+     * Collect bids of all weapons and assign targets
+     */
+    public void update(float dt) {
+
+        clear();
+
+        for (Weapon w : weapons) {
+            w.collectTargets(this, dt);
+        }
+
+        assign();
+    }
+
+    /**
+     * Weapon can engage target
+     * @param interceptTime time to hit target by weapon
+     * @param threatTime time target needs to reach the ship, NaN - unknown
+     */
+    public void bid(Weapon weapon, GameObject target, float interceptTime, float threatTime) {
+
+        int w = weapons.indexOf(weapon);
+
+        if (w < 0 || Float.isNaN(interceptTime)) {
+            return;
+        }
+
+        Bid bid = bidPool.isEmpty() ? new Bid() : bidPool.remove(bidPool.size() - 1);
+        bid.weapon = w;
+        bid.target = target(target);
+        bid.interceptTime = interceptTime;
+        bids.add(bid);
+
+        // unknown threat time - target comes not earlier than it can be intercepted
+        float urgent = Float.isNaN(threatTime) ? interceptTime : threatTime;
+        urgency[bid.target] = Math.min(urgency[bid.target], urgent);
+    }
+
+    /**
+     * Target already engaged (interceptor on the way) - other weapons take it last
+     */
+    public void cover(GameObject target) {
+
+        // index first - target() may grow arrays
+        int t = target(target);
+        covered[t] = true;
+    }
+
+    /**
+     * Number of targets weapon may take this tick (default 1)
+     */
+    public void setCapacity(Weapon weapon, int count) {
+
+        int w = weapons.indexOf(weapon);
+        if (w >= 0) {
+            capacity[w] = count;
+        }
+    }
+
+    /**
+     * Assigned target of weapon (most urgent of assigned), null if none
+     */
+    public GameObject getTarget(Weapon weapon) {
+
+        int w = weapons.indexOf(weapon);
+
+        if (w < 0 || w >= assigned.length || assigned[w][0] < 0) {
+            return null;
+        }
+        return targets.get(assigned[w][0]);
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    private void clear() {
+
+        bidPool.addAll(bids);
+        bids.clear();
+
+        targetIndex.clear();
+        targets.clear();
+
+        int n = weapons.size();
+        if (capacity.length != n) {
+            capacity = new int[n];
+            free = new int[n];
+            assigned = new int[n][];
+            cost = new float[n][];
+        }
+        Arrays.fill(capacity, 1);
+    }
+
+    private int target(GameObject target) {
+
+        Integer index = targetIndex.get(target);
+
+        if (index == null) {
+
+            index = targets.size();
+            targets.add(target);
+            targetIndex.put(target, index);
+
+            if (index == urgency.length) {
+                urgency = Arrays.copyOf(urgency, index * 2);
+                covered = Arrays.copyOf(covered, index * 2);
+                order = Arrays.copyOf(order, index * 2);
+                rankOf = Arrays.copyOf(rankOf, index * 2);
+                assignedCount = Arrays.copyOf(assignedCount, index * 2);
+            }
+            urgency[index] = Float.POSITIVE_INFINITY;
+            covered[index] = false;
+        }
+        return index;
+    }
+
+
+    private void assign() {
+
+        int n = weapons.size();
+        int m = targets.size();
+
+        // cost matrix
+        for (int w = 0; w < n; w++) {
+
+            if (cost[w] == null || cost[w].length < m) {
+                cost[w] = new float[Math.max(m, 16)];
+            }
+            Arrays.fill(cost[w], 0, m, Float.NaN);
+
+            if (assigned[w] == null || assigned[w].length < Math.max(capacity[w], 1)) {
+                assigned[w] = new int[Math.max(capacity[w], 1)];
+            }
+            Arrays.fill(assigned[w], -1);
+            free[w] = capacity[w];
+        }
+
+        for (Bid bid : bids) {
+
+            float c = cost[bid.weapon][bid.target];
+            if (Float.isNaN(c) || bid.interceptTime < c) {
+                cost[bid.weapon][bid.target] = bid.interceptTime;
+            }
+        }
+
+        Arrays.fill(assignedCount, 0, m, 0);
+
+        // targets by priority: not covered missiles, not covered others, covered missiles, covered others,
+        // in each group by urgency, equal ones in order of bids
+        int count = 0;
+        for (int group = 0; group < 4; group++) {
+
+            byUrgency.clear();
+            for (int t = 0; t < m; t++) {
+                if (group(t) == group) {
+                    byUrgency.add(urgency[t], t);
+                }
+            }
+            byUrgency.sort();
+
+            for (int i = 0; i < byUrgency.size(); i++) {
+                order[count] = byUrgency.index(i);
+                rankOf[order[count]] = count;
+                count++;
+            }
+        }
+
+
+        // 1. greedy
+        for (int i = 0; i < m; i++) {
+
+            int t = order[i];
+            int w = bestWeapon(t);
+
+            if (w >= 0) {
+                put(w, t);
+            }
+        }
+
+        // 2. repair - free weapon for target left without one
+        for (int i = 0; i < m; i++) {
+
+            int t = order[i];
+
+            if (assignedCount[t] > 0) {
+                continue;
+            }
+
+            for (int w = 0; w < n; w++) {
+
+                if (Float.isNaN(cost[w][t]) || capacity[w] == 0) {
+                    continue;
+                }
+
+                // pass one of targets of w to free weapon
+                int s = passTarget(w);
+                if (s >= 0) {
+                    assigned[w][s] = t;
+                    assignedCount[t]++;
+                    break;
+                }
+            }
+        }
+
+        // 3. swap targets of weapon pairs while total intercept time decreases
+        boolean improved = true;
+        for (int pass = 0; improved && pass < n * n; pass++) {
+
+            improved = false;
+
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    improved |= swap(a, b);
+                }
+            }
+        }
+
+        // 4. idle weapons - most urgent reachable target
+        for (int w = 0; w < n; w++) {
+
+            for (int i = 0; i < m && free[w] > 0; i++) {
+
+                int t = order[i];
+
+                if (!Float.isNaN(cost[w][t]) && !has(w, t)) {
+                    put(w, t);
+                }
+            }
+        }
+
+        // most urgent target first
+        for (int w = 0; w < n; w++) {
+            sortSlots(assigned[w]);
+        }
+    }
+
+    /**
+     * Free weapon with the smallest intercept time, -1 if none
+     */
+    private int bestWeapon(int t) {
+
+        int result = -1;
+
+        for (int w = 0; w < weapons.size(); w++) {
+
+            float c = cost[w][t];
+
+            if (free[w] > 0 && !Float.isNaN(c) && (result < 0 || c < cost[result][t])) {
+                result = w;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Move one of targets of weapon w to free weapon
+     * @return released slot of w, -1 if no target can be moved
+     */
+    private int passTarget(int w) {
+
+        for (int s = 0; s < assigned[w].length; s++) {
+
+            int t = assigned[w][s];
+            if (t < 0) {
+                continue;
+            }
+
+            for (int other = 0; other < weapons.size(); other++) {
+
+                if (other != w && free[other] > 0 && !Float.isNaN(cost[other][t])) {
+
+                    put(other, t);
+                    assignedCount[t]--;
+                    assigned[w][s] = -1;
+                    return s;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean swap(int a, int b) {
+
+        boolean result = false;
+
+        for (int sa = 0; sa < assigned[a].length; sa++) {
+            for (int sb = 0; sb < assigned[b].length; sb++) {
+
+                int ta = assigned[a][sa];
+                int tb = assigned[b][sb];
+
+                if (ta < 0 || tb < 0 || ta == tb || has(a, tb) || has(b, ta)) {
+                    continue;
+                }
+
+                float before = cost[a][ta] + cost[b][tb];
+                float after = cost[a][tb] + cost[b][ta];
+
+                // NaN after - can't reach, no swap
+                if (after < before) {
+                    assigned[a][sa] = tb;
+                    assigned[b][sb] = ta;
+                    result = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void put(int w, int t) {
+
+        for (int s = 0; s < assigned[w].length; s++) {
+
+            if (assigned[w][s] < 0) {
+                assigned[w][s] = t;
+                assignedCount[t]++;
+                free[w]--;
+                return;
+            }
+        }
+    }
+
+    private boolean has(int w, int t) {
+
+        for (int s = 0; s < assigned[w].length; s++) {
+            if (assigned[w][s] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sortSlots(int[] slots) {
+
+        // insertion sort by priority rank, few slots
+        for (int i = 1; i < slots.length; i++) {
+
+            int v = slots[i];
+            int j = i - 1;
+
+            while (j >= 0 && rank(slots[j]) > rank(v)) {
+                slots[j + 1] = slots[j];
+                j--;
+            }
+            slots[j + 1] = v;
+        }
+    }
+
+    private int rank(int t) {
+        return t < 0 ? Integer.MAX_VALUE : rankOf[t];
+    }
+
+    private int group(int t) {
+        return (covered[t] ? 2 : 0) + (targets.get(t).type.contains(ObjectType.MISSILE) ? 0 : 1);
+    }
+
+
+    private static class Bid {
+
+        int weapon;
+        int target;
+        float interceptTime;
+    }
+}
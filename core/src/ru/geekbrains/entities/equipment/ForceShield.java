@@ -1,8 +1,6 @@
 package ru.geekbrains.entities.equipment;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 
@@ -12,8 +10,12 @@ import java.util.List;
 import java.util.Set;
 
 import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.particles.ParticleObject;
+import ru.geekbrains.screen.ForceField;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
+import ru.geekbrains.screen.World;
 import ru.geekbrains.screen.RendererType;
 
 public class ForceShield extends ParticleObject {
@@ -44,6 +46,9 @@ public class ForceShield extends ParticleObject {
         bufColor = new Color();
 
         isModule = true;
+
+        // repulsing field around ship (index bound - as old collision box)
+        world.forceFields.add(new ShieldField(owner, radius * 2.2f, forceValue * radius));
     }
 
 
@@ -53,7 +58,69 @@ public class ForceShield extends ParticleObject {
         super.update(dt);
         
         if (power <  maxPower) {
-            power += powerIncrementDelta * maxPower;
+            power += world.perTick(powerIncrementDelta) * maxPower;
+        }
+    }
+
+
+    /**
+     * Shield force field: repulses projectiles and missiles approaching the ship,
+     * work of the field is taken from shield power
+     */
+    private class ShieldField extends ForceField {
+
+        ShieldField(GameObject ship, float bound, float strength) {
+            super(ship, bound, strength, Falloff.INVERSE_SQUARE);
+        }
+
+        @Override
+        public void apply(GameObject prj, float dx, float dy, float r, float dt) {
+
+            if (!prj.type.contains(ObjectType.PROJECTILE) && !prj.type.contains(ObjectType.MISSILE)) {
+                return;
+            }
+
+            // only approaching the ship
+            if (dx * (prj.vel.x - owner.vel.x) + dy * (prj.vel.y - owner.vel.y) >= 0) {
+                return;
+            }
+
+            if (r > getRadius() + prj.getRadius()) {
+                return;
+            }
+
+            // Силовое поле щита имеет потенциал Const/r,
+            // Соответственно сила поля, действующая на prj равна -n*prj.mass*Const*/r^2
+            // Как гравитационное поле, но со знаком "-"
+            float scale = strength * falloff.scale(r) * prj.getMass() / r;
+            tmp0.set(dx * scale, dy * scale);
+
+            tmp1.set(tmp0).scl(1/prj.getMass());  // = E  напряженность поля щита
+
+            // dA = m * (tmp1)^2 * t^2/2; // работа щита на перемещение prj за базовый тик,
+            // на шаг симуляции - пропорционально dt (расход энергии не зависит от tickRate)
+            float dA =  (float)(tmp1.len2() * prj.getMass() * dt*World.BASE_TICK_TIME*0.5);
+
+            // EMP ordinance BLAST
+            if (prj.isEmpOrdinance) {
+
+                dA += prj.empDamage;
+                prj.readyToDispose = true;
+            }
+
+            // Если энергии поля не хватает совершить эту работу (не хватает запасенной энергии)
+            // то уменьшим силу, действующую на prj/ship
+            if (dA > power) {
+                tmp0.scl(power/dA);
+            }
+
+            // отражаем снаряд
+            prj.applyForce(tmp0);
+            // 3 закон Ньютона - отражаем корабль
+            owner.applyForce(tmp0.scl(-1));
+
+            // depleting power shield
+            power -= Math.min(power, dA);
         }
     }
 
@@ -67,11 +134,10 @@ public class ForceShield extends ParticleObject {
             return;
         }
 
-        ShapeRenderer shape = renderer.shape;
+        ShapeRecorder shape = renderer.shape;
 
-        Gdx.gl.glLineWidth(radius);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shape.setLineWidth(radius);
+        shape.enableBlending();
 
         //shape.begin();
         shape.set(ShapeRenderer.ShapeType.Line);
@@ -98,7 +164,7 @@ public class ForceShield extends ParticleObject {
 
         shape.setColor(bufColor);
         shape.circle(pos.x, pos.y, radius);
-        Gdx.gl.glLineWidth(1);
+        shape.setLineWidth(1);
         //shape.end();
     }
 }
@@ -0,0 +1,188 @@
+package ru.geekbrains.entities.equipment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import ru.geekbrains.entities.objects.GameObject;
+
+/**
+ * Intercept solutions for one shooter and many targets in one call.
+ * <br>
+ * State of shooter and targets is copied to primitive arrays (structure of arrays),
+ * results are written to primitive arrays by target index - no GuideResult per target.
+ * Large batches are split into fixed size chunks solved on fork-join pool,
+ * each chunk has own BPU (solver buffers are not shared).
+ * Every target is solved independently, so results do not depend on threads count.
+ * <br>
+ * Usage: setShooter(), clear(), add() targets, solveGun() / solveMissile(), read results.
+ */
+public class InterceptBatch {
+
+    private static final int CHUNK_SIZE = 16;
+
+    public int minParallelSize = 64;    // batches smaller than this are solved serially
+
+
+    // shooter
+    GameObject shooter;
+    float sx, sy, svx, svy, sax, say;
+
+    // targets
+    GameObject[] targets;
+    float[] x, y, vx, vy, ax, ay;
+
+    // results
+    public double[] impactTime;         // NaN - no solution
+    public float[] guideX, guideY;      // gun - projectile velocity, missile - acceleration
+    public float[] impactX, impactY;    // impact point relative to shooter
+
+    private int count = 0;
+
+    private final List<BPU> solvers = new ArrayList<>();
+
+
+    public InterceptBatch() {
+        this(64);
+    }
+
+    public InterceptBatch(int capacity) {
+        allocate(Math.max(capacity, 1));
+        solvers.add(new BPU());
+    }
+
+
+    public void setShooter(GameObject shooter) {
+
+        this.shooter = shooter;
+        sx = shooter.pos.x;
+        sy = shooter.pos.y;
+        svx = shooter.vel.x;
+        svy = shooter.vel.y;
+        sax = shooter.acc.x;
+        say = shooter.acc.y;
+    }
+
+    /**
+     * Add target
+     * @return index of target
+     */
+    public int add(GameObject target) {
+
+        if (count == x.length) {
+            allocate(count * 2);
+        }
+
+        int i = count++;
+
+        targets[i] = target;
+        x[i] = target.pos.x;
+        y[i] = target.pos.y;
+        vx[i] = target.vel.x;
+        vy[i] = target.vel.y;
+        ax[i] = target.acc.x;
+        ay[i] = target.acc.y;
+        return i;
+    }
+
+    public void clear() {
+
+        Arrays.fill(targets, 0, count, null);
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public GameObject getTarget(int i) {
+        return targets[i];
+    }
+
+    /**
+     * Result of target i as GuideResult (allocates)
+     */
+    public BPU.GuideResult getResult(int i) {
+
+        BPU.GuideResult result = new BPU.GuideResult();
+
+        result.impactTime = impactTime[i];
+        result.guideVector.set(guideX[i], guideY[i]);
+        result.impactVector.set(impactX[i], impactY[i]);
+        result.target = Double.isNaN(impactTime[i]) ? null : targets[i];
+        return result;
+    }
+
+
+    /**
+     * Projectile velocities to hit targets, same as BPU.guideGun()
+     */
+    public void solveGun(float maxVel, float dt) {
+        solve(false, maxVel, dt);
+    }
+
+    /**
+     * Missile accelerations to hit targets, same as BPU.guideMissile()
+     */
+    public void solveMissile(float maxAcc, float dt) {
+        solve(true, maxAcc, dt);
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    private void solve(boolean missile, float max, float dt) {
+
+        if (count < minParallelSize) {
+            solveChunk(solvers.get(0), 0, count, missile, max, dt);
+            return;
+        }
+
+        int chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        while (solvers.size() < chunkCount) {
+            solvers.add(new BPU());
+        }
+
+        IntStream.range(0, chunkCount).parallel().forEach(c ->
+                solveChunk(solvers.get(c), c * CHUNK_SIZE, Math.min((c + 1) * CHUNK_SIZE, count), missile, max, dt));
+    }
+
+    private void solveChunk(BPU bpu, int from, int to, boolean missile, float max, float dt) {
+
+        for (int i = from; i < to; i++) {
+
+            if (missile) {
+                bpu.solveMissile(this, i, max, dt);
+            }
+            else {
+                bpu.solveGun(this, i, max, dt);
+            }
+        }
+    }
+
+
+    private void allocate(int capacity) {
+
+        targets = targets == null ? new GameObject[capacity] : Arrays.copyOf(targets, capacity);
+
+        x = copy(x, capacity);
+        y = copy(y, capacity);
+        vx = copy(vx, capacity);
+        vy = copy(vy, capacity);
+        ax = copy(ax, capacity);
+        ay = copy(ay, capacity);
+
+        impactTime = impactTime == null ? new double[capacity] : Arrays.copyOf(impactTime, capacity);
+        guideX = copy(guideX, capacity);
+        guideY = copy(guideY, capacity);
+        impactX = copy(impactX, capacity);
+        impactY = copy(impactY, capacity);
+    }
+
+    private static float[] copy(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
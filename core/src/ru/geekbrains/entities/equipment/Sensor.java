@@ -0,0 +1,185 @@
+package ru.geekbrains.entities.equipment;
+
+import com.github.varunpant.quadtree.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.entities.objects.ObjectType;
+import ru.geekbrains.screen.World;
+
+/**
+ * Sensor of ship: one sweep of spatial index per tick for all onboard weapons and AI.
+ * <br>
+ * Sweep covers the largest range requested so far (plus margin - ship moves after index rebuild),
+ * found objects are kept in track table with classification and relative state at sweep time.
+ * Readers take subset by range and classes - same result as World.getCloseObjects(owner, range)
+ * with type filtering: box test by index position, disposed objects skipped, sorted by distance now.
+ * <br>
+ * Sweep is repeated every period ticks (1 - every tick, same as direct queries),
+ * larger period - targets appear and disappear later.
+ * <br>
+ * Simulation thread only.
+ */
+public class Sensor {
+
+    // classes of tracks
+    public static final int SHIP = 1;
+    public static final int MISSILE = 1 << 1;
+    public static final int BASIC_MISSILE = 1 << 2;
+    public static final int GRAVITY_REPULSE_MISSILE = 1 << 3;
+
+    private static final float MARGIN = 100;
+
+    public int period;                      // ticks between sweeps (World.sensorPeriod)
+
+    private final GameObject owner;
+
+    private float range = 0;                // swept range
+    private long sweepTick = -1;
+
+    private final List<Track> tracks = new ArrayList<>();      // in index order
+    private final List<Track> pool = new ArrayList<>();
+
+    private final List<Track> selected = new ArrayList<>();
+
+
+    public Sensor(GameObject owner) {
+        this.owner = owner;
+        period = owner.getWorld() != null ? owner.getWorld().sensorPeriod : 1;
+    }
+
+
+    /**
+     * Track table of last sweep (objects may be disposed since)
+     */
+    public List<Track> getTracks() {
+        return tracks;
+    }
+
+    /**
+     * Hostile objects (not owner and not owned by it) of given classes within range,
+     * sorted by distance to owner
+     * @param classes bit mask of SHIP, MISSILE, ...
+     * @param out result, cleared
+     */
+    public List<GameObject> getObjects(float range, int classes, List<GameObject> out) {
+
+        sweep(range);
+
+        out.clear();
+        selected.clear();
+
+        float x1 = owner.pos.x - range;
+        float x2 = owner.pos.x + range;
+        float y1 = owner.pos.y - range;
+        float y2 = owner.pos.y + range;
+
+        for (int i = 0; i < tracks.size(); i++) {
+
+            Track track = tracks.get(i);
+
+            if (!track.hostile || (track.classes & classes) == 0 || track.object.readyToDispose ||
+                    track.x < x1 || track.x > x2 || track.y < y1 || track.y > y2) {
+
+                continue;
+            }
+            selected.add(track);
+        }
+
+        // stable - equal distances in index order, as World.getCloseObjects
+        selected.sort((t1, t2) -> Float.compare(t1.object.pos.dst(owner.pos), t2.object.pos.dst(owner.pos)));
+
+        for (int i = 0; i < selected.size(); i++) {
+            out.add(selected.get(i).object);
+        }
+        selected.clear();
+
+        return out;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    private void sweep(float range) {
+
+        World world = owner.getWorld();
+        long tick = world.getTick();
+
+        // still valid (tick may go back on world reset)
+        if (sweepTick >= 0 && tick >= sweepTick && tick - sweepTick < period && range <= this.range) {
+            return;
+        }
+
+        this.range = Math.max(this.range, range);
+        sweepTick = tick;
+
+        pool.addAll(tracks);
+        tracks.clear();
+
+        float r = this.range + MARGIN;
+
+        for (Point<GameObject> p : world.getIndexPoints(owner.pos.x - r, owner.pos.y - r,
+                owner.pos.x + r, owner.pos.y + r)) {
+
+            GameObject o = p.getValue();
+
+            if (o.readyToDispose) {
+                continue;
+            }
+
+            Track track = pool.isEmpty() ? new Track() : pool.remove(pool.size() - 1);
+            track.set(owner, o, (float) p.getX(), (float) p.getY());
+            tracks.add(track);
+        }
+    }
+
+
+    /**
+     * Object found by sweep
+     */
+    public static class Track {
+
+        public GameObject object;
+
+        public float x, y;              // position in index
+        public int classes;             // SHIP, MISSILE, ...
+        public boolean hostile;         // not owner and not owned by owner
+
+        // relative to owner at sweep time
+        public float dx, dy;
+        public float dvx, dvy;
+        public float distance;
+
+        void set(GameObject owner, GameObject o, float x, float y) {
+
+            object = o;
+            this.x = x;
+            this.y = y;
+
+            classes = 0;
+            if (o.type.contains(ObjectType.SHIP)) {
+                classes |= SHIP;
+            }
+            if (o.type.contains(ObjectType.MISSILE)) {
+                classes |= MISSILE;
+            }
+            if (o.type.contains(ObjectType.BASIC_MISSILE)) {
+                classes |= BASIC_MISSILE;
+            }
+            if (o.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) {
+                classes |= GRAVITY_REPULSE_MISSILE;
+            }
+
+            hostile = o != owner && o.owner != owner;
+
+            dx = o.pos.x - owner.pos.x;
+            dy = o.pos.y - owner.pos.y;
+            dvx = o.vel.x - owner.vel.x;
+            dvy = o.vel.y - owner.vel.y;
+            distance = (float)Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+}
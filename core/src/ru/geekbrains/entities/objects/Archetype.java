@@ -0,0 +1,66 @@
+package ru.geekbrains.entities.objects;
+
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Static per-type properties shared by all instances of one entity kind (flyweight).
+ * <br>
+ * Entities keep a reference to their archetype instead of constructing own copies of
+ * constant data (explosion color, etc.), weapons can read ammo characteristics
+ * (mass for muzzle velocity) without instantiating a projectile.
+ * <br>
+ * Do not modify explosionColor - it is shared between all instances.
+ */
+public enum Archetype implements PhysicalInfo {
+
+    //            mass       maxHealth        damage  armour  penetration  empDamage  explosionColor
+    OBJECT(       1f,        0f,              0f,     0f,     0f,          0,         new Color(1f, 1f, 0.2f, 1)),
+    PLANET(       1000000f,  1000000f,        0f,     0f,     0f,          0,         OBJECT.explosionColor),
+    SHIP(         1f,        3f,              4f,     1f,     1f,          0,         OBJECT.explosionColor),
+
+    BULLET(       0.001f,    0.01f,           0.015f, 0f,     1f,          0,         OBJECT.explosionColor),
+    SHELL(        0.016f,    0.1f,            1f,     0f,     1f,          0,         OBJECT.explosionColor),
+    FLAK_SHELL(   0.01f,     0.1f,            0.5f,   0f,     1f,          0,         OBJECT.explosionColor),
+    PLASMA_FLAK_SHELL(0.01f, 0.1f,            0.5f,   0f,     1f,          0,         OBJECT.explosionColor),
+    BLACKHOLE_SHELL(1f,      Integer.MAX_VALUE, 0.1f, 0f,     1f,          0,         Color.BLACK),
+
+    FRAG(         0.001f,    0.002f,          0.015f, 0f,     0.1f,        0,         OBJECT.explosionColor),
+    PLASMA_FRAG(  0.001f,    0.002f,          0.5f,   0f,     1f,          0,         OBJECT.explosionColor),
+    EMP_FRAG(     0.001f,    0.002f,          0.5f,   0f,     0.1f,        250,       new Color(0.65f, 0.87f, 1, 0.5f)),
+
+    MISSILE(      0.04f,     0.02f,           5f,     0f,     1f,          0,         OBJECT.explosionColor),
+    EMP_MISSILE(  0.04f,     0.02f,           0.5f,   0f,     1f,          2000,      EMP_FRAG.explosionColor),
+    ANTIMISSILE(  0.01f,     0.01f,           0.5f,   0f,     0.1f,        0,         OBJECT.explosionColor),
+    FRAG_MISSILE( 0.08f,     0.02f,           1f,     0f,     1f,          0,         OBJECT.explosionColor),
+    NEWTON_MISSILE(0.3f,     20f,             10f,    1f,     1f,          0,         new Color(0.3f, 0.3f, 0.7f, 0.4f));
+
+
+    public final float mass;
+    public final float maxHealth;
+    public final float damage;
+    public final float armour;
+    public final float penetration;
+    public final float empDamage;
+    public final Color explosionColor;
+
+    Archetype(float mass, float maxHealth, float damage, float armour, float penetration,
+              float empDamage, Color explosionColor) {
+
+        this.mass = mass;
+        this.maxHealth = maxHealth;
+        this.damage = damage;
+        this.armour = armour;
+        this.penetration = penetration;
+        this.empDamage = empDamage;
+        this.explosionColor = explosionColor;
+    }
+
+    public boolean isEmpOrdinance() {
+        return empDamage > 0;
+    }
+
+    @Override
+    public float getMass() {
+        return mass;
+    }
+}
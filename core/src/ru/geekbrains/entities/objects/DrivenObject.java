@@ -1,8 +1,6 @@
 package ru.geekbrains.entities.objects;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
@@ -23,7 +21,7 @@ public abstract class DrivenObject extends GameObject implements SmokeTrailList
 
     public float maxFuel = 100000f;        // maximum fuel tank capacity
     public float maxThrottle = 50f;        // maximum thruster engine force
-    public float maxRotationSpeed = 0.05f; // maximum rotation speed
+    public float maxRotationSpeed = 0.05f; // maximum rotation speed, rad per base tick
 
     //public Guidance guidance = Guidance.AUTO;
 
@@ -142,7 +140,7 @@ public abstract class DrivenObject extends GameObject implements SmokeTrailList
         // auto-repair for ships
         if (health < getMaxHealth() &&
                 type.contains(ObjectType.SHIP)) {
-            health += 0.001;
+            health += world.perTick(0.001);
         }
 
 
@@ -158,7 +156,7 @@ public abstract class DrivenObject extends GameObject implements SmokeTrailList
             // angle between direction and guideVector
             float guideAngle = dir.angleRad(guideVector);
 
-            float doAngle = Math.min(Math.abs(guideAngle), maxRotationSpeed);
+            float doAngle = Math.min(Math.abs(guideAngle), world.perTick(maxRotationSpeed));
 
             if (guideAngle < 0) {
                 doAngle = -doAngle;
@@ -237,9 +235,8 @@ public abstract class DrivenObject extends GameObject implements SmokeTrailList
         //super.draw(renderer);
 
         // render engine burst
-        Gdx.gl.glLineWidth(1);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        renderer.shape.setLineWidth(1);
+        renderer.shape.enableBlending();
         //renderer.shape.begin();
         renderer.shape.set(ShapeRenderer.ShapeType.Filled);
 
@@ -247,7 +244,7 @@ public abstract class DrivenObject extends GameObject implements SmokeTrailList
         renderer.shape.circle(enginePos.x, enginePos.y,
                 radius * aspectRatio * 0.3f * (throttle/maxThrottle));
 
-        Gdx.gl.glLineWidth(1);
+        renderer.shape.setLineWidth(1);
         //renderer.shape.end();
 
 
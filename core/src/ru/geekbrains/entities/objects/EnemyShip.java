@@ -12,9 +12,9 @@ import java.util.Arrays;
 import ru.geekbrains.entities.equipment.BPU;
 import ru.geekbrains.entities.weapons.Minigun;
 import ru.geekbrains.entities.weapons.MissileLauncher;
-import ru.geekbrains.screen.GameScreen;
 import ru.geekbrains.screen.Renderer;
 import ru.geekbrains.screen.RendererType;
+import ru.geekbrains.screen.World;
 
 public class EnemyShip extends Ship {
 
@@ -112,7 +112,7 @@ public class EnemyShip extends Ship {
     @Override
     protected void guide(float dt) {
 
-        GameObject planet = GameScreen.INSTANCE.planet;
+        GameObject planet = world.getClosestPlanet(pos);
 
         // Не уклоняемся от планеты
         //avoidPlanetModeOn = false;
@@ -196,7 +196,7 @@ public class EnemyShip extends Ship {
                 // гидродоминируем с самонаведением пушки
 
                 // скорость снаряда
-                float maxVel = gun.power / gun.firingAmmoType.getMass() * dt;
+                float maxVel = gun.power / gun.firingAmmoType.getMass() * World.BASE_TICK_TIME;
                 pbu.guideGun(this, target, maxVel, dt);
 
                 if (!pbu.guideResult.guideVector.isZero()) {
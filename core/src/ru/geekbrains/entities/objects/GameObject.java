@@ -5,12 +5,15 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Disposable;
 
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Set;
 
-import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.entities.equipment.Sensor;
+import ru.geekbrains.math.Integrator;
+import ru.geekbrains.screen.ParallelPhase;
 import ru.geekbrains.screen.Renderer;
 import ru.geekbrains.screen.RendererType;
+import ru.geekbrains.screen.World;
 import ru.geekbrains.sprite.Sprite;
 
 /**
@@ -18,11 +21,11 @@ import ru.geekbrains.sprite.Sprite;
  */
 public abstract class GameObject implements Disposable, PhysicalInfo {
 
-    protected Set<RendererType> rendererType = new HashSet<>();
+    protected Set<RendererType> rendererType = EnumSet.noneOf(RendererType.class);
 
-    protected long TTL;
-    protected long birth;  // object birth date in ticks
-    protected long age;    // object ages in game ticks
+    protected long TTL;    // time to live in base ticks (see World.getTime())
+    protected long birth;  // object birth date in base ticks
+    protected long age;    // object ages in base ticks
 
 
     public boolean isEmpOrdinance = false;
@@ -31,9 +34,13 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
 
     public GameObject owner;
 
+    protected World world;  // world this object lives in (taken from owner or World.current())
+
+    private Sensor sensor;  // created on first use
+
     public boolean isModule;
 
-    public Set<ObjectType> type = new HashSet<>();
+    public Set<ObjectType> type = EnumSet.noneOf(ObjectType.class);
 
     public float armour = 0;
     public float penetration = 0;
@@ -53,6 +60,7 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
     protected Vector2 force = new Vector2();          // resulting force (sum of all forces)
     public float radius;                         // object radius (== halfHeight)
     protected float mass = 1;                          // mass
+    protected float gravityMass = 0;                   // attracts other objects in mutual gravity mode, 0 - not a source
     //public float momentInertia = 1;               // moment of inertia
 
     public float explosionRadius;
@@ -60,6 +68,8 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
 
     public boolean readyToDispose = false;            // object ready to dispose
 
+    protected boolean integrated = false;             // moved by batch integrator this tick
+
     protected Vector2 tmp0 = new Vector2();           // buffer
     protected Vector2 tmp1 = new Vector2();           // buffer
     protected Vector2 tmp2 = new Vector2();           // buffer
@@ -69,7 +79,7 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
     protected Vector2 tmp6 = new Vector2();           // buffer
 
     public Color color = Color.WHITE;
-    public Color explosionColor = new Color(1f, 1f, 0.2f, 1);
+    public Color explosionColor = Archetype.OBJECT.explosionColor;  // shared, do not modify
 
     protected float health;                       // текущий запас прочности корпуса(health)
     protected float maxHealth = 0;               // максимальный запас прочности корпуса(health)
@@ -77,12 +87,15 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
     public float damage = 0;
     public float empDamage = 0;
 
+    protected Archetype archetype = Archetype.OBJECT;  // static per-type properties
+
 
 
 
     private GameObject(GameObject owner, float radius, RendererType renderType) {
 
-        birth = GameScreen.INSTANCE.getTick();
+        world = owner != null ? owner.world : World.current();
+        birth = world != null ? world.getTime() : 0;
         this.type.add(ObjectType.OBJECT);
         this.owner = owner;
         dir.set(1, 0);
@@ -133,7 +146,7 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
      */
     public void update(float dt) {
 
-        age = GameScreen.INSTANCE.getTick() - birth;
+        age = world.getTime() - birth;
 
         // auto removing destroyed targets
         if (owner == null ||  owner.readyToDispose) {
@@ -161,34 +174,13 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
 
             // -----------------------------------------------------------------------------------------
 
-            // calc resulting acceleration
-            acc.set(force.scl(1 / mass));
-
-
-            // calc velocity and position
-            // =========================================================================================
-
-            // a - current acceleration,
-            // v0, x0 - initial speed and coordinates
-            // v, x - new speed and coordinates
-
-            // a = f/m;    - Second Newton law
-            // v = v0 + a*t
-            // x = x0 + v0*t + (a*t^2)/2
-
-            tmp1.set(acc); // a*t
-
-            // update velocity
-            vel.add(tmp1.scl(dt)); // v
-
-            tmp1.set(vel); // v*t
-            tmp2.set(acc); // (a*t^2)/2
-
-            // update position
-            pos.add(tmp1.scl(dt)).add(tmp2.scl(dt * dt / 2f));
-
-            // clearing force to be ready for next iteration
-            force.setZero();
+            // already moved by batch integrator this tick (see Integrator, GameScreen)
+            if (integrated) {
+                integrated = false;
+            }
+            else {
+                integrate(dt);
+            }
 
         }
         // module attached to it's parent body
@@ -218,6 +210,60 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
 
 
 
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Calc velocity and position, symplectic Euler (same scheme as Integrator)
+     * <br>
+     * a = f/m;    - Second Newton law
+     * v = v0 + a*t
+     * x = x0 + v*t  - new velocity, energy of orbits does not drift
+     */
+    protected void integrate(float dt) {
+
+        float invMass = 1 / mass;
+
+        acc.set(force.x * invMass, force.y * invMass);
+
+        // update velocity
+        vel.x += force.x * invMass * dt;
+        vel.y += force.y * invMass * dt;
+
+        // update position
+        pos.x += vel.x * dt;
+        pos.y += vel.y * dt;
+
+        // clearing force to be ready for next iteration
+        force.setZero();
+    }
+
+    /**
+     * Move integration of this tick to batch
+     * @return index of body in batch
+     */
+    public int gather(Integrator batch) {
+
+        int i = batch.add(pos.x, pos.y, vel.x, vel.y, mass);
+        batch.fx[i] = force.x;
+        batch.fy[i] = force.y;
+        return i;
+    }
+
+    /**
+     * Take integrated state from batch, next update() will not integrate again
+     */
+    public void scatter(Integrator batch, int i) {
+
+        acc.set(force.x * batch.invMass[i], force.y * batch.invMass[i]);
+        pos.set(batch.x[i], batch.y[i]);
+        vel.set(batch.vx[i], batch.vy[i]);
+
+        force.setZero();
+        integrated = true;
+    }
+
+
     // ---------------------------------------------------------------------------------------------
 
 
@@ -226,7 +272,35 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
      */
     public void applyForce(Vector2 f) {
 
-        force.add(f);
+        applyForce(f.x, f.y);
+    }
+
+    /**
+     * Apply force acting during one base tick (shot, launch, fragments of explosion) -
+     * scaled to step of simulation, so velocity change does not depend on tick rate
+     */
+    public void applyTickForce(Vector2 f) {
+
+        applyForce(world.perTick(f.x), world.perTick(f.y));
+    }
+
+    public void applyForce(float x, float y) {
+
+        // called from parallel update of other object - apply later
+        if (ParallelPhase.deferForce(this, x, y)) {
+            return;
+        }
+
+        force.add(x, y);
+    }
+
+    /**
+     * Object update() changes only this object
+     * (other objects only through applyForce() and World.addObject()),
+     * so it can be updated in parallel (see ParallelPhase)
+     */
+    public boolean isParallelUpdateSafe() {
+        return false;
     }
 
 //    public void clearForce() {
@@ -243,8 +317,8 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
     public void draw(Renderer renderer) {
 
         // Do not draw out of screen
-        float dx = GameScreen.INSTANCE.worldBounds.getHalfWidth()* GameScreen.INSTANCE.aspect;
-        float dy = GameScreen.INSTANCE.worldBounds.getHalfHeight();
+        float dx = world.bounds.getHalfWidth()* world.aspect;
+        float dy = world.bounds.getHalfHeight();
 
         if(Math.abs(pos.x) >  dx + dx * 0.3 || Math.abs(pos.y) >  dy + dy * 0.3) {
             return;
@@ -283,10 +357,44 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
         return mass;
     }
 
+
+    public Archetype getArchetype() {
+        return archetype;
+    }
+
+    /**
+     * Load static per-type properties from archetype.
+     * Values can be overridden per instance afterwards.
+     */
+    protected void setArchetype(Archetype archetype) {
+
+        this.archetype = archetype;
+
+        mass = archetype.mass;
+        setMaxHealth(archetype.maxHealth);
+        damage = archetype.damage;
+        armour = archetype.armour;
+        penetration = archetype.penetration;
+        empDamage = archetype.empDamage;
+        isEmpOrdinance = archetype.isEmpOrdinance();
+        explosionColor = archetype.explosionColor;
+    }
+
     public void setMass(float mass) {
         this.mass = mass;
     }
 
+    /**
+     * Mass attracting other objects (mutual gravity mode, see NBodyGravity)
+     */
+    public float getGravityMass() {
+        return gravityMass;
+    }
+
+    public void setGravityMass(float gravityMass) {
+        this.gravityMass = gravityMass;
+    }
+
 
     //    public void explode() {
 //
@@ -341,6 +449,24 @@ public abstract class GameObject implements Disposable, PhysicalInfo {
         return age;
     }
 
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Sensor shared by weapons and AI of this object
+     */
+    public Sensor getSensor() {
+
+        if (sensor == null) {
+            sensor = new Sensor(this);
+        }
+        return sensor;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
     public float getExplosionRadius() {
         return explosionRadius;
     }
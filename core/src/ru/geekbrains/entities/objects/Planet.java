@@ -14,9 +14,8 @@ public class Planet extends GameObject {
         name = "planet";
 
 
-        mass = 1000000f;
-
-        setMaxHealth(1000000f);
+        setArchetype(Archetype.PLANET);
+        gravityMass = mass;
 
         this.type.add(ObjectType.PLANET);
 
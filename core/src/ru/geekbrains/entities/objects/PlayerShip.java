@@ -10,14 +10,14 @@ import java.util.TreeMap;
 
 import ru.geekbrains.entities.auxiliary.TrajectorySimulator;
 import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.equipment.FireControl;
 import ru.geekbrains.entities.equipment.ForceShield;
 import ru.geekbrains.entities.projectile.shell.Shell;
 import ru.geekbrains.entities.weapons.AntiMissileLauncher;
 import ru.geekbrains.entities.weapons.FlakCannon;
 import ru.geekbrains.entities.weapons.Minigun;
 import ru.geekbrains.entities.weapons.MissileLauncher;
-import ru.geekbrains.screen.KeyDown;
-import ru.geekbrains.screen.KeyToggle;
+import ru.geekbrains.screen.InputState;
 import ru.geekbrains.screen.Renderer;
 
 public class PlayerShip extends Ship {
@@ -35,11 +35,15 @@ public class PlayerShip extends Ship {
 
     public FlakCannon flakCannon;
 
+    public FireControl fireControl;      // point defence targets assignment, null - weapons pick targets themselves
+
     public BPU pbu = new BPU();
     public float maxAimRange = 1000;
     private NavigableMap<Float, BPU.GuideResult> impactTimes = new TreeMap<>();
     private List<GameObject> targetList = new ArrayList<>();
 
+    private boolean spaceTriggerOn = true;     // full throttle key was pressed, cut throttle on release
+
 
 
     public PlayerShip(TextureRegion textureRegion, float height, GameObject owner) {
@@ -61,6 +65,8 @@ public class PlayerShip extends Ship {
 
         flakCannon = new FlakCannon(10, this);
 
+        setFireControl(world == null || world.fireControl);
+
         maxThrottle = 80f;
 
         //launcher.fireRate = 0.02f;
@@ -76,55 +82,79 @@ public class PlayerShip extends Ship {
     }
 
 
+    /**
+     * Assign targets of point defence weapons (minigun, antimissile launcher, flak cannon)
+     * by ship fire control, otherwise every weapon picks targets itself
+     */
+    public void setFireControl(boolean enabled) {
+
+        fireControl = null;
+
+        if (enabled) {
+            fireControl = new FireControl();
+            fireControl.add(minigun);
+            fireControl.add(antiLauncher);
+            fireControl.add(flakCannon);
+        }
+
+        minigun.fireControl = fireControl;
+        antiLauncher.fireControl = fireControl;
+        flakCannon.fireControl = fireControl;
+    }
+
+
     @Override
     protected void guide(float dt) {
 
-        float rot = maxRotationSpeed;
+        // input of current tick (live or replayed)
+        InputState input = world.getInput();
+
+        float rot = world.perTick(maxRotationSpeed);
 
-        if (KeyDown.SHIFT) {
-            rot = maxRotationSpeed/2;
+        if (input.SHIFT) {
+            rot = world.perTick(maxRotationSpeed)/2;
 
         }
 
-        if (KeyDown.A) {
+        if (input.A) {
             dir.rotateRad(rot);
             minigun.dir.rotateRad(rot);
             flakCannon.dir.rotateRad(rot);
 
         }
-        if (KeyDown.D) {
+        if (input.D) {
             dir.rotateRad(-rot);
             minigun.dir.rotateRad(-rot);
             flakCannon.dir.rotateRad(-rot);
         }
 
-        if (KeyDown.W) {
-            throttle += maxThrottle * 0.05f;
+        if (input.W) {
+            throttle += world.perTick(maxThrottle * 0.05f);
             if (throttle >= maxThrottle) {
                 throttle = maxThrottle;
             }
         }
 
-        if (KeyDown.S) {
-            throttle -= maxThrottle * 0.05f;
+        if (input.S) {
+            throttle -= world.perTick(maxThrottle * 0.05f);
             if (throttle < 0) {
                 throttle = 0;
             }
         }
 
         // full throttle ------------------------
-        if (KeyDown.SPACE) {
+        if (input.SPACE) {
             throttle = maxThrottle * 1.f;
-            KeyDown.SPACE_TRIGGER_ON = true;
+            spaceTriggerOn = true;
         }
 
-        if (!KeyDown.SPACE && KeyDown.SPACE_TRIGGER_ON) {
+        if (!input.SPACE && spaceTriggerOn) {
             throttle = 0;
-            KeyDown.SPACE_TRIGGER_ON = false;
+            spaceTriggerOn = false;
         }
 
         // gun fire------------------------------
-        if (KeyDown.MOUSE0) {
+        if (input.MOUSE0) {
             gun.startFire();
         }
         else {
@@ -133,9 +163,9 @@ public class PlayerShip extends Ship {
 
 
         // missile fire------------------------------
-        if (KeyDown.MOUSE1 || KeyDown.CTRL) {
+        if (input.MOUSE1 || input.CTRL) {
 
-            if (KeyDown.SHIFT || KeyDown.CTRL) {
+            if (input.SHIFT || input.CTRL) {
                 launcher.reverse(true);
             }
             else {
@@ -149,24 +179,22 @@ public class PlayerShip extends Ship {
         }
 
 
-        if (KeyDown.SCROLLED != 0) {
+        if (input.scrolled != 0) {
 
-            rot = maxRotationSpeed/2 * KeyDown.SCROLLED;
+            rot = maxRotationSpeed/2 * input.scrolled;
 
             dir.rotateRad(rot);
             minigun.dir.rotateRad(rot);
             flakCannon.dir.rotateRad(rot);
-
-            KeyDown.SCROLLED = 0;
         }
 
-        if (KeyToggle.F) {
+        if (input.F) {
             flakCannon.setFiringMode(FlakCannon.FiringMode.FLAK_ONLY);
         }
-        if (KeyToggle.G)  {
+        if (input.G)  {
             flakCannon.setFiringMode(FlakCannon.FiringMode.AUTOMATIC);
         }
-        if (KeyToggle.V)  {
+        if (input.V)  {
             flakCannon.setFiringMode(FlakCannon.FiringMode.PLASMA_ONLY);
         }
 
@@ -187,6 +215,11 @@ public class PlayerShip extends Ship {
 
         gun.update(dt);
 
+        // targets of point defence weapons
+        if (fireControl != null) {
+            fireControl.update(dt);
+        }
+
         minigun.update(dt);
 
         launcher.update(dt);
@@ -206,7 +239,7 @@ public class PlayerShip extends Ship {
 //
 //        // getting target
 //        if (!this.readyToDispose) {
-//            targetList = GameScreen.getCloseObjects(this, maxAimRange);
+//            targetList = world.getCloseObjects(this, maxAimRange);
 //        }
 //
 //
@@ -10,7 +10,7 @@ public abstract class Ship extends DrivenObject {
 
     public Gun gun;
 
-    public float fuelGeneration;
+    public float fuelGeneration;       // per base tick
 
 
     public Ship(TextureRegion textureRegion, float height, GameObject owner) {
@@ -26,12 +26,7 @@ public abstract class Ship extends DrivenObject {
 
         gun = new Gun(radius * 0.3f, this);
 
-        setMaxHealth(3f);
-        
-        damage = 4f;
-
-        armour = 1;
-        penetration = 1;
+        setArchetype(Archetype.SHIP);
     }
 
     @Override
@@ -40,7 +35,7 @@ public abstract class Ship extends DrivenObject {
         super.update(dt);
 
         if (fuel < maxFuel) {
-            fuel += fuelGeneration;
+            fuel += world.perTick(fuelGeneration);
         }
 
     }
@@ -1,8 +1,6 @@
 package ru.geekbrains.entities.particles;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 import java.util.List;
@@ -10,8 +8,8 @@ import java.util.Set;
 
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
-import ru.geekbrains.screen.GameScreen;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
 import ru.geekbrains.screen.RendererType;
 
 public class Explosion extends ParticleObject {
@@ -55,7 +53,7 @@ public class Explosion extends ParticleObject {
         this.mass = owner.getMass();
         this.pos = owner.pos.cpy();
         this.vel = owner.vel.cpy();
-        this.start = GameScreen.INSTANCE.getTick();
+        this.start = world.getTime();
         this.maxRadius = this.radius;
         this.objType = owner.type;
         this.color = owner.explosionColor;
@@ -72,6 +70,11 @@ public class Explosion extends ParticleObject {
 
 
 
+    @Override
+    public boolean isParallelUpdateSafe() {
+        return true;
+    }
+
     public void update(float dt) {
 
         super.update(dt);
@@ -82,7 +85,7 @@ public class Explosion extends ParticleObject {
             }
         }
 
-        //frame = GameScreen.INSTANCE.getTick() - start;
+        //frame = world.getTick() - start;
 
         if(age >= 0 && age < 5) {
             radius =  maxRadius * 0.3f;
@@ -125,7 +128,7 @@ public class Explosion extends ParticleObject {
             return;
         }
 
-        ShapeRenderer shape = renderer.shape;
+        ShapeRecorder shape = renderer.shape;
 
 
         // render smokeTrail if have one
@@ -136,9 +139,8 @@ public class Explosion extends ParticleObject {
         }
 
         //shape.begin();
-        Gdx.gl.glLineWidth(1);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shape.setLineWidth(1);
+        shape.enableBlending();
         shape.set(ShapeRenderer.ShapeType.Filled);
 
         shape.setColor(color);
@@ -174,7 +176,7 @@ public class Explosion extends ParticleObject {
 
         shape.circle(pos.x, pos.y, radius);
 
-        Gdx.gl.glLineWidth(1);
+        shape.setLineWidth(1);
         //shape.end();
     }
 
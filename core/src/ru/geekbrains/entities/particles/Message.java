@@ -8,10 +8,13 @@ import ru.geekbrains.screen.RendererType;
 
 public class Message extends GameObject {
 
+    // shared by all messages, first message should be created on GL thread (GameScreen.show)
+    private static Font FONT;
+
     public Font font;
 
 
-    long TTL = 400; // time to live (in ticks)
+    long TTL = 400; // time to live (in base ticks)
 
     long expired;
 
@@ -22,21 +25,24 @@ public class Message extends GameObject {
         super();
 
 
-        font = new Font("font/font.fnt", "font/font2.png");
-        font.setSize(20f);
+        if (FONT == null) {
+            FONT = new Font("font/font.fnt", "font/font2.png");
+            FONT.setSize(20f);
+        }
+        font = FONT;
 
         //super(1, null);
 
-        this.expired = GameScreen.INSTANCE.getTick() + TTL;
+        this.expired = world.getTime() + TTL;
         this.text = text;
 
         if (ps ==1) {
             this.expired = Long.MAX_VALUE;
-            pos.set(GameScreen.INSTANCE.BACKGROUND_SIZE - 100 , 0);
+            pos.set(GameScreen.BACKGROUND_SIZE - 100 , 0);
         }
         else if (ps ==2) {
             this.expired = Long.MAX_VALUE;
-            pos.set(GameScreen.INSTANCE.BACKGROUND_SIZE - 300 , 0);
+            pos.set(GameScreen.BACKGROUND_SIZE - 300 , 0);
         }
 
         rendererType.add(RendererType.FONT);
@@ -47,9 +53,9 @@ public class Message extends GameObject {
     public void update(float dt) {
         super.update(dt);
 
-        long tick = GameScreen.INSTANCE.getTick();
+        long time = world.getTime();
 
-        if (tick > expired) {
+        if (time > expired) {
             readyToDispose = true;
         }
     }
@@ -66,15 +72,15 @@ public class Message extends GameObject {
 
 
         //renderer.batch.begin();
-        font.draw(renderer.batch, text,
-                GameScreen.INSTANCE.worldBounds.getLeft() * GameScreen.INSTANCE.aspect + 5 + pos.x,
-                GameScreen.INSTANCE.worldBounds.getTop() - 5 - pos.y);
+        renderer.batch.drawText(font, text,
+                world.bounds.getLeft() * world.aspect + 5 + pos.x,
+                world.bounds.getTop() - 5 - pos.y);
         //renderer.batch.end();
     }
 
     @Override
     public void setTTL(long TTL) {
         super.setTTL(TTL);
-        expired = GameScreen.INSTANCE.getTick() + TTL;
+        expired = world.getTime() + TTL;
     }
 }
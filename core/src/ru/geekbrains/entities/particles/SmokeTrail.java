@@ -1,8 +1,6 @@
 package ru.geekbrains.entities.particles;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 
@@ -10,8 +8,8 @@ import java.util.Iterator;
 import java.util.LinkedList;
 
 import ru.geekbrains.entities.objects.GameObject;
-import ru.geekbrains.screen.GameScreen;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
 import ru.geekbrains.screen.RendererType;
 
 public class SmokeTrail extends GameObject{
@@ -47,7 +45,7 @@ public class SmokeTrail extends GameObject{
 
         //vel.set(owner.vel);//.scl(-1);
 
-        //long tick = GameScreen.INSTANCE.getTick();
+        //long tick = world.getTick();
 
 
         // move smoke
@@ -91,17 +89,16 @@ public class SmokeTrail extends GameObject{
 
 
 
-        ShapeRenderer shape = renderer.shape;
+        ShapeRecorder shape = renderer.shape;
 
 
-        Gdx.gl.glLineWidth(radius);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shape.setLineWidth(radius);
+        shape.enableBlending();
 
         //shape.begin();
         shape.set(ShapeRenderer.ShapeType.Line);
 
-        //long tick = GameScreen.INSTANCE.getTick();
+        //long tick = world.getTick();
 
 
         for(TraceElement el : list) {
@@ -126,7 +123,7 @@ public class SmokeTrail extends GameObject{
 
             //shape.circle(el.pos.x, el.pos.y, 10);
         }
-        Gdx.gl.glLineWidth(1);
+        shape.setLineWidth(1);
         //shape.end();
 
     }
@@ -207,7 +204,7 @@ public class SmokeTrail extends GameObject{
         public void update(float dt) {
 
             // no super - update age and pos manually
-            age = GameScreen.INSTANCE.getTick() - birth;
+            age = world.getTime() - birth;
 
             tmp0.set(vel);
 
@@ -215,7 +212,7 @@ public class SmokeTrail extends GameObject{
 
 
             if (radius < 2* owner.getRadius()) {
-                radius += 0.2f;
+                radius += world.perTick(0.2f);
             }
 
             readyToDispose = age > TTL;
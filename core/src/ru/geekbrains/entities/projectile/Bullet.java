@@ -1,5 +1,6 @@
 package ru.geekbrains.entities.projectile;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 
@@ -18,12 +19,7 @@ public class Bullet extends Projectile {
     protected void postConstruct() {
 
         type.add(ObjectType.BULLET);
-        mass = 0.001f;
-
-        setMaxHealth(0.01f);
-        damage = 0.015f;
-
-        penetration = 1f;
+        setArchetype(Archetype.BULLET);
     }
 
 
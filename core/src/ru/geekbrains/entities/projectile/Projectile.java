@@ -1,6 +1,5 @@
 package ru.geekbrains.entities.projectile;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
@@ -12,6 +11,7 @@ import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.particles.SmokeTrail;
 import ru.geekbrains.entities.particles.SmokeTrailList;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
 import ru.geekbrains.screen.RendererType;
 
 public abstract class Projectile extends GameObject implements SmokeTrailList {
@@ -45,6 +45,12 @@ public abstract class Projectile extends GameObject implements SmokeTrailList {
     protected abstract void postConstruct();
 
 
+    @Override
+    public boolean isParallelUpdateSafe() {
+        return true;
+    }
+
+
 
     private void addTrace(float trailRadius, Color traceColor) {
 
@@ -95,15 +101,15 @@ public abstract class Projectile extends GameObject implements SmokeTrailList {
             return;
         }
 
-        ShapeRenderer shape = renderer.shape;
+        ShapeRecorder shape = renderer.shape;
 
-        Gdx.gl.glLineWidth(1);
+        shape.setLineWidth(1);
 
         shape.setColor(color);
 
         if (type.contains(ObjectType.BULLET)) {
 
-            Gdx.gl.glLineWidth(2);
+            shape.setLineWidth(2);
 
             shape.set(ShapeRenderer.ShapeType.Line);
             if (radius > 1) {
@@ -117,7 +123,7 @@ public abstract class Projectile extends GameObject implements SmokeTrailList {
         }
         else if (type.contains(ObjectType.SHELL) ||
                 type.contains(ObjectType.FRAG)) {
-            Gdx.gl.glLineWidth(1);
+            shape.setLineWidth(1);
             shape.set(ShapeRenderer.ShapeType.Filled);
             shape.circle(pos.x,pos.y,radius);
         }
@@ -2,6 +2,7 @@ package ru.geekbrains.entities.projectile.frag;
 
 import com.badlogic.gdx.graphics.Color;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 
@@ -30,12 +31,7 @@ public class EmpFragment extends Fragment{
 
         explosionRadius = radius * 4;
         //color = new Color(0.25f, 0.57f, 1, 1);
-        explosionColor = new Color(0.65f, 0.87f, 1, 0.5f);// new Color(0.25f, 0.57f, 1, 0.5f);
 
-        penetration = 0.1f;
-        damage = 0.5f;
-
-        isEmpOrdinance = true;
-        empDamage = 250;
+        setArchetype(Archetype.EMP_FRAG);
     }
 }
@@ -2,6 +2,7 @@ package ru.geekbrains.entities.projectile.frag;
 
 import com.badlogic.gdx.graphics.Color;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.Projectile;
@@ -22,13 +23,9 @@ public class Fragment extends Projectile {
     protected void postConstruct() {
 
         type.add(ObjectType.FRAG);
-        mass = 0.001f;
-        setMaxHealth(0.002f);
+        setArchetype(Archetype.FRAG);
         explosionRadius = 1;
 
-        damage = 0.015f;
-        penetration = 0.1f;
-
 
     }
 
@@ -2,6 +2,7 @@ package ru.geekbrains.entities.projectile.frag;
 
 import com.badlogic.gdx.graphics.Color;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 
@@ -30,8 +31,7 @@ public class PlasmaFragment extends Fragment {
 
         explosionRadius = radius * 4;
 
-        penetration = 1f;
-        damage = 0.5f;
+        setArchetype(Archetype.PLASMA_FRAG);
     }
 }
 
@@ -2,6 +2,7 @@ package ru.geekbrains.entities.projectile.missile;
 
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.missile.Missile;
@@ -17,14 +18,12 @@ public class AntiMissile extends Missile {
 
         explosionRadius = radius * 2;
 
-        mass = 0.01f;
+        setArchetype(Archetype.ANTIMISSILE);
         fuel = 4f;
 
         maxThrottle = 3f;
         throttle = maxThrottle;
 
-        setMaxHealth(0.01f);
-        damage = 0.5f;
         boost = 600f;
 
 
@@ -36,8 +35,6 @@ public class AntiMissile extends Missile {
         proximityMissMinGateDistance = 500;
         proximityMissMaxSelfdDistance = 10;
 
-        penetration = 0.1f;
-
         maxRotationSpeedOld = maxRotationSpeed;
 
     }
@@ -81,7 +78,7 @@ public class AntiMissile extends Missile {
 
         /*
         // search new target
-        List<GameObject> targets = GameScreen.getCloseObjects(this, this.radius*5);
+        List<GameObject> targets = world.getCloseObjects(this, this.radius*5);
 
         // leave only OWNER_MISSILES in targets;
         //ToDO: implement friend or foe radar recognition system
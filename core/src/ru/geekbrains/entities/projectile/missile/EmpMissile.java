@@ -3,6 +3,7 @@ package ru.geekbrains.entities.projectile.missile;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 
@@ -15,14 +16,10 @@ public class EmpMissile extends Missile {
 
 
         engineTrail.color = new Color(0.65f, 0.87f, 1, 0.7f);
-        explosionColor = new Color(0.65f, 0.87f, 1, 0.5f);//new Color(0.25f, 0.57f, 1, 0.5f);
 
         explosionRadius = radius * 4;
 
-        damage = 0.5f;
-
-        isEmpOrdinance = true;
-        empDamage = 2000;
+        setArchetype(Archetype.EMP_MISSILE);
     }
 
 //    @Override
@@ -41,7 +38,7 @@ public class EmpMissile extends Missile {
 //        frag.setExplosionRadius(frag.getExplosionRadius()*30);
 //
 //
-//        GameScreen.addObject(frag);
+//        world.addObject(frag);
 //
 //        super.dispose();
 //    }
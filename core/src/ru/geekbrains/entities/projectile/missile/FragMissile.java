@@ -4,14 +4,12 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
-import java.util.concurrent.ThreadLocalRandom;
-
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.Projectile;
 import ru.geekbrains.entities.projectile.frag.Fragment;
 import ru.geekbrains.entities.projectile.frag.PlasmaFragment;
-import ru.geekbrains.screen.GameScreen;
 
 public class FragMissile extends Missile{
 
@@ -25,13 +23,10 @@ public class FragMissile extends Missile{
     public FragMissile(TextureRegion textureRegion, float height, GameObject owner) {
         super(textureRegion, height, owner);
 
-        //mass = 0.03f;
-        mass = 0.08f;
+        setArchetype(Archetype.FRAG_MISSILE);
 
         fuel = 24;
 
-        damage = 1f;
-        setMaxHealth(0.02f);
         boost = 700f;
 
         maxThrottle = 9f;
@@ -136,7 +131,7 @@ public class FragMissile extends Missile{
         trash.owner = owner;
 
 
-        GameScreen.addObject(trash);
+        world.addObject(trash);
 
         // create fragments
         for (int i = 0; i < fragCount; i++) {
@@ -170,14 +165,14 @@ public class FragMissile extends Missile{
 
 
 
-            float r = (float) ThreadLocalRandom.current().nextDouble(power - power*0.1f, power);
+            float r = (float) world.projectileRnd.nextDouble(power - power*0.1f, power);
             //float r = (float) ThreadLocalRandom.current().nextGaussian()*explosionPower*0.05f + explosionPower;
             //float r = explosionPower;
             float fi;
 
             try {
 
-                fi = (float) ThreadLocalRandom.current().nextDouble(fi_min, fi_max);
+                fi = (float) world.projectileRnd.nextDouble(fi_min, fi_max);
             }
             catch(Exception e) {
                 System.out.println(dir);
@@ -193,11 +188,11 @@ public class FragMissile extends Missile{
             float y = (float) (r * Math.sin(fi));
 
             tmp0.set(x, y); // force
-            frag.applyForce(tmp0);          // apply force applied to frag
-            trash.applyForce(tmp0.scl(-1));
+            frag.applyTickForce(tmp0);          // apply force applied to frag
+            trash.applyTickForce(tmp0.scl(-1));
 
-            frag.setTTL(ThreadLocalRandom.current().nextLong(400,600));
-            GameScreen.addObject(frag);
+            frag.setTTL(world.projectileRnd.nextLong(400,600));
+            world.addObject(frag);
         }
 
         super.dispose();
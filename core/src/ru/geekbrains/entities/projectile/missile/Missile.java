@@ -6,15 +6,14 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
-import java.util.concurrent.ThreadLocalRandom;
 
 import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.DrivenObject;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
-import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.math.IndexHeap;
+import ru.geekbrains.screen.JobScheduler;
 
 public class Missile extends DrivenObject {
 
@@ -61,7 +60,18 @@ public class Missile extends DrivenObject {
 
     protected int retargetCount = 0;
 
-    NavigableMap<Float, BPU.GuideResult> impactTimes = new TreeMap<>();
+    private JobScheduler.Job retargetJob;
+    private boolean retargetFailed = false;    // last search found no targets
+
+    IndexHeap impactTimes = new IndexHeap();     // индексы целей по времени попадания
+
+
+    /**
+     * Radius of missile sprite of given height (image is long and narrow, radius by its length)
+     */
+    public static float radiusOf(float height) {
+        return height / 2f * 5;
+    }
 
 
     public Missile(TextureRegion textureRegion, float height, GameObject owner) {
@@ -74,10 +84,10 @@ public class Missile extends DrivenObject {
         }
 
 
-        setRadius(radius * 5); // fix issued by image aspect ratio
+        setRadius(radiusOf(height)); // fix issued by image aspect ratio
 
 
-        mass = 0.04f;
+        setArchetype(Archetype.MISSILE);
         //maxRotationSpeed = 0.02f;
         fuel = 18;
 
@@ -87,9 +97,6 @@ public class Missile extends DrivenObject {
 
         setMaxThrottle(4f);
 
-        setMaxHealth(0.02f);
-        damage = 5f;
-
         selfdOnTargetDestroyed = false;
         selfdOnNoTargetAvailable = true;
         canRetarget = true;
@@ -97,8 +104,6 @@ public class Missile extends DrivenObject {
         selfdOnProximityMiss = false;
         aspectRatio = 1;
 
-        penetration = 1;
-
 //        final double relativeAccuracy = 1.0e-10;
 //        final double absoluteAccuracy = 1.0e-8;
 //
@@ -122,60 +127,21 @@ public class Missile extends DrivenObject {
         }
 
 
-        // EXPERIMENTAL RETARGETING
+        // EXPERIMENTAL RETARGETING (scheduled job, see retarget())
         if (target == null &&
             canRetarget &&
             retargetCount < Integer.MAX_VALUE) {
 
-            retargetCount ++;
-
-            // search new target
-            List<GameObject> targets = GameScreen.getCloseObjects(this, 2000);
-            impactTimes.clear();
-
-            // leave only ENEMY_SHIP in targets;
-            //ToDO: implement friend or foe radar recognition system
-            // Or all will fire to enemy ships only
-            targets.removeIf(t -> (!t.type.contains(ObjectType.SHIP) && !t.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) ||
-                    t.readyToDispose ||
-                    t == this ||
-                    owner!=null && (t == owner || t.owner == owner));
-
-
-
-            for (GameObject trg : targets) {
-
-                float maxPrjVel = proximityMinDistanceVel;  // Задаем начальную скорость "тестовой" пули
-                pbu.guideGun(this, trg, maxPrjVel, dt);
-
-                // get results
-
-                Float impactTime = (float)pbu.guideResult.impactTime;
-
-                if (!impactTime.isNaN() && impactTime >= 0) {
-                    impactTimes.put(impactTime, pbu.guideResult.clone());
-                }
-
-
-            }
-
-            if (impactTimes.size() > 0) {
-
-                minDistance = Float.MAX_VALUE;
-                target = impactTimes.firstEntry().getValue().target;
-            }
-            else if (targets.size() > 0) {
-
-                minDistance = Float.MAX_VALUE;
-                target = targets.get(0);
-
+            if (retargetJob == null || retargetJob.isCancelled()) {
+                retargetJob = world.getScheduler().register(0, 5, 2, this::retarget);
             }
+            retargetJob.request();
         }
 
         // END RETARGETING -------------------------
 
-        // self -d no targets available
-        if (selfdOnNoTargetAvailable && target == null) {
+        // self -d no targets available (retargeting not possible or failed)
+        if (selfdOnNoTargetAvailable && target == null && (!canRetarget || retargetFailed)) {
             readyToDispose = true;
         }
 
@@ -320,6 +286,64 @@ public class Missile extends DrivenObject {
 
     }
 
+    /**
+     * Search new target (scheduled job, see JobScheduler)
+     * @return work done - checked targets
+     */
+    private int retarget(float dt) {
+
+        if (target != null || readyToDispose) {
+            return 0;
+        }
+
+        retargetCount ++;
+
+        // search new target
+        List<GameObject> targets = world.getCloseObjects(this, 2000);
+        impactTimes.clear();
+
+        // leave only ENEMY_SHIP in targets;
+        //ToDO: implement friend or foe radar recognition system
+        // Or all will fire to enemy ships only
+        targets.removeIf(t -> (!t.type.contains(ObjectType.SHIP) && !t.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) ||
+                t.readyToDispose ||
+                t == this ||
+                owner!=null && (t == owner || t.owner == owner));
+
+
+
+        for (int i = 0; i < targets.size(); i++) {
+
+            float maxPrjVel = proximityMinDistanceVel;  // Задаем начальную скорость "тестовой" пули
+            pbu.guideGun(this, targets.get(i), maxPrjVel, dt);
+
+            // get results
+
+            double impactTime = pbu.guideResult.impactTime;
+
+            if (!Double.isNaN(impactTime) && impactTime >= 0) {
+                impactTimes.add(impactTime, i);
+            }
+
+
+        }
+
+        if (!impactTimes.isEmpty()) {
+
+            minDistance = Float.MAX_VALUE;
+            target = targets.get(impactTimes.peek());
+        }
+        else if (targets.size() > 0) {
+
+            minDistance = Float.MAX_VALUE;
+            target = targets.get(0);
+
+        }
+
+        retargetFailed = target == null;
+        return 1 + targets.size();
+    }
+
 /*
     private static class AimFunction implements UnivariateFunction {
 
@@ -419,6 +443,10 @@ public class Missile extends DrivenObject {
     @Override
     public void dispose() {
 
+        if (retargetJob != null) {
+            retargetJob.cancel();
+        }
+
         float explosionPower = 5f;
 
         float fragCount = 10;
@@ -451,12 +479,12 @@ public class Missile extends DrivenObject {
             float fi_min = (float) (dir.angleRad() - fromAn);
             float fi_max = (float) (dir.angleRad() + toAn);
 
-            float r = (float) ThreadLocalRandom.current().nextDouble(0, explosionPower);
+            float r = (float) world.projectileRnd.nextDouble(0, explosionPower);
             float fi;
 
             try {
 
-                fi = (float) ThreadLocalRandom.current().nextDouble(fi_min, fi_max);
+                fi = (float) world.projectileRnd.nextDouble(fi_min, fi_max);
             }
             catch(Exception e) {
                 System.out.println(dir);
@@ -472,11 +500,11 @@ public class Missile extends DrivenObject {
             float y = (float) (r * Math.sin(fi));
 
             tmp0.set(x, y); // force
-            bl.applyForce(tmp0);          // apply force applied to frag
+            bl.applyTickForce(tmp0);          // apply force applied to frag
             //bl.applyForce(tmp0.scl(-1));
 
-            bl.setTTL(ThreadLocalRandom.current().nextLong(400,600));
-            GameScreen.addObject(bl);
+            bl.setTTL(world.projectileRnd.nextLong(400,600));
+            world.addObject(bl);
         }
         super.dispose();
     }
@@ -7,11 +7,11 @@ import com.badlogic.gdx.math.Intersector;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.shell.BlackHoleShell;
 import ru.geekbrains.entities.projectile.shell.PlasmaFlakShell;
-import ru.geekbrains.screen.GameScreen;
 
 public class NewtonMissile extends Missile {
 
@@ -26,21 +26,16 @@ public class NewtonMissile extends Missile {
 
         selfdOnNoTargetAvailable = false;
 
-        explosionColor = new Color(0.3f, 0.3f, 0.7f, 0.4f);
         explosionRadius = radius * 10;
         engineTrail.color = Color.GREEN;
 
-        armour = 1;
-        setMass(0.3f);
+        setArchetype(Archetype.NEWTON_MISSILE);
         setMaxThrottle(18f);
-        setMaxHealth(20f);
         fuel = 1000;
 
         engineTrail.setRadius(2);
         damageBurnTrail.setRadius(5);
 
-        damage = 10f;
-
         fragCount = 100;
     }
 
@@ -65,7 +60,7 @@ public class NewtonMissile extends Missile {
 
         super.guide(dt);
 
-        GameObject planet = GameScreen.INSTANCE.planet;
+        GameObject planet = world.getClosestPlanet(pos);
 
 
         // Уклонение от падения на планету ---------------------------------------------------------
@@ -143,14 +138,14 @@ public class NewtonMissile extends Missile {
         flakShell.explosionPower = 10;
         flakShell.empDamage = 100;
         flakShell.setTTL(1);
-        GameScreen.addObject(flakShell);
+        world.addObject(flakShell);
 
 
 
         BlackHoleShell shell =  new BlackHoleShell(10,  null);
         shell.pos.set(pos);
         shell.vel.set(vel);
-        GameScreen.addObject(shell);
+        world.addObject(shell);
 
 
         super.dispose();
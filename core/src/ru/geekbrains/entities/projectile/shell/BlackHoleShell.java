@@ -1,21 +1,29 @@
 package ru.geekbrains.entities.projectile.shell;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector2;
 
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
-
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.Projectile;
 import ru.geekbrains.entities.projectile.frag.EmpFragment;
 import ru.geekbrains.entities.projectile.frag.Fragment;
 import ru.geekbrains.entities.projectile.frag.PlasmaFragment;
-import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.screen.ForceField;
+import ru.geekbrains.screen.ForceField.Falloff;
 
 public class BlackHoleShell extends Shell {
 
     float clockwise;
+    private boolean burst;      // SFX of push phase shown
+
+    // mutual gravity mode: collapsed black hole is a gravity source
+    // (about the same pull as own radial force at 100 units)
+    private static final float GRAVITY_MASS = 5000000f;
+
+    private static final float RANGE = 350;         // radius of force fields
+    private static final float FORCE = 100000f;     // pull / push, ~ 1/r
 
     public BlackHoleShell(float height, GameObject owner) {
         super(height, owner);
@@ -35,168 +43,87 @@ public class BlackHoleShell extends Shell {
 
         type.add(ObjectType.BLACKHOLE_SHELL);
         color = Color.BLACK;
-        explosionColor = Color.BLACK;
         explosionRadius = 0;
 
         TTL = 230;
-        damage = 0.1f;
-        mass = 1;
-        setMaxHealth(Integer.MAX_VALUE);
-        clockwise  = (float) (ThreadLocalRandom.current().nextBoolean() ? Math.PI / 2f : Math.PI / -2f);
+        setArchetype(Archetype.BLACKHOLE_SHELL);
+        clockwise  = (float) (world.projectileRnd.nextBoolean() ? Math.PI / 2f : Math.PI / -2f);
+
+        addForceFields();
+    }
+
+    @Override
+    public float getGravityMass() {
+        return world.gravity != null && age >= 50 && age < 110 ? GRAVITY_MASS : 0;
     }
 
     @Override
     public void update(float dt) {
         super.update(dt);
 
-
-        List<GameObject> targets = GameScreen.getCloseObjects(this, 350);
-
-
-//        if(age < 10) {
-//            targets.forEach(o -> {
-//
-//                if (o == this) return;
-//
-//
-//                if (o.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) {
-//
-//                    tmp1.set(o.pos).sub(pos);
-//                    if (tmp1.len() < 1) {
-//                        tmp1.setLength(1f);
-//                    }
-//                    tmp2.set(tmp1).nor().scl(130000f * o.getMass() * 1 / tmp1.len());
-//                    o.applyForce(tmp2);
-//                }
-//            });
-//        }
-
-
-
-        if (age >= 50 && age < 110) {
-
-
-
-            targets.forEach(o -> {
-
-                if (o == this) return;
-
-                tmp1.set(o.pos).sub(pos);
-
-                if (tmp1.len() < 1) {
-                    tmp1.setLength(1f);
-                }
-
-                //tmp2.set(tmp1).nor().scl(o.getMass());
-                tmp2.set(tmp1).nor().scl(-100000f * o.getMass() * 1 / tmp1.len());
-
-
-                
-                o.applyForce(tmp2);
-
-                tmp3.set(o.pos).sub(pos);
-                tmp4.set(tmp3).rotateRad(clockwise).nor().scl((float) Math.sqrt(tmp3.len()) * 0.03f);   //tmp4.set(tmp3).rotateRad((float) Math.PI / 2f).nor().scl((float) Math.sqrt(tmp3.len()) * 0.04f);
-                o.applyForce(tmp4);
-
-                float angle = (float) ((float) Math.sqrt((1/tmp1.len())*5)*clockwise/Math.PI);
-                o.dir.rotateRad(angle);
-
-
-            });
+        // SFX
+        if (age >= 200 && !burst) {
+            burst = true;
+            radius = 1;
+            Fragment frag =  new Fragment(10,  null);
+            frag.color = Color.BLACK;
+            frag.pos.set(pos);
+            frag.vel.set(vel);
+            frag.explosionColor = new Color(0.3f, 0.3f, 0.7f, 0.4f);
+            frag.explosionRadius = 60;
+            frag.setTTL(1);
+            world.addObject(frag);
         }
+    }
 
-//        else if (age >= 105 && age < 200) {
-//
-//
-//            targets.forEach(o -> {
-//
-//                if (o == this) return;
-//
-//                tmp1.set(o.pos).sub(pos);
-//                //tmp2.set(tmp1).nor().scl(o.getMass());
-//                tmp2.set(tmp1).nor().scl(-100000f * o.getMass() * 1 / tmp1.len());
-//                o.applyForce(tmp2);
-//
-////                tmp3.set(o.pos).sub(pos);
-////                tmp4.set(tmp3).rotateRad(clockwise).nor().scl((float) Math.sqrt(tmp3.len()) * 0.03f);   //tmp4.set(tmp3).rotateRad((float) Math.PI / 2f).nor().scl((float) Math.sqrt(tmp3.len()) * 0.04f);
-////                o.applyForce(tmp4);
-//
-//
-//            });
-//        }
 
-        else if (age >= 110 && age < 200) {
+    /**
+     * Black hole phases by age (force fields, see World.forceFields):
+     * 50..110 - pulls, swirls and turns nearby objects,
+     * 110..200 - pulls,
+     * 200..230 - pushes away
+     */
+    private void addForceFields() {
 
+        // mutual gravity mode - pulled by NBodyGravity (getGravityMass)
+        float pull = world.gravity == null ? -FORCE : 0;
 
+        world.forceFields.add(new SwirlField(this, pull, clockwise, birth + 50, birth + 110));
+        world.forceFields.add(new ForceField(this, RANGE, -FORCE, Falloff.INVERSE, birth + 110, birth + 200));
+        world.forceFields.add(new ForceField(this, RANGE, FORCE, Falloff.INVERSE, birth + 200, birth + 230));
+    }
 
-            targets.forEach(o -> {
 
-                if (o == this) return;
+    /**
+     * Pull ~ 1/r, swirl ~ sqrt(r) around the hole, rotation of objects direction
+     */
+    private static class SwirlField extends ForceField {
 
-                tmp1.set(o.pos).sub(pos);
-                //tmp2.set(tmp1).nor().scl(o.getMass());
-                tmp2.set(tmp1).nor().scl(-100000f * o.getMass() * 1 / tmp1.len());
-                o.applyForce(tmp2);
+        private final float clockwise;
+        private final Vector2 tmp = new Vector2();
 
+        SwirlField(GameObject hole, float strength, float clockwise, long from, long to) {
 
-            });
+            super(hole, RANGE, strength, Falloff.INVERSE, from, to);
+            this.clockwise = clockwise;
         }
 
-        else if (age >= 200 && age < 230) {
-
-            // SFX
-            if (age == 200) {
-                radius = 1;
-                Fragment frag =  new Fragment(10,  null);
-                frag.color = Color.BLACK;
-                frag.pos.set(pos);
-                frag.vel.set(vel);
-                frag.explosionColor = new Color(0.3f, 0.3f, 0.7f, 0.4f);
-                frag.explosionRadius = 60;
-                frag.setTTL(1);
-                GameScreen.addObject(frag);
-            }
-
-
-
-
-            targets.forEach(o -> {
+        @Override
+        public void apply(GameObject obj, float dx, float dy, float r, float dt) {
 
-                if (o == this) return;
-
-                tmp1.set(o.pos).sub(pos);
-                //tmp2.set(tmp1).nor().scl(o.getMass());
-                tmp2.set(tmp1).nor().scl(100000f * o.getMass() * 1 / tmp1.len());
-                o.applyForce(tmp2);
+            if (strength != 0) {
+                super.apply(obj, dx, dy, r, dt);
+            }
 
+            tmp.set(dx, dy).rotateRad(clockwise).nor().scl((float) Math.sqrt(r) * 0.03f);
+            obj.applyForce(tmp);
 
-            });
+            float angle = (float) ((float) Math.sqrt((1/r)*5)*clockwise/Math.PI);
+            obj.dir.rotateRad(owner.getWorld().perTick(angle));
         }
-
-
-
-//        else if (age > 100) {
-//
-//            targets.forEach(o -> {
-//
-//                if (o == this) return;
-//
-//                tmp3.set(o.pos).sub(pos);
-//                tmp4.set(tmp3).rotateRad((float) Math.PI / 2f).nor().scl((float) Math.sqrt(tmp3.len())*0.1f);
-//                o.applyForce(tmp4);
-//
-//
-//            });
-//        }
     }
 
 
-
-
-
-
-
-
     @Override
     public void dispose() {
 
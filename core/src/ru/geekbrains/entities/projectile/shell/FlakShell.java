@@ -2,13 +2,11 @@ package ru.geekbrains.entities.projectile.shell;
 
 import com.badlogic.gdx.graphics.Color;
 
-import java.util.concurrent.ThreadLocalRandom;
-
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.frag.Fragment;
 import ru.geekbrains.entities.projectile.Projectile;
-import ru.geekbrains.screen.GameScreen;
 
 public class FlakShell extends Shell {
 
@@ -41,8 +39,7 @@ public class FlakShell extends Shell {
 
         type.add(ObjectType.FLAK_SHELL);
 
-        mass = 0.01f;
-        //mass = 1;
+        setArchetype(Archetype.FLAK_SHELL);
         explosionRadius = radius * 6;
         fragCount = 200;
         fragTTL = 100;
@@ -50,8 +47,6 @@ public class FlakShell extends Shell {
         explosionPower = 5;//4;
         shapedExplosion = true;
 
-        damage = 0.5f;
-        penetration = 1f;
         color = Color.RED;
 
 
@@ -123,11 +118,11 @@ public class FlakShell extends Shell {
                     fi = dir.angleRad() + (float) ((toAn + fromAn) * (i-fragCount/2) / fragCount);
                 }
                 else {
-                    fi = (float) ThreadLocalRandom.current().nextDouble(fi_min, fi_max);
+                    fi = (float) world.projectileRnd.nextDouble(fi_min, fi_max);
                     coefR = 0.2f;
 
                 }
-                r = (float) ThreadLocalRandom.current().nextDouble(explosionPower - explosionPower * coefR, explosionPower);
+                r = (float) world.projectileRnd.nextDouble(explosionPower - explosionPower * coefR, explosionPower);
 
             }
             catch(Exception e) {
@@ -144,15 +139,15 @@ public class FlakShell extends Shell {
             float y = (float) (r * Math.sin(fi));
 
             tmp0.set(x, y); // force
-            frag.applyForce(tmp0);          // apply force applied to frag
+            frag.applyTickForce(tmp0);          // apply force applied to frag
 
-            frag.setTTL(ThreadLocalRandom.current().nextLong(fragTTL,fragTTL + fragTTL/2));
+            frag.setTTL(world.projectileRnd.nextLong(fragTTL,fragTTL + fragTTL/2));
 //            if (frag.isEmpOrdinance) {
 //                frag.setTTL(frag.getTTL()/4);
 //            }
 
 
-            GameScreen.addObject(frag);
+            world.addObject(frag);
         }
 
         super.dispose();
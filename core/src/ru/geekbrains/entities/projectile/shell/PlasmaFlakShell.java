@@ -2,8 +2,7 @@ package ru.geekbrains.entities.projectile.shell;
 
 import com.badlogic.gdx.graphics.Color;
 
-import java.util.concurrent.ThreadLocalRandom;
-
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.frag.EmpFragment;
@@ -26,7 +25,7 @@ public class PlasmaFlakShell extends FlakShell {
         super.postConstruct();
 
         type.add(ObjectType.PLASMA_FLAK_SHELL);
-        penetration = 1f;
+        setArchetype(Archetype.PLASMA_FLAK_SHELL);
         fragCount = 6;
         fragTTL = 400;
         explosionPower = 5;
@@ -37,7 +36,7 @@ public class PlasmaFlakShell extends FlakShell {
 
        Fragment result;
 
-        if (isEmpOrdinance && ThreadLocalRandom.current().nextFloat() > 0.5) {
+        if (isEmpOrdinance && world.projectileRnd.nextFloat() > 0.5) {
             result =  new EmpFragment(2, 0.3f,  owner);
         }
         else {
@@ -2,6 +2,7 @@ package ru.geekbrains.entities.projectile.shell;
 
 import com.badlogic.gdx.graphics.Color;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.Projectile;
@@ -26,13 +27,7 @@ public class Shell extends Projectile {
     protected void postConstruct() {
 
         type.add(ObjectType.SHELL);
-        mass = 0.016f;
-        //mass = 1;
-
-        setMaxHealth(0.1f);
-        damage = 1f;
-
-        penetration = 1;
+        setArchetype(Archetype.SHELL);
     }
 
 
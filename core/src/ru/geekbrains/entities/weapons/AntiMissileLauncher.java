@@ -5,24 +5,27 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 
-import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.equipment.FireControl;
+import ru.geekbrains.entities.equipment.Sensor;
 import ru.geekbrains.entities.projectile.missile.AntiMissile;
+import ru.geekbrains.entities.projectile.missile.Missile;
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
-import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.math.IndexHeap;
 
 
 // система наведения и сопровождения целей - треш технологии, надо переписать
-public class AntiMissileLauncher extends MissileLauncher {
+public class AntiMissileLauncher extends MissileLauncher implements FireControl.Weapon {
 
 
+    private static final float MISSILE_HEIGHT = 1;
+
     private static Texture missileTexture;
 
     public float maxRange;
@@ -35,10 +38,14 @@ public class AntiMissileLauncher extends MissileLauncher {
 
     // Список целей, по которым идет огонь
     // (По которым запущены противо-ракеты и идет поражение)
-    protected Map<GameObject, AntiMissile> targetMissile = new HashMap<>(); // Назначение антиракет по целям
+    protected Map<GameObject, AntiMissile> targetMissile = new LinkedHashMap<>(); // Назначение антиракет по целям
 
     private List<GameObject> inboundMissiles = new ArrayList<>();
 
+    private List<GameObject> targetList = new ArrayList<>();
+
+    private IndexHeap impactTimes = new IndexHeap();     // индексы в interceptBatch по времени перехвата
+
 
     //AntiMissileLauncher.AimFunction gf;
     //UnivariateSolver nonBracketing;
@@ -181,9 +188,9 @@ public class AntiMissileLauncher extends MissileLauncher {
 
         // apply force applied to missile
         tmp0.set(dir).scl(power * 0.3f); //.add(tmp1); // force
-        missile.applyForce(tmp0);
+        missile.applyTickForce(tmp0);
 
-        GameScreen.addObject(missile);
+        world.addObject(missile);
     }
 
 
@@ -200,6 +207,53 @@ public class AntiMissileLauncher extends MissileLauncher {
 
         target = null;
 
+        if (fireControl == null) {
+            collectTargets(null, dt);
+        }
+
+
+        // Умеет сопровождать не более 10 целей одновременно
+        if(targetMissile.size() <= maxTargets) {
+
+            if (fireControl != null) {
+                target = fireControl.getTarget(this);
+            }
+            else {
+
+                for (GameObject o : inboundMissiles) {
+
+                    // Если цели нет в списке targetMissile
+                    // То стрелять по этой цели
+                    if (!targetMissile.containsKey(o)) {
+
+                        target = o;
+                        break;
+                    }
+
+                }
+            }
+        }
+
+
+        // Auto fire control
+        if (target != null) {
+            startFire();
+        }
+        else {
+            stopFire();
+        }
+
+        super.update(dt);
+    }
+
+
+    /**
+     * Inbound missiles sorted by impact time,
+     * not engaged ones are bid to fire control, engaged (antimissile on the way) are covered
+     */
+    @Override
+    public void collectTargets(FireControl fireControl, float dt) {
+
         // Убираем из списка целей, по которым идет огонь
         // уничтоженные цели
         // Или цели, находящиеся за пределами работы системы
@@ -241,16 +295,15 @@ public class AntiMissileLauncher extends MissileLauncher {
 
         List<GameObject> targets;
 
-        NavigableMap<Float, BPU.GuideResult> impactTimes = new TreeMap<>();
+        impactTimes.clear();
 
         // inbound missiles
         inboundMissiles.clear();
 
-        targets = GameScreen.getCloseObjects(owner, maxRange);
+        targets = owner.getSensor().getObjects(maxRange, Sensor.BASIC_MISSILE, targetList);
 
-        targets.removeIf(o ->
-                o.readyToDispose || o == owner || o.owner == owner ||
-                (!o.type.contains(ObjectType.BASIC_MISSILE)));
+        interceptBatch.clear();
+        interceptBatch.setShooter(this);
 
         for (GameObject trg : targets) {
 
@@ -261,26 +314,26 @@ public class AntiMissileLauncher extends MissileLauncher {
                 continue;
             }
 
+            interceptBatch.add(trg);
+        }
 
+        interceptBatch.solveGun(/*maxPrjVel - 100*/maxPrjVel, dt);
 
+        // get results
+        for (int i = 0; i < interceptBatch.size(); i++) {
 
-            pbu.guideGun(this, trg, /*maxPrjVel - 100*/maxPrjVel, dt);
-
-            // get results
-
-            Float impactTime = (float)pbu.guideResult.impactTime;
+            double impactTime = interceptBatch.impactTime[i];
 
-            if (!impactTime.isNaN() && impactTime >= 0 && impactTime < maxImpactTime) {
-                impactTimes.put(impactTime, pbu.guideResult.clone());
+            if (!Double.isNaN(impactTime) && impactTime >= 0 && (float) impactTime < maxImpactTime) {
+                impactTimes.add(impactTime, i);
             }
-
-
         }
 
         // inbound missiles
-        for (BPU.GuideResult guideResult : impactTimes.values()) {
+        while (!impactTimes.isEmpty()) {
 
-            GameObject o = guideResult.target;
+            int i = impactTimes.poll();
+            GameObject o = interceptBatch.getTarget(i);
 //            if (o != owner &&
 //                    o.owner != owner &&
 //                    !o.readyToDispose && (o.type.contains(ObjectType.MISSILE) ||
@@ -291,6 +344,10 @@ public class AntiMissileLauncher extends MissileLauncher {
                     break;
                 }
                 inboundMissiles.add(o);
+
+                if (fireControl != null && !targetMissile.containsKey(o)) {
+                    fireControl.bid(this, o, (float) interceptBatch.impactTime[i], Float.NaN);
+                }
             //}
 
         }
@@ -313,36 +370,15 @@ public class AntiMissileLauncher extends MissileLauncher {
         // В inboundMissiles лежит не более 6 целей,
         // отсортированных в порядке удаления
 
+        if (fireControl != null) {
 
-
-
-
-        // Умеет сопровождать не более 10 целей одновременно
-        if(targetMissile.size() <= maxTargets) {
-
-            for (GameObject o : inboundMissiles) {
-
-                // Если цели нет в списке targetMissile
-                // То стрелять по этой цели
-                if (!targetMissile.containsKey(o)) {
-
-                    target = o;
-                    break;
-                }
-
+            for (GameObject o : targetMissile.keySet()) {
+                fireControl.cover(o);
             }
-        }
-
 
-        // Auto fire control
-        if (target != null) {
-            startFire();
-        }
-        else {
-            stopFire();
+            // одна противоракета на цель за раз
+            fireControl.setCapacity(this, targetMissile.size() <= maxTargets ? 1 : 0);
         }
-
-        super.update(dt);
     }
 
 
@@ -353,7 +389,7 @@ public class AntiMissileLauncher extends MissileLauncher {
         if (target!= null &&
                 !target.readyToDispose ) {
 
-            ShapeRenderer shape = renderer.shape;
+            ShapeRecorder shape = renderer.shape;
 
             shape.begin();
 
@@ -367,9 +403,9 @@ public class AntiMissileLauncher extends MissileLauncher {
             shape.line(pos, tmp3);
             shape.circle(tmp3.x, tmp3.y, 10);
 
-            Gdx.gl.glLineWidth(2);
+            shape.setLineWidth(2);
             shape.circle(target.pos.x, target.pos.y, 20);
-            Gdx.gl.glLineWidth(1);
+            shape.setLineWidth(1);
             shape.end();
 
         }
@@ -474,7 +510,17 @@ public class AntiMissileLauncher extends MissileLauncher {
 
     @Override
     protected GameObject createProjectile() {
-        return new AntiMissile(new TextureRegion(missileTexture), 1f, owner);
+        return new AntiMissile(new TextureRegion(missileTexture), MISSILE_HEIGHT, owner);
+    }
+
+    @Override
+    protected Archetype getAmmoArchetype() {
+        return Archetype.ANTIMISSILE;
+    }
+
+    @Override
+    protected float getAmmoRadius() {
+        return Missile.radiusOf(MISSILE_HEIGHT);
     }
 
 
@@ -6,22 +6,24 @@ import com.badlogic.gdx.graphics.Color;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.function.IntPredicate;
 
 import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.equipment.FireControl;
+import ru.geekbrains.entities.equipment.Sensor;
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.DummyObject;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.Projectile;
 import ru.geekbrains.entities.projectile.shell.FlakShell;
 import ru.geekbrains.entities.projectile.shell.PlasmaFlakShell;
-import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.math.IndexHeap;
+import ru.geekbrains.screen.JobScheduler;
+import ru.geekbrains.screen.World;
 
-public class FlakCannon extends Gun {
+public class FlakCannon extends Gun implements FireControl.Weapon {
 
     private static Sound cannonFire;
 
@@ -38,13 +40,28 @@ public class FlakCannon extends Gun {
 
 
 
-    // Цели, отсортированные по времени попадания в корабль
-    private NavigableMap<Float, BPU.GuideResult> impactTimes = new TreeMap<>();
+    // Цели, отсортированные по времени попадания снаряда (индексы в interceptBatch)
+    private IndexHeap impactTimes = new IndexHeap();
+
+    // firing mode filters of impactTimes
+    private final IntPredicate basicMissile = i -> interceptBatch.getTarget(i).type.contains(ObjectType.BASIC_MISSILE);
+    private final IntPredicate notBasicMissile = basicMissile.negate();
+    private final IntPredicate notGravityRepulseMissile =
+            i -> !interceptBatch.getTarget(i).type.contains(ObjectType.GRAVITY_REPULSE_MISSILE);
 
     private List<GameObject> targetList = new ArrayList<>();
 
     private List<GameObject> missilesList = new ArrayList<>();
 
+    // missiles group detection
+    private JobScheduler.Job groupJob;
+    private List<GameObject> groupCandidates = new ArrayList<>();   // missiles from impactTimes
+    private GameObject groupLeader;
+    private List<GameObject> groupMembers = new ArrayList<>();
+
+    private boolean groupShot = false;     // shoot at center of missiles group (groupResult)
+    private BPU.GuideResult groupResult = new BPU.GuideResult();
+
     private long currentFuse = 1;
 
     static {
@@ -103,16 +120,115 @@ public class FlakCannon extends Gun {
 
         nozzlePos.set(dir).setLength(10).add(pos);
 
+        if (fireControl == null) {
+            collectTargets(null, dt);
+        }
+
+        target = null;
+        guideVector.setZero();
+        currentFuse = 0;
+
+//        impactTimes.entrySet().removeIf(fg ->
+//
+//            (fg.getValue().target.type.contains(ObjectType.SHIP) || fg.getValue().target.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) &&
+//                fg.getKey() > 5
+//        );
+
+
+        double impactTime = Double.NaN;
+
+        if (groupShot) {
+
+            target = groupResult.target;
+            guideVector.set(groupResult.guideVector);
+            impactTime = groupResult.impactTime;
+        }
+        else {
+
+            int pick = -1;
+
+            if (fireControl != null) {
+
+                GameObject assigned = fireControl.getTarget(this);
+
+                for (int i = 0; i < impactTimes.size(); i++) {
+                    if (interceptBatch.getTarget(impactTimes.index(i)) == assigned) {
+                        pick = impactTimes.index(i);
+                        break;
+                    }
+                }
+            }
+            else if (!impactTimes.isEmpty()) {
+                pick = impactTimes.index(0);
+            }
+
+            if (pick >= 0) {
+                target = interceptBatch.getTarget(pick);
+                guideVector.set(interceptBatch.guideX[pick], interceptBatch.guideY[pick]);
+                impactTime = interceptBatch.impactTime[pick];
+            }
+        }
+
+        if (target != null) {
+
+            float fuseMultiplier = 0.9f;
+            if (target.type.contains(ObjectType.SHIP)) {
+                shellType = ShellType.PLASMA;
+            }
+            else if (target.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) {
+                shellType = ShellType.PLASMA;
+                fuseMultiplier = 0.8f; // 0.8
+            }
+
+            if (target.type.contains(ObjectType.BASIC_MISSILE) ) {
+                shellType = ShellType.FRAG;
+
+                fuseMultiplier = (float) (impactTime/7f);
+
+                //fuseMultiplier = 0.3f;
+
+                // DEBUG
+                //fuseMultiplier = 2;
+
+
+            }
+
+
+
+            // in base ticks - shell age counts game time
+            currentFuse = (long) (impactTime * 1/dt * world.perTick(1) * fuseMultiplier);
+        }
+
+
+        // Auto fire control
+        if (target != null && !target.readyToDispose &&
+                Math.abs(dir.angleRad(guideVector)) < maxRotationSpeed) {
+
+            startFire();
+
+        }
+        else {
+            stopFire();
+        }
+
+    }
+
+
+    /**
+     * Candidate targets by impact time, filtered by firing mode,
+     * single targets are bid to fire control (missiles group is shot anyway - area fire)
+     */
+    @Override
+    public void collectTargets(FireControl fireControl, float dt) {
+
         impactTimes.clear();
 
         // getting target
         if (owner != null && !owner.readyToDispose) {
 
-            targetList = GameScreen.getCloseObjects(owner, maxRange);
-
-            // leave only ships and missiles
-            targetList.removeIf(o -> o == owner || o.owner == owner || o.readyToDispose ||
-                    !o.type.contains(ObjectType.MISSILE) && !o.type.contains(ObjectType.SHIP));
+            // only ships and missiles
+            owner.getSensor().getObjects(maxRange, Sensor.SHIP | Sensor.BASIC_MISSILE | Sensor.GRAVITY_REPULSE_MISSILE,
+                    targetList);
 
 
 //            // Определение скопление целей (ракет) в одной точке - если есть - стрелять только туда
@@ -121,7 +237,7 @@ public class FlakCannon extends Gun {
 //
 //                if(o.type.contains(ObjectType.MISSILE) && !o.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) {
 //
-//                    missilesList = GameScreen.getCloseObjects(o, 100);
+//                    missilesList = world.getCloseObjects(o, 100);
 //
 //                    // collect only missiles nearby my missile
 //                    missilesList.removeIf( g -> g == owner || g.owner == owner || g.readyToDispose);
@@ -151,34 +267,30 @@ public class FlakCannon extends Gun {
 //
 //            ).collect(Collectors.toList());
 
-            targetList = targetList.stream().filter(o ->  o.type.contains(ObjectType.SHIP)  ||
-                    o.type.contains(ObjectType.BASIC_MISSILE) ||
-                    o.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE))
-                    .collect(Collectors.toList());
-
+            interceptBatch.clear();
+            interceptBatch.setShooter(owner);
 
             for (GameObject o : targetList) {
+                interceptBatch.add(o);
+            }
 
-                if (owner != null && !owner.readyToDispose) {
-                    float maxPrjVel = power / firingAmmoType.getMass() * dt;  // Задаем начальную скорость пули
-                    pbu.guideGun(owner, o, maxPrjVel, dt);
-                }
-                // get results
+            float maxPrjVel = power / firingAmmoType.getMass() * World.BASE_TICK_TIME;  // Задаем начальную скорость пули
+            interceptBatch.solveGun(maxPrjVel, dt);
 
-                Float impactTime = (float) pbu.guideResult.impactTime;
+            // get results
+            for (int i = 0; i < interceptBatch.size(); i++) {
 
-                if (!impactTime.isNaN() && impactTime >= 0 && impactTime <= maxImpactTime) {
+                double impactTime = interceptBatch.impactTime[i];
 
-                    impactTimes.put(impactTime, pbu.guideResult.clone());
+                if (!Double.isNaN(impactTime) && impactTime >= 0 && (float) impactTime <= maxImpactTime) {
+                    impactTimes.add(impactTime, i);
                 }
             }
-
+            impactTimes.sort();
         }
 
+        groupShot = false;
 
-        target = null;
-        guideVector.setZero();
-        currentFuse = 0;
 
 
 
@@ -227,9 +339,8 @@ public class FlakCannon extends Gun {
 
         if (impactTimes.size() > 0) {
 
-            BPU.GuideResult fgr = impactTimes.firstEntry().getValue();
-            double fim = fgr.impactTime;
-            GameObject ftgt = fgr.target;
+            double fim = impactTimes.key(0);
+            GameObject ftgt = interceptBatch.getTarget(impactTimes.index(0));
             boolean shootAtClosestShip = fim < 1f && ftgt.type.contains(ObjectType.SHIP);
 
             // Closest Ship - emergency take down
@@ -244,16 +355,15 @@ public class FlakCannon extends Gun {
                 switch (firingMode) {
 
                     case FLAK_ONLY:
-                        impactTimes.entrySet().removeIf(e -> !e.getValue().target.type.contains(ObjectType.BASIC_MISSILE));
+                        impactTimes.retain(basicMissile);
                         break;
 
                     case AUTOMATIC:
-                        impactTimes.entrySet().removeIf(e ->
-                                e.getValue().target.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE));
+                        impactTimes.retain(notGravityRepulseMissile);
                         break;
 
                     case PLASMA_ONLY:
-                        impactTimes.entrySet().removeIf(e -> e.getValue().target.type.contains(ObjectType.BASIC_MISSILE));
+                        impactTimes.retain(notBasicMissile);
                         break;
 
 
@@ -266,124 +376,130 @@ public class FlakCannon extends Gun {
 //                    impactTimes.entrySet().removeIf(e -> e.getValue().target.type.contains(ObjectType.BASIC_MISSILE));
 //                }
 
-                // Group of missiles
-                boolean groupMissilesFound = false;
-                for (Map.Entry<Float, BPU.GuideResult> entry : impactTimes.entrySet()) {
+                // Group of missiles (found by scheduled job, see detectMissileGroup())
+                groupCandidates.clear();
+                for (int i = 0; i < impactTimes.size(); i++) {
 
-                    GameObject o = entry.getValue().target;
+                    GameObject o = interceptBatch.getTarget(impactTimes.index(i));
 
                     if (o.type.contains(ObjectType.BASIC_MISSILE)) {
+                        groupCandidates.add(o);
+                    }
+                }
 
-                        missilesList = GameScreen.getCloseObjects(o, 150);
-
-                        // collect only missiles nearby my missile
-                        missilesList.removeIf(g -> g == owner || g.owner == owner || g.readyToDispose);
-
-                        missilesList.removeIf(m -> !m.type.contains(ObjectType.BASIC_MISSILE));
-
+                if (groupJob == null || groupJob.isCancelled()) {
+                    groupJob = world.getScheduler().register(5, 15, 1, this::detectMissileGroup);
+                }
 
-                        if ((firingMode == FiringMode.FLAK_ONLY && missilesList.size() >= 2) ||
-                            (firingMode == FiringMode.AUTOMATIC && missilesList.size() >= 3)) {
+                groupMembers.removeIf(m -> m.readyToDispose);
 
-                            // calc center
-                            tmp4.setZero();
-                            tmp5.setZero();
-                            tmp6.setZero();
-                            for (GameObject m : missilesList) {
-                                tmp4.add(m.pos);
-                                tmp5.add(m.vel);
-                                tmp6.add(m.acc);
-                            }
-                            tmp4.scl(1f/missilesList.size());
-                            tmp5.scl(1f/missilesList.size());
-                            tmp6.scl(1f/missilesList.size());
+                boolean groupMissilesFound = false;
+                if (groupLeader != null && groupCandidates.contains(groupLeader) &&
+                        isGroup(groupMembers.size())) {
+
+                    GameObject o = groupLeader;
+
+                    // calc center
+                    tmp4.setZero();
+                    tmp5.setZero();
+                    tmp6.setZero();
+                    for (GameObject m : groupMembers) {
+                        tmp4.add(m.pos);
+                        tmp5.add(m.vel);
+                        tmp6.add(m.acc);
+                    }
+                    tmp4.scl(1f/groupMembers.size());
+                    tmp5.scl(1f/groupMembers.size());
+                    tmp6.scl(1f/groupMembers.size());
 
-                            groupMissilesFound = true;
-//                          impactTimes.put(entry.getKey(), entry.getValue());
+                    groupMissilesFound = true;
 
 
-                            DummyObject dummy = new DummyObject(o);
-                            dummy.pos.set(tmp4);
-                            dummy.vel.set(tmp5);
-                            dummy.acc.set(tmp6);
-                            dummy.type.addAll(o.type);
+                    DummyObject dummy = new DummyObject(o);
+                    dummy.pos.set(tmp4);
+                    dummy.vel.set(tmp5);
+                    dummy.acc.set(tmp6);
+                    dummy.type.addAll(o.type);
 
-                            float maxPrjVel = power / firingAmmoType.getMass() * dt;  // Задаем начальную скорость пули
-                            pbu.guideGun(owner, dummy, maxPrjVel, dt);
-                            Float impactTime = (float) pbu.guideResult.impactTime;
+                    float maxPrjVel = power / firingAmmoType.getMass() * World.BASE_TICK_TIME;  // Задаем начальную скорость пули
+                    pbu.guideGun(owner, dummy, maxPrjVel, dt);
+                    double impactTime = pbu.guideResult.impactTime;
 
-                            if (!impactTime.isNaN() && impactTime >= 0 && impactTime <= maxImpactTimeFlak) {
+                    if (!Double.isNaN(impactTime) && impactTime >= 0 && (float) impactTime <= maxImpactTimeFlak) {
 
-                                impactTimes.clear();
-                                impactTimes.put(impactTime, pbu.guideResult.clone());
-                            }
-                            break;
-                        }
+                        impactTimes.clear();
+                        groupResult.set(pbu.guideResult);
+                        groupShot = true;
                     }
                 }
 
                 //  Firing on distant ships/newton_missile
                 if (!groupMissilesFound) {
 
-                    impactTimes.entrySet().removeIf(ge -> ge.getValue().target.type.contains(ObjectType.BASIC_MISSILE));
+                    impactTimes.retain(notBasicMissile);
                 }
             }
         }
 
-//        impactTimes.entrySet().removeIf(fg ->
-//
-//            (fg.getValue().target.type.contains(ObjectType.SHIP) || fg.getValue().target.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) &&
-//                fg.getKey() > 5
-//        );
+        if (fireControl != null && !groupShot) {
+
+            for (int i = 0; i < impactTimes.size(); i++) {
+                fireControl.bid(this, interceptBatch.getTarget(impactTimes.index(i)), (float) impactTimes.key(i), Float.NaN);
+            }
+        }
+    }
 
 
-        if(impactTimes.size() > 0) {
+    /**
+     * Find group of missiles around one of targets (scheduled job, see JobScheduler)
+     * targets are taken from last update (groupCandidates), ordered by impact time
+     * @return work done - checked targets
+     */
+    private int detectMissileGroup(float dt) {
 
-            BPU.GuideResult gRes = impactTimes.firstEntry().getValue();
+        int work = 0;
 
+        groupLeader = null;
+        groupMembers.clear();
 
-            target = gRes.target;
-            guideVector.set(gRes.guideVector);
+        for (GameObject o : groupCandidates) {
 
-            float fuseMultiplier = 0.9f;
-            if (target.type.contains(ObjectType.SHIP)) {
-                shellType = ShellType.PLASMA;
-            }
-            else if (target.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) {
-                shellType = ShellType.PLASMA;
-                fuseMultiplier = 0.8f; // 0.8
+            if (o.readyToDispose) {
+                continue;
             }
 
-            if (target.type.contains(ObjectType.BASIC_MISSILE) ) {
-                shellType = ShellType.FRAG;
+            missilesList = world.getCloseObjects(o, 150);
+            work += missilesList.size();
 
-                fuseMultiplier = (float) (gRes.impactTime/7f);
-
-                //fuseMultiplier = 0.3f;
+            // collect only missiles nearby my missile
+            missilesList.removeIf(g -> g == owner || g.owner == owner || g.readyToDispose);
 
-                // DEBUG
-                //fuseMultiplier = 2;
+            missilesList.removeIf(m -> !m.type.contains(ObjectType.BASIC_MISSILE));
 
+            if (isGroup(missilesList.size())) {
 
+                groupLeader = o;
+                groupMembers.addAll(missilesList);
+                break;
             }
-
-
-
-            currentFuse = (long) (gRes.impactTime * 1/dt * fuseMultiplier);
         }
+        return work;
+    }
 
+    private boolean isGroup(int missileCount) {
 
-        // Auto fire control
-        if (target != null && !target.readyToDispose &&
-                Math.abs(dir.angleRad(guideVector)) < maxRotationSpeed) {
+        return (firingMode == FiringMode.FLAK_ONLY && missileCount >= 2) ||
+                (firingMode == FiringMode.AUTOMATIC && missileCount >= 3);
+    }
 
-            startFire();
 
-        }
-        else {
-            stopFire();
-        }
+    @Override
+    public void dispose() {
 
+        if (groupJob != null) {
+            groupJob.cancel();
+        }
+        super.dispose();
     }
 
 
@@ -398,7 +514,7 @@ public class FlakCannon extends Gun {
             // angle between direction and guideVector
             float guideAngle = dir.angleRad(guideVector);
 
-            float doAngle = Math.min(Math.abs(guideAngle), maxRotationSpeed);
+            float doAngle = Math.min(Math.abs(guideAngle), world.perTick(maxRotationSpeed));
 
             if (guideAngle < 0) {
                 doAngle = -doAngle;
@@ -441,6 +557,11 @@ public class FlakCannon extends Gun {
 
     }
 
+    @Override
+    protected Archetype getAmmoArchetype() {
+        return shellType == ShellType.FRAG ? Archetype.FLAK_SHELL : Archetype.PLASMA_FLAK_SHELL;
+    }
+
 
     protected void playFireSound() {
         cannonFire.play(0.4f);
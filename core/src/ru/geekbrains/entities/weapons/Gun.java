@@ -6,16 +6,17 @@ import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 
-import java.util.concurrent.ThreadLocalRandom;
-
 import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.equipment.FireControl;
+import ru.geekbrains.entities.equipment.InterceptBatch;
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
 import ru.geekbrains.entities.projectile.Projectile;
 import ru.geekbrains.entities.particles.ParticleObject;
 import ru.geekbrains.entities.projectile.shell.Shell;
-import ru.geekbrains.screen.GameScreen;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
 import ru.geekbrains.screen.RendererType;
 
 public class Gun extends ParticleObject {
@@ -26,13 +27,13 @@ public class Gun extends ParticleObject {
     public float power = 230;     // force length, applied to shell
     //public float projectileMass = -1;
 
-    public float fireRate = 0.2f;
+    public float fireRate = 0.2f;             // shots per base tick (World.getTime())
     public float gunHeat = 0;
     public float gunHeatingDelta = 60;
-    public float coolingGunDelta = 2;
+    public float coolingGunDelta = 2;         // per base tick
     public int maxGunHeat = 200;
 
-    protected long lastFired;
+    protected long lastFired;                 // game time of last shot
     //public long lastFiredBurst;
 
     protected float blastRadius;
@@ -50,12 +51,16 @@ public class Gun extends ParticleObject {
 
     public float maxRotationSpeed = 0; // maximum rotation speed
 
-    public GameObject firingAmmoType;
+    public Archetype firingAmmoType;   // static properties of fired ammo (no need to create projectile)
+    public float firingAmmoRadius;
     //protected Float maxProjectileVel = null;
 
     protected boolean displayTargetingVector = false;
 
     protected BPU pbu = new BPU();
+    protected InterceptBatch interceptBatch = new InterceptBatch();    // many targets at once
+
+    public FireControl fireControl;    // targets assigned by ship fire control, null - weapon picks itself
 
     public float drift = 0;
     public int burst = 1;
@@ -119,20 +124,20 @@ public class Gun extends ParticleObject {
             return;
         }
 
-        long tick = GameScreen.INSTANCE.getTick();
+        long time = world.getTime();
 
-        nozzlePos.set(dir).setLength(owner.getRadius() + firingAmmoType.getRadius() + 5).add(pos);
+        nozzlePos.set(dir).setLength(owner.getRadius() + firingAmmoRadius + 5).add(pos);
 
-        if (firing && !overHeated && lastFired <= (long)(tick - 1/fireRate)) {
+        if (firing && !overHeated && lastFired <= (long)(time - 1/fireRate)) {
 
-            lastFired = GameScreen.INSTANCE.getTick();
+            lastFired = time;
             fire(dt);
         }
 
         // gun cooling
 
         if (gunHeat > 0) {
-            gunHeat -= coolingGunDelta;
+            gunHeat -= world.perTick(coolingGunDelta);
         }
 
         if (overHeated && gunHeat < maxGunHeat * 0.3) {
@@ -142,7 +147,7 @@ public class Gun extends ParticleObject {
 
 
         // animation
-        long frame = GameScreen.INSTANCE.getTick() - lastFired;
+        long frame = time - lastFired;
 
         blastRadius = maxBlastRadius - maxBlastRadius * ((frame - 5) / 5f);
 
@@ -168,6 +173,20 @@ public class Gun extends ParticleObject {
         return new Shell(calibre, calibre/8, owner);
     }
 
+    /**
+     * Archetype of projectile created by createProjectile()
+     */
+    protected Archetype getAmmoArchetype() {
+        return Archetype.SHELL;
+    }
+
+    /**
+     * Radius of projectile created by createProjectile()
+     */
+    protected float getAmmoRadius() {
+        return calibre / 2f;
+    }
+
 
 
 
@@ -203,12 +222,12 @@ public class Gun extends ParticleObject {
 
 
             if (drift > 0) {
-                double gs = ThreadLocalRandom.current().nextGaussian()*drift;
+                double gs = world.weaponRnd.nextGaussian()*drift;
                 tmp0.rotateRad((float) gs);
             }
 
 
-            proj.applyForce(tmp0);         // apply force applied to bullet
+            proj.applyTickForce(tmp0);         // apply force applied to bullet
 
             //System.out.println("power: " + power);
             //System.out.println("mass: "    + proj.getMass());
@@ -219,11 +238,11 @@ public class Gun extends ParticleObject {
 
             // DEBUG UNCOMMENT
             // recoil applied to ship
-            owner.applyForce(tmp0.scl(-1));
+            owner.applyTickForce(tmp0.scl(-1));
 
 
 //        // ship line of fire
-//        ShapeRenderer shape = renderer.shape;
+//        ShapeRecorder shape = renderer.shape;
 //        shape.begin();
 //        Gdx.gl.glLineWidth(1);
 //        Gdx.gl.glEnable(GL20.GL_BLEND);
@@ -240,7 +259,7 @@ public class Gun extends ParticleObject {
 //        shape.end();
 
 
-            GameScreen.addObject(proj);
+            world.addObject(proj);
 
             gunHeat+= gunHeatingDelta;
 
@@ -268,11 +287,10 @@ public class Gun extends ParticleObject {
             return;
         }
 
-        ShapeRenderer shape = renderer.shape;
+        ShapeRecorder shape = renderer.shape;
 
-        Gdx.gl.glLineWidth(1);
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shape.setLineWidth(1);
+        shape.enableBlending();
         //shape.begin();
         shape.set(ShapeRenderer.ShapeType.Filled);
 
@@ -296,7 +314,7 @@ public class Gun extends ParticleObject {
 //        shape.circle(tmp0.x, tmp0.y, 3);
             shape.setColor(1f, 0f, 0f, 0.5f);
             shape.line(pos, tmp0);
-            Gdx.gl.glLineWidth(2);
+            shape.setLineWidth(2);
         }
         //shape.end();
     }
@@ -309,7 +327,8 @@ public class Gun extends ParticleObject {
     public void setCalibre(float calibre) {
         this.calibre = calibre;
         maxBlastRadius = calibre/1.5f;
-        firingAmmoType = createProjectile();
+        firingAmmoType = getAmmoArchetype();
+        firingAmmoRadius = getAmmoRadius();
     }
 
 //    public void recalibrate() {
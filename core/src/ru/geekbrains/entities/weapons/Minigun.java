@@ -3,25 +3,26 @@ package ru.geekbrains.entities.weapons;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.Vector2;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
 
-import ru.geekbrains.entities.equipment.BPU;
-import ru.geekbrains.entities.objects.DummyObject;
+import ru.geekbrains.entities.equipment.FireControl;
+import ru.geekbrains.entities.equipment.Sensor;
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.GameObject;
 import ru.geekbrains.entities.objects.ObjectType;
-import ru.geekbrains.entities.objects.Planet;
 import ru.geekbrains.entities.projectile.Bullet;
 import ru.geekbrains.entities.projectile.Projectile;
-import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.math.IndexHeap;
+import ru.geekbrains.screen.JobScheduler;
+import ru.geekbrains.screen.World;
 
 
-public class Minigun extends Gun {
+public class Minigun extends Gun implements FireControl.Weapon {
 
     private static Sound minigunFire;
     private static boolean minigunPlaying = false;
@@ -34,19 +35,31 @@ public class Minigun extends Gun {
     private int step = 0;
     //private int maxStep = 100;
 
-    // Цели, отсортированные по времени попадания в корабль
-    private NavigableMap<Float, BPU.GuideResult> impactTimes = new TreeMap<>();
+    // Цели по времени попадания пули (индексы в interceptBatch)
+    private IndexHeap impactTimes = new IndexHeap();
+
+    // Угрозы - цели, которые попадут в корабль, по времени попадания (отсортированы),
+    // равное время - в порядке оценки; индексы в threatTargets, threatInterceptTimes
+    private IndexHeap threats = new IndexHeap();
+    private GameObject[] threatTargets = new GameObject[16];
+    private float[] threatInterceptTimes = new float[16];
+    private int threatCount = 0;
 
-    private NavigableMap<Float, GameObject> impactTimesCalculated = new TreeMap<>();
+    private final IntPredicate threatAlive = i -> !threatTargets[i].readyToDispose;
 
     private List<GameObject> targetList = new ArrayList<>();
 
+    private JobScheduler.Job threatJob;
+
+
     // Цели, отсортированные по времени попадания в корабль
     //private NavigableMap<Float, GameObject> distances = new TreeMap<>();
 
     public float maxRange;
     public float maxTime;
 
+    private static final float THREAT_TIME = 5;     // threats coming later are ignored, s
+
     static {
         minigunFire = Gdx.audio.newSound(Gdx.files.internal("vulcan.mp3"));
     }
@@ -96,132 +109,44 @@ public class Minigun extends Gun {
         // --------------------------------------------------
 
 
-        impactTimes.clear();
-        impactTimesCalculated.clear();
-        targetList.clear();
-
-        // getting target
-        if (owner != null && !owner.readyToDispose) {
-            targetList = GameScreen.getCloseObjects(owner, maxRange);
-
-
-
-            for (GameObject o : targetList) {
-
-                if (o == owner || o.owner == owner || o.readyToDispose) {
-                    continue;
-                }
-
-                if ((!o.type.contains(ObjectType.MISSILE) &&
-                        !o.type.contains(ObjectType.SHIP))) {
-
-                    continue;
-                }
-
-                //tmp1.set(o.pos).sub(owner.pos);
-
-                if (owner != null && !owner.readyToDispose) {
-                    float maxPrjVel = power / firingAmmoType.getMass() * dt;  // Задаем начальную скорость пули
-                    pbu.guideGun(owner, o, maxPrjVel, dt);
-                }
-                // get results
-
-                Float impactTime = (float) pbu.guideResult.impactTime;
-
-                if (!impactTime.isNaN() && impactTime >= 0 && impactTime <= maxTime) {
-
-                    impactTimes.put(impactTime, pbu.guideResult.clone());
-                }
-            }
-
-
-            // calculating in simulator
-
-
-            DummyObject ship = new DummyObject(owner);
-            Planet planet = GameScreen.INSTANCE.planet;
-
-
-            int iterationCount = 300;
-
-            for (Map.Entry<Float, BPU.GuideResult> entry : impactTimes.entrySet()) {
-
-                ship.setRadius(owner.getRadius());
-                ship.setMass(owner.getMass());
-                ship.dir.set(owner.dir);
-                ship.pos.set(owner.pos);
-                ship.vel.set(owner.vel);
-                ship.acc.set(owner.acc);
-
-                GameObject tgt = entry.getValue().target;
-                DummyObject missile = new DummyObject(tgt);
-                missile.setMass(entry.getValue().target.getMass());
-                missile.dir.set(tgt.dir);
-                missile.pos.set(tgt.pos);
-                missile.vel.set(tgt.vel);
-                missile.acc.set(tgt.acc);
-
-
-                for (int i = 0; i < iterationCount; i++) {
-
-
-                    // calculate gravitation force from planet
-                    GameScreen.applyPlanetGravForce(ship, planet);
-                    GameScreen.applyPlanetGravForce(missile, planet);
-
-                    // update aceleration, velocity, position
-                    ship.update(dt);
-                    missile.update(dt);
-
-                    // check collision ship to planet
-                    tmp0.set(planet.pos).sub(ship.pos);
-                    if (tmp0.len() <= planet.getRadius() + ship.getRadius()) {
-                        break;
-                    }
-
-                    // check collision missile to planet
-                    tmp0.set(planet.pos).sub(missile.pos);
-                    if (tmp0.len() <= planet.getRadius() + missile.getRadius()) {
-                        break;
-                    }
+        // threat evaluation (expensive) is spread over ticks by scheduler,
+        // results in threats
+        if (threatJob == null || threatJob.isCancelled()) {
+            threatJob = world.getScheduler().register(2, 4, 3, this::evaluateThreats);
+        }
 
-                    // check collision missile to ship  (-50%)
-                    tmp0.set(ship.pos).sub(missile.pos);
-                    if (tmp0.len() <= (ship.getRadius() + missile.getRadius()) * 2.1f) {  // include ship force shield radius
+        if (fireControl == null) {
+            collectTargets(null, dt);
+        }
 
-                        impactTimesCalculated.put(i * dt, tgt);
-                        break;
-                    }
 
+        target = null;
+        guideVector.setZero();
 
-                }
-            }
+        if (fireControl != null) {
+            target = fireControl.getTarget(this);
         }
+        else {
 
+            // первая по времени ракета, если ракет нет - первая угроза
+            for (int i = 0; i < threats.size(); i++) {
 
-        //impactTimesCalculated.entrySet().removeIf(entry -> entry.getValue().readyToDispose);
-
+                GameObject o = threatTargets[threats.index(i)];
 
-        target = null;
-        guideVector.setZero();
-
-        // нужен индекс по типам целей
-        for (GameObject o : impactTimesCalculated.values()) {
-            if(o.type.contains(ObjectType.MISSILE)) {
-                target = o;
-                break;
+                if (o.type.contains(ObjectType.MISSILE)) {
+                    target = o;
+                    break;
+                }
             }
-        }
-        if (target == null) {
-            if (impactTimesCalculated.size() > 0) {
-                target = impactTimesCalculated.firstEntry().getValue();
+            if (target == null && !threats.isEmpty()) {
+                target = threatTargets[threats.index(0)];
             }
         }
         // ---------------------------------------------------------------
 
         if (target != null && !target.readyToDispose) {
 
-            float maxPrjVel = power / firingAmmoType.getMass() * dt;
+            float maxPrjVel = power / firingAmmoType.getMass() * World.BASE_TICK_TIME;
             pbu.guideGun(owner, target, maxPrjVel, dt);
             guideVector.set(pbu.guideResult.guideVector);
 
@@ -257,7 +182,7 @@ public class Minigun extends Gun {
 
             //ttt = (owner.getRadius()) * 50 / tmp0.len();
 
-            tmp *= dt * ttt;
+            tmp *= World.BASE_TICK_TIME * ttt;
             //tmp *= dt * ttt * 1.5 + 0.5; // увеличиваем эту проекцию на ttt и умножаем на dt (переходим от скорости к расстоянию)
 
             tmp3.scl(tmp); // скалируем нормаль на tmp - получаем смещение по нормали за dt
@@ -391,6 +316,106 @@ public class Minigun extends Gun {
 
 
 
+    /**
+     * Threats of last evaluation, bid them to fire control
+     */
+    @Override
+    public void collectTargets(FireControl fireControl, float dt) {
+
+        // threats destroyed since last evaluation (order is kept)
+        threats.retain(threatAlive);
+
+        if (fireControl != null) {
+            for (int i = 0; i < threats.size(); i++) {
+
+                int th = threats.index(i);
+                fireControl.bid(this, threatTargets[th], threatInterceptTimes[th], (float) threats.key(i));
+            }
+        }
+    }
+
+
+    /**
+     * Calculate threats: targets that will hit the ship, sorted by impact time
+     * (scheduled job, see JobScheduler)
+     * @return work done - checked targets
+     */
+    private int evaluateThreats(float dt) {
+
+        int work = 0;
+
+        impactTimes.clear();
+        threats.clear();
+        Arrays.fill(threatTargets, 0, threatCount, null);
+        threatCount = 0;
+        targetList.clear();
+
+        // getting target
+        if (owner != null && !owner.readyToDispose) {
+            owner.getSensor().getObjects(maxRange, Sensor.MISSILE | Sensor.SHIP, targetList);
+            work += targetList.size();
+
+
+
+            interceptBatch.clear();
+            interceptBatch.setShooter(owner);
+
+            for (GameObject o : targetList) {
+                interceptBatch.add(o);
+            }
+
+            float maxPrjVel = power / firingAmmoType.getMass() * World.BASE_TICK_TIME;  // Задаем начальную скорость пули
+            interceptBatch.solveGun(maxPrjVel, dt);
+
+            // get results
+            for (int i = 0; i < interceptBatch.size(); i++) {
+
+                double impactTime = interceptBatch.impactTime[i];
+
+                if (!Double.isNaN(impactTime) && impactTime >= 0 && (float) impactTime <= maxTime) {
+                    impactTimes.add(impactTime, i);
+                }
+            }
+
+
+            // threats - targets coming within 2.1 combined radius (include ship force shield radius)
+            // checked in order of impact time
+            float shipRadius = owner.getRadius();
+
+            while (!impactTimes.isEmpty()) {
+
+                int i = impactTimes.poll();
+                GameObject tgt = interceptBatch.getTarget(i);
+                work++;
+
+                double t = pbu.threatTime(owner, tgt, (shipRadius + tgt.getRadius()) * 2.1f, THREAT_TIME);
+
+                if (!Double.isNaN(t)) {
+                    addThreat((float) t, (float) interceptBatch.impactTime[i], tgt);
+                }
+            }
+
+            threats.sort();
+        }
+
+        return work;
+    }
+
+
+    private void addThreat(float time, float interceptTime, GameObject target) {
+
+        if (threatCount == threatTargets.length) {
+            threatTargets = Arrays.copyOf(threatTargets, threatCount * 2);
+            threatInterceptTimes = Arrays.copyOf(threatInterceptTimes, threatCount * 2);
+        }
+
+        threatTargets[threatCount] = target;
+        threatInterceptTimes[threatCount] = interceptTime;
+        threats.add(time, threatCount);
+        threatCount++;
+    }
+
+
     @Override
     protected void rotateObject() {
 
@@ -402,7 +427,7 @@ public class Minigun extends Gun {
             // angle between direction and guideVector
             float guideAngle = dir.angleRad(guideVector);
 
-            float doAngle = Math.min(Math.abs(guideAngle), maxRotationSpeed);
+            float doAngle = Math.min(Math.abs(guideAngle), world.perTick(maxRotationSpeed));
 
             if (guideAngle < 0) {
                 doAngle = -doAngle;
@@ -454,6 +479,11 @@ public class Minigun extends Gun {
 
     }
 
+    @Override
+    protected Archetype getAmmoArchetype() {
+        return Archetype.BULLET;
+    }
+
     @Override
     protected void playFireSound(float vol) {}
 
@@ -462,6 +492,10 @@ public class Minigun extends Gun {
     public void dispose() {
 
         stopFire();
+
+        if (threatJob != null) {
+            threatJob.cancel();
+        }
         super.dispose();
     }
 
@@ -561,5 +595,4 @@ public class Minigun extends Gun {
 
     }
 */
-
 }
@@ -9,8 +9,8 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
+import ru.geekbrains.entities.objects.Archetype;
 import ru.geekbrains.entities.objects.DrivenObject;
 import ru.geekbrains.entities.objects.DummyObject;
 import ru.geekbrains.entities.objects.GameObject;
@@ -18,8 +18,8 @@ import ru.geekbrains.entities.objects.PlayerShip;
 import ru.geekbrains.entities.projectile.missile.EmpMissile;
 import ru.geekbrains.entities.projectile.missile.Missile;
 import ru.geekbrains.entities.objects.ObjectType;
-import ru.geekbrains.screen.GameScreen;
 import ru.geekbrains.screen.Renderer;
+import ru.geekbrains.screen.ShapeRecorder;
 import ru.geekbrains.screen.RendererType;
 
 public class MissileLauncher extends Gun {
@@ -36,6 +36,8 @@ public class MissileLauncher extends Gun {
 
 
     private static Sound missileFire01;
+    private static final float MISSILE_HEIGHT = 2;
+
     private static Texture missileTexture;
 
     private int sideLaunch = -1;
@@ -96,7 +98,7 @@ public class MissileLauncher extends Gun {
         if (this.getClass() ==  MissileLauncher.class) {
 
 
-            if (start > 0 && GameScreen.INSTANCE.getTick() - start > TTL) {
+            if (start > 0 && world.getTime() - start > TTL) {
 
                 repeatFire();
                 start = -1;
@@ -120,7 +122,7 @@ public class MissileLauncher extends Gun {
         // запуск двух ракет с задержкой
         // (чтобы одна в другую не влетела при подлете к цели)
         if (sideLaunchCount > 1) {
-            start = GameScreen.INSTANCE.getTick();
+            start = world.getTime();
         }
     }
 
@@ -129,9 +131,9 @@ public class MissileLauncher extends Gun {
         List<GameObject> result = new ArrayList<>();
 
         List<GameObject> targets;
-        dummy.pos.set(GameScreen.INSTANCE.target);
+        dummy.pos.set(world.getInput().cursor);
 
-        targets = GameScreen.getCloseObjects(dummy, 2000);
+        targets = world.getCloseObjects(dummy, 2000);
 
         targets.removeIf(t -> (!t.type.contains(ObjectType.SHIP) && !t.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)));
         targets.removeIf(t -> t == this.owner);
@@ -310,12 +312,12 @@ public class MissileLauncher extends Gun {
         }
 
         //tmp0.rotate(60 * sideLaunch);
-        missile.applyForce(tmp0);
+        missile.applyTickForce(tmp0);
 
         //tmp0.set(dir).setLength(power);
 
 
-        GameScreen.addObject(missile);
+        world.addObject(missile);
 
 
         // invert launch side ---------------------------------------------
@@ -347,11 +349,10 @@ public class MissileLauncher extends Gun {
                 if (o != null && !o.readyToDispose) {
 
 
-                    ShapeRenderer shape = renderer.shape;
+                    ShapeRecorder shape = renderer.shape;
 
-                    Gdx.gl.glLineWidth(1);
-                    Gdx.gl.glEnable(GL20.GL_BLEND);
-                    Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+                    shape.setLineWidth(1);
+                    shape.enableBlending();
                     //shape.begin();
                     shape.set(ShapeRenderer.ShapeType.Line);
 
@@ -375,7 +376,7 @@ public class MissileLauncher extends Gun {
 //            // Рисуем перекрестье на цели
 //            if (target != null && !target.readyToDispose) {
 //
-//                ShapeRenderer shape = renderer.shape;
+//                ShapeRecorder shape = renderer.shape;
 //
 //                Gdx.gl.glLineWidth(1);
 //                Gdx.gl.glEnable(GL20.GL_BLEND);
@@ -408,7 +409,7 @@ public class MissileLauncher extends Gun {
 
         if (owner.getClass() == PlayerShip.class) {
 
-            result = new Missile(new TextureRegion(missileTexture), 2, owner);
+            result = new Missile(new TextureRegion(missileTexture), MISSILE_HEIGHT, owner);
 
             //result =  new NewtonMissile(new TextureRegion(missileTexture), 5, owner);
 
@@ -416,13 +417,13 @@ public class MissileLauncher extends Gun {
         }
         else {
 
-            float rnd =  ThreadLocalRandom.current().nextFloat();
+            float rnd =  world.weaponRnd.nextFloat();
 
             if (rnd >= 0.5){
-                result = new EmpMissile(new TextureRegion(missileTexture), 2, owner);
+                result = new EmpMissile(new TextureRegion(missileTexture), MISSILE_HEIGHT, owner);
             }
             else {
-                result = new Missile(new TextureRegion(missileTexture), 2, owner);
+                result = new Missile(new TextureRegion(missileTexture), MISSILE_HEIGHT, owner);
             }
 
             //result =  new FragMissile(new TextureRegion(missileTexture), 2.5f, owner);
@@ -432,6 +433,16 @@ public class MissileLauncher extends Gun {
         return result;
     }
 
+    @Override
+    protected Archetype getAmmoArchetype() {
+        return Archetype.MISSILE;
+    }
+
+    @Override
+    protected float getAmmoRadius() {
+        return Missile.radiusOf(MISSILE_HEIGHT);
+    }
+
 
     // костыли, нарушение подстановки Лискова, выделить базовый функционал в класс abstract BaseMissileLauncher
     // в абстрактный  метод playLaunchSound()
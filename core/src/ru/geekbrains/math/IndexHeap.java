@@ -0,0 +1,225 @@
+package ru.geekbrains.math;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Min-heap of (key, index) pairs on primitive arrays - ranking of targets by impact time.
+ * <br>
+ * Equal keys are ordered by index (index - order of candidate, e.g. target in InterceptBatch),
+ * so all targets with the same impact time are kept and come in stable order
+ * (TreeMap&lt;Float, ...&gt; replaced one by another).
+ * <br>
+ * No boxing, arrays grow and are reused. Pairs are added without ordering,
+ * heap is built on first peek()/poll() in O(n) - k smallest of n cost O(n + k log n).
+ * sort() orders all pairs for repeated walks by key(i)/index(i) (sorted array is also a heap).
+ * <br>
+ * Keys must not be NaN.
+ */
+public final class IndexHeap {
+
+    private double[] keys;
+    private int[] indices;
+    private int size = 0;
+
+    private boolean heap = true;        // heap property holds
+
+
+    public IndexHeap() {
+        this(16);
+    }
+
+    public IndexHeap(int capacity) {
+        keys = new double[Math.max(capacity, 1)];
+        indices = new int[Math.max(capacity, 1)];
+    }
+
+
+    public void clear() {
+        size = 0;
+        heap = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(double key, int index) {
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            indices = Arrays.copyOf(indices, size * 2);
+        }
+
+        keys[size] = key;
+        indices[size] = index;
+        size++;
+
+        heap = size == 1;
+    }
+
+
+    /**
+     * Index of smallest pair, -1 if empty
+     */
+    public int peek() {
+
+        if (size == 0) {
+            return -1;
+        }
+        heapify();
+        return indices[0];
+    }
+
+    /**
+     * Key of smallest pair, NaN if empty
+     */
+    public double peekKey() {
+
+        if (size == 0) {
+            return Double.NaN;
+        }
+        heapify();
+        return keys[0];
+    }
+
+    /**
+     * Remove smallest pair
+     * @return its index, -1 if empty
+     */
+    public int poll() {
+
+        if (size == 0) {
+            return -1;
+        }
+        heapify();
+
+        int result = indices[0];
+
+        size--;
+        keys[0] = keys[size];
+        indices[0] = indices[size];
+        siftDown(0);
+
+        return result;
+    }
+
+
+    /**
+     * Order all pairs by key (then index), see key(i), index(i)
+     */
+    public void sort() {
+
+        heapify();
+
+        // heapsort: smallest to the end, then reverse
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            swap(i, j);
+        }
+    }
+
+    /**
+     * Key of i-th pair (i-th smallest after sort())
+     */
+    public double key(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Index of i-th pair (i-th smallest after sort())
+     */
+    public int index(int i) {
+        return indices[i];
+    }
+
+    /**
+     * Keep only pairs with index accepted by filter, order of remaining pairs is not changed
+     */
+    public void retain(IntPredicate filter) {
+
+        int n = 0;
+
+        for (int i = 0; i < size; i++) {
+
+            if (filter.test(indices[i])) {
+                keys[n] = keys[i];
+                indices[n] = indices[i];
+                n++;
+            }
+        }
+
+        // sorted array stays sorted, heap needs to be rebuilt
+        if (n != size) {
+            size = n;
+            heap = false;
+        }
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    private void heapify() {
+
+        if (heap) {
+            return;
+        }
+
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        heap = true;
+    }
+
+    private void siftDown(int i) {
+        siftDown(i, size);
+    }
+
+    private void siftDown(int i, int n) {
+
+        while (true) {
+
+            int left = 2 * i + 1;
+            if (left >= n) {
+                return;
+            }
+
+            int child = left;
+            int right = left + 1;
+            if (right < n && less(right, left)) {
+                child = right;
+            }
+
+            if (!less(child, i)) {
+                return;
+            }
+
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || keys[a] == keys[b] && indices[a] < indices[b];
+    }
+
+    private void swap(int a, int b) {
+
+        double k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+
+        int t = indices[a];
+        indices[a] = indices[b];
+        indices[b] = t;
+    }
+}
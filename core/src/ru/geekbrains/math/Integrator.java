@@ -0,0 +1,138 @@
+package ru.geekbrains.math;
+
+import java.util.Arrays;
+
+/**
+ * Batch integrator of point masses, state in primitive arrays (structure of arrays).
+ * <br>
+ * Symplectic (semi-implicit) Euler, first order:
+ * <pre>
+ * v += f / m * dt
+ * x += v * dt
+ * </pre>
+ * It is not leapfrog (kick-drift-kick with half step velocity), on purpose:
+ * this is the scheme of GameObject.update(), so predictions give bit-identical results for the same object.
+ * Leapfrog is more accurate, but would drift away from the real simulation.
+ * Unlike explicit Euler, energy of orbits does not drift over long predictions.
+ * <br>
+ * Kernels are plain counted loops over arrays without calls and branches -
+ * auto-vectorized by JIT.
+ * <br>
+ * Usage: clear(), add() bodies, then repeat: accumulate forces to fx, fy - step(dt).
+ */
+public class Integrator {
+
+    public float[] x;
+    public float[] y;
+    public float[] vx;
+    public float[] vy;
+    public float[] fx;          // force accumulated for next step, cleared by step()
+    public float[] fy;
+    public float[] mass;
+    public float[] invMass;
+
+    private int count = 0;
+
+
+    public Integrator() {
+        this(64);
+    }
+
+    public Integrator(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+
+    /**
+     * Add body
+     * @return index of body
+     */
+    public int add(float x, float y, float vx, float vy, float mass) {
+
+        if (count == this.x.length) {
+            allocate(count * 2);
+        }
+
+        int i = count++;
+
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.fx[i] = 0;
+        this.fy[i] = 0;
+        this.mass[i] = mass;
+        this.invMass[i] = 1 / mass;
+        return i;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+
+    /**
+     * Integrate all bodies, clear forces
+     */
+    public void step(float dt) {
+
+        kick(vx, vy, fx, fy, invMass, count, dt);
+        drift(x, y, vx, vy, count, dt);
+
+        Arrays.fill(fx, 0, count, 0);
+        Arrays.fill(fy, 0, count, 0);
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * v += f / m * dt
+     */
+    public static void kick(float[] vx, float[] vy, float[] fx, float[] fy, float[] invMass, int n, float dt) {
+
+        for (int i = 0; i < n; i++) {
+            vx[i] += fx[i] * invMass[i] * dt;
+        }
+
+        for (int i = 0; i < n; i++) {
+            vy[i] += fy[i] * invMass[i] * dt;
+        }
+    }
+
+    /**
+     * x += v * dt
+     */
+    public static void drift(float[] x, float[] y, float[] vx, float[] vy, int n, float dt) {
+
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i] * dt;
+        }
+
+        for (int i = 0; i < n; i++) {
+            y[i] += vy[i] * dt;
+        }
+    }
+
+
+    private void allocate(int capacity) {
+
+        x = copy(x, capacity);
+        y = copy(y, capacity);
+        vx = copy(vx, capacity);
+        vy = copy(vy, capacity);
+        fx = copy(fx, capacity);
+        fy = copy(fy, capacity);
+        mass = copy(mass, capacity);
+        invMass = copy(invMass, capacity);
+    }
+
+    private static float[] copy(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -0,0 +1,184 @@
+package ru.geekbrains.math;
+
+/**
+ * Orbit of body around static point mass (two-body problem) - conic section built from state vector.
+ * <br>
+ * r(nu) = p / (1 + e*cos(nu)), nu - true anomaly counted from periapsis in direction of motion.
+ * Time of flight along the orbit - from Kepler's equation (elliptic, hyperbolic) or Barker's (parabolic).
+ * <br>
+ * Replaces step by step integration for coasting body:
+ * sample() gives points of exact path with step adapted to curvature
+ * (dense near periapsis, sparse on straight parts), tens of points instead of thousands of steps.
+ */
+public class KeplerOrbit {
+
+    private static final double PARABOLIC = 1e-4;      // |e - 1| less than this - parabola
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private double mu;          // gravitational parameter, G * M
+    private double p;           // semi-latus rectum
+    private double e;           // eccentricity
+    private double omega;       // direction to periapsis
+    private int sign;           // direction of motion, 1 - counterclockwise
+    private double nu0;         // true anomaly of initial point
+
+
+    /**
+     * Build orbit from state vector
+     * @param rx position relative to attracting center
+     * @param ry
+     * @param vx velocity relative to attracting center
+     * @param vy
+     * @param mu gravitational parameter, G * M
+     * @return false if orbit is degenerate (radial fall) - should be integrated numerically
+     */
+    public boolean set(double rx, double ry, double vx, double vy, double mu) {
+
+        double r = Math.sqrt(rx * rx + ry * ry);
+        double h = rx * vy - ry * vx;           // angular momentum per unit mass
+
+        if (r == 0 || mu <= 0) {
+            return false;
+        }
+
+        this.mu = mu;
+        p = h * h / mu;
+
+        if (p < 1e-6 * r) {
+            return false;
+        }
+
+        // eccentricity vector points to periapsis
+        double v2 = vx * vx + vy * vy;
+        double rv = rx * vx + ry * vy;
+        double ex = ((v2 - mu / r) * rx - rv * vx) / mu;
+        double ey = ((v2 - mu / r) * ry - rv * vy) / mu;
+
+        e = Math.sqrt(ex * ex + ey * ey);
+        sign = h > 0 ? 1 : -1;
+
+        // circular orbit - periapsis anywhere, take initial point
+        omega = e > 1e-9 ? Math.atan2(ey, ex) : Math.atan2(ry, rx);
+
+        nu0 = wrap(sign * (Math.atan2(ry, rx) - omega));
+        return true;
+    }
+
+    public double getEccentricity() {
+        return e;
+    }
+
+
+    /**
+     * Sample orbit ahead of initial point: one revolution at most, no longer than duration,
+     * until distance to center is less than minRadius (fallen on planet).
+     * <br>
+     * Step by true anomaly is adaptive: turn of path direction per step is not greater than maxTurn,
+     * segment length is not greater than maxStep.
+     * @param cx attracting center, added to points
+     * @param cy
+     * @param xs points
+     * @param ys
+     * @param ts time from initial point to points
+     * @return number of points
+     */
+    public int sample(double duration, double minRadius, double maxTurn, double maxStep,
+                      float cx, float cy, float[] xs, float[] ys, float[] ts) {
+
+        int maxPoints = xs.length;
+        int count = 0;
+
+        // open orbit - stop before asymptote
+        double nuMax = nu0 + TWO_PI;
+        if (e >= 1 - PARABOLIC) {
+            nuMax = Math.min(nuMax, Math.acos(-1 / Math.max(e, 1)) - 1e-3);
+        }
+
+        double t0 = time(nu0);
+        double nu = nu0;
+
+        while (count < maxPoints) {
+
+            double cos = Math.cos(nu);
+            double k = 1 + e * cos;
+            double r = p / k;
+
+            // dpsi/dnu - turn of velocity direction per unit of true anomaly
+            double turn = k / (1 + 2 * e * cos + e * e);
+            // ds/dnu - path length per unit of true anomaly
+            double dr = r * e * Math.sin(nu) / k;
+            double ds = Math.sqrt(r * r + dr * dr);
+
+            nu += Math.min(maxTurn / turn, maxStep / ds);
+
+            double t = time(nu) - t0;
+
+            if (nu >= nuMax || t > duration) {
+                break;
+            }
+
+            r = p / (1 + e * Math.cos(nu));
+
+            if (r <= minRadius) {
+                break;
+            }
+
+            double angle = omega + sign * nu;
+            xs[count] = cx + (float)(r * Math.cos(angle));
+            ys[count] = cy + (float)(r * Math.sin(angle));
+            ts[count] = (float)t;
+            count++;
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Time from periapsis to true anomaly nu (elliptic - continued over revolutions)
+     */
+    private double time(double nu) {
+
+        // parabola, Barker's equation
+        if (Math.abs(e - 1) < PARABOLIC) {
+
+            double d = Math.tan(nu / 2);
+            return 0.5 * Math.sqrt(p * p * p / mu) * (d + d * d * d / 3);
+        }
+
+        double a = p / (1 - e * e);
+
+        // ellipse
+        if (e < 1) {
+
+            double n = Math.sqrt(mu / (a * a * a));
+            double rev = Math.floor((nu + Math.PI) / TWO_PI);
+            double half = (nu - rev * TWO_PI) / 2;
+
+            double E = 2 * Math.atan2(Math.sqrt(1 - e) * Math.sin(half), Math.sqrt(1 + e) * Math.cos(half));
+            return (E - e * Math.sin(E) + rev * TWO_PI) / n;
+        }
+
+        // hyperbola
+        double n = Math.sqrt(mu / (-a * -a * -a));
+        double F = 2 * atanh(Math.sqrt((e - 1) / (e + 1)) * Math.tan(nu / 2));
+        return (e * Math.sinh(F) - F) / n;
+    }
+
+
+    private static double atanh(double x) {
+        return 0.5 * Math.log((1 + x) / (1 - x));
+    }
+
+    private static double wrap(double angle) {
+
+        angle %= TWO_PI;
+        if (angle > Math.PI) {
+            angle -= TWO_PI;
+        }
+        else if (angle <= -Math.PI) {
+            angle += TWO_PI;
+        }
+        return angle;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.geekbrains.math;
+
+/**
+ * Real roots of polynomials up to 4th degree in closed form
+ * (quadratic formula, Cardano / trigonometric for cubic, Ferrari for quartic)
+ * with Newton polishing on original polynomial.
+ * <br>
+ * Leading coefficients that are negligible relative to others are dropped (lower degree equation).
+ * No allocations, caller provides buffer for roots.
+ */
+public final class QuarticSolver {
+
+    private static final double EPS = 1e-12;         // relative size of negligible coefficient
+    private static final int POLISH_STEPS = 3;
+
+    private QuarticSolver() {}
+
+
+    /**
+     * Smallest root of a*t^4 + b*t^3 + c*t^2 + d*t + e = 0 in (0, max]
+     * @param roots buffer, at least 4
+     * @return NaN if none
+     */
+    public static double smallestPositiveRoot(double a, double b, double c, double d, double e,
+                                              double max, double[] roots) {
+
+        int n = solve(a, b, c, d, e, roots);
+
+        double result = Double.NaN;
+
+        for (int i = 0; i < n; i++) {
+
+            double t = roots[i];
+
+            if (t > 0 && t <= max && !(t >= result)) {
+                result = t;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Real roots of a*x^4 + b*x^3 + c*x^2 + d*x + e = 0
+     * @param roots buffer, at least 4
+     * @return number of roots (not sorted, multiple roots may repeat)
+     */
+    public static int solve(double a, double b, double c, double d, double e, double[] roots) {
+
+        double scale = Math.max(Math.max(Math.abs(a), Math.abs(b)),
+                Math.max(Math.max(Math.abs(c), Math.abs(d)), Math.abs(e)));
+
+        if (scale == 0) {
+            return 0;
+        }
+
+        int n;
+
+        if (Math.abs(a) > EPS * scale) {
+            n = quartic(b / a, c / a, d / a, e / a, roots);
+        }
+        else if (Math.abs(b) > EPS * scale) {
+            n = cubic(c / b, d / b, e / b, roots, 0);
+        }
+        else if (Math.abs(c) > EPS * scale) {
+            n = quadratic(c, d, e, roots, 0);
+        }
+        else if (Math.abs(d) > EPS * scale) {
+            roots[0] = -e / d;
+            n = 1;
+        }
+        else {
+            return 0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            roots[i] = polish(a, b, c, d, e, roots[i]);
+        }
+        return n;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * x^4 + a*x^3 + b*x^2 + c*x + d = 0, Ferrari's method
+     */
+    private static int quartic(double a, double b, double c, double d, double[] roots) {
+
+        // depressed quartic y^4 + p*y^2 + q*y + r = 0, x = y - a/4
+        double a2 = a * a;
+        double p = b - 3 * a2 / 8;
+        double q = c - a * b / 2 + a2 * a / 8;
+        double r = d - a * c / 4 + a2 * b / 16 - 3 * a2 * a2 / 256;
+        double shift = -a / 4;
+
+        int n = 0;
+
+        // biquadratic, z = y^2
+        if (Math.abs(q) <= EPS * (Math.abs(p) * Math.abs(p) + Math.abs(r) + 1)) {
+
+            double disc = p * p - 4 * r;
+            if (disc < 0) {
+                return 0;
+            }
+
+            double sq = Math.sqrt(disc);
+            double z1 = (-p + sq) / 2;
+            double z2 = (-p - sq) / 2;
+
+            if (z1 >= 0) {
+                roots[n++] = Math.sqrt(z1) + shift;
+                roots[n++] = -Math.sqrt(z1) + shift;
+            }
+            if (z2 >= 0) {
+                roots[n++] = Math.sqrt(z2) + shift;
+                roots[n++] = -Math.sqrt(z2) + shift;
+            }
+            return n;
+        }
+
+        // resolvent cubic 8m^3 + 8p*m^2 + (2p^2 - 8r)*m - q^2 = 0, largest root m > 0
+        int k = cubic(p, (p * p / 4 - r), -q * q / 8, roots, 0);
+
+        double m = roots[0];
+        for (int i = 1; i < k; i++) {
+            m = Math.max(m, roots[i]);
+        }
+
+        if (m <= 0) {
+            return 0;
+        }
+
+        // (y^2 + p/2 + m)^2 = (s*y - q/(2s))^2, s = sqrt(2m)
+        double s = Math.sqrt(2 * m);
+        double h = q / (2 * s);
+
+        n = quadratic(1, s, p / 2 + m - h, roots, 0);
+        n += quadratic(1, -s, p / 2 + m + h, roots, n);
+
+        for (int i = 0; i < n; i++) {
+            roots[i] += shift;
+        }
+        return n;
+    }
+
+    /**
+     * x^3 + a*x^2 + b*x + c = 0
+     */
+    private static int cubic(double a, double b, double c, double[] roots, int offset) {
+
+        double Q = (a * a - 3 * b) / 9;
+        double R = (2 * a * a * a - 9 * a * b + 27 * c) / 54;
+        double Q3 = Q * Q * Q;
+
+        // three real roots - trigonometric
+        if (R * R < Q3) {
+
+            double theta = Math.acos(R / Math.sqrt(Q3));
+            double sq = -2 * Math.sqrt(Q);
+
+            roots[offset] = sq * Math.cos(theta / 3) - a / 3;
+            roots[offset + 1] = sq * Math.cos((theta + 2 * Math.PI) / 3) - a / 3;
+            roots[offset + 2] = sq * Math.cos((theta - 2 * Math.PI) / 3) - a / 3;
+            return 3;
+        }
+
+        // one real root - Cardano
+        double A = -Math.signum(R) * Math.cbrt(Math.abs(R) + Math.sqrt(R * R - Q3));
+        double B = A == 0 ? 0 : Q / A;
+
+        roots[offset] = A + B - a / 3;
+        return 1;
+    }
+
+    /**
+     * a*x^2 + b*x + c = 0, numerically stable form
+     */
+    private static int quadratic(double a, double b, double c, double[] roots, int offset) {
+
+        double disc = b * b - 4 * a * c;
+
+        if (disc < 0) {
+            return 0;
+        }
+
+        double q = -0.5 * (b + Math.copySign(Math.sqrt(disc), b));
+
+        if (q == 0) {
+            roots[offset] = 0;
+            return 1;
+        }
+
+        roots[offset] = q / a;
+        roots[offset + 1] = c / q;
+        return 2;
+    }
+
+    /**
+     * Newton iterations on original polynomial, keeps root if they do not improve it
+     */
+    private static double polish(double a, double b, double c, double d, double e, double x) {
+
+        for (int i = 0; i < POLISH_STEPS; i++) {
+
+            double f = (((a * x + b) * x + c) * x + d) * x + e;
+            double df = ((4 * a * x + 3 * b) * x + 2 * c) * x + d;
+
+            if (df == 0) {
+                break;
+            }
+
+            double next = x - f / df;
+            double fn = (((a * next + b) * next + c) * next + d) * next + e;
+
+            if (!(Math.abs(fn) < Math.abs(f))) {
+                break;
+            }
+            x = next;
+        }
+        return x;
+    }
+}
@@ -1,12 +1,62 @@
 package ru.geekbrains.math;
 
-import java.util.Random;
-
 /**
  * Генератор случайных чисел
+ * <br>
+ * Seeded generator (SplitMix64). Each subsystem uses separate stream (see World) -
+ * extra random call in one subsystem (one more shot) does not shift sequences of others.
+ * <br>
+ * Same seed and same input - same game (see InputLog).
+ * Not thread safe - use from simulation thread only (not from parallel update).
  */
 public class Rnd {
-    private static final Random random = new Random();
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long stream;
+    private long state;
+
+
+    /**
+     * @param stream stream number, streams with same seed give different sequences
+     */
+    public Rnd(long stream) {
+        this.stream = stream;
+        this.state = mix(stream);
+    }
+
+
+    public void setSeed(long seed) {
+        state = mix(seed + stream * GOLDEN_GAMMA);
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    public long nextLong() {
+
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * @return [0, 1)
+     */
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * @return [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
 
     /**
      * Сгенерировать случайное число
@@ -14,7 +64,37 @@ public class Rnd {
      * @param max максимальное значение случайного числа
      * @return результат
      */
-    public static float nextFloat(float min, float max) {
-        return random.nextFloat() * (max - min) + min;
+    public float nextFloat(float min, float max) {
+        return nextFloat() * (max - min) + min;
+    }
+
+    public double nextDouble(double min, double max) {
+        return nextDouble() * (max - min) + min;
+    }
+
+    /**
+     * @return [min, max)
+     */
+    public long nextLong(long min, long max) {
+        return min + (long)(nextDouble() * (max - min));
+    }
+
+    /**
+     * Normal distribution, mean 0, deviation 1 (Box-Muller)
+     */
+    public double nextGaussian() {
+
+        double u1 = 1 - nextDouble();   // (0, 1]
+        double u2 = nextDouble();
+
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+
+    private static long mix(long z) {
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
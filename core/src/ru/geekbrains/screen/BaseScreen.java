@@ -18,6 +18,13 @@ public abstract class BaseScreen implements Screen, InputProcessor {
 
     protected Renderer renderer;
 
+    // simulation only, no window, GL rendering, input (renderer == null)
+    protected boolean headless = false;
+
+    // headless mode screen size
+    private static final int HEADLESS_WIDTH = 1920;
+    private static final int HEADLESS_HEIGHT = 1200;
+
     //protected SpriteBatch batch;
 
     //ShapeRenderer shapeRenderer = new ShapeRenderer();
@@ -41,10 +48,11 @@ public abstract class BaseScreen implements Screen, InputProcessor {
     @Override
     public void show() {
         System.out.println("show");
-        Gdx.input.setInputProcessor(this);
 
-        this.renderer = new Renderer(new SpriteBatch(), new ShapeRenderer(), RendererType.SHAPE);
-        renderer.shape.setAutoShapeType(true);
+        if (!headless) {
+            Gdx.input.setInputProcessor(this);
+            this.renderer = new Renderer(new SpriteBatch(), new ShapeRenderer(), RendererType.SHAPE);
+        }
 
         this.touch = new Vector3();
         this.target = new Vector2();
@@ -57,6 +65,11 @@ public abstract class BaseScreen implements Screen, InputProcessor {
 
         oldScreenX = -1;
         oldScreenY = -1;
+
+        // no window - no resize events
+        if (headless) {
+            resize(HEADLESS_WIDTH, HEADLESS_HEIGHT);
+        }
     }
 
     @Override
@@ -95,8 +108,9 @@ public abstract class BaseScreen implements Screen, InputProcessor {
         MatrixUtils.calcTransitionMatrix(worldToClip, worldBounds, clipBounds);
 
         // apply to batcher and shapeRenderer
-        renderer.batch.setProjectionMatrix(worldToClip);
-        renderer.shape.setProjectionMatrix(worldToClip);
+        if (renderer != null) {
+            renderer.setProjectionMatrix(worldToClip);
+        }
 
         // Prepare transition from Screen to World
         // set translation vector between old and new coordinate system (in old coordinates)
@@ -134,7 +148,10 @@ public abstract class BaseScreen implements Screen, InputProcessor {
     @Override
     public void dispose() {
         System.out.println("dispose");
-        renderer.dispose();
+
+        if (renderer != null) {
+            renderer.dispose();
+        }
         System.exit(0);
     }
 
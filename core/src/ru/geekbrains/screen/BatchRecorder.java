@@ -0,0 +1,36 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * SpriteBatch facade, records texture regions and texts to DrawBuffer instead of drawing.
+ */
+public class BatchRecorder {
+
+    private DrawBuffer buffer;
+
+
+    void setBuffer(DrawBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+
+    public void begin() {
+        buffer.batchBegin();
+    }
+
+    public void end() {
+        buffer.batchEnd();
+    }
+
+    public void draw(TextureRegion region, float x, float y, float originX, float originY,
+                     float width, float height, float scaleX, float scaleY, float rotation) {
+
+        buffer.region(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+    }
+
+    public void drawText(BitmapFont font, String text, float x, float y) {
+        buffer.text(font, text, x, y);
+    }
+}
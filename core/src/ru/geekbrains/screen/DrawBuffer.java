@@ -0,0 +1,241 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+import java.util.Arrays;
+
+/**
+ * Recorded frame - list of draw commands produced by objects draw() methods.
+ * <br>
+ * Recorded by simulation (may run in separate thread) through ShapeRecorder and BatchRecorder,
+ * replayed on GL thread by replay(). Once published, buffer is not modified until it is returned back.
+ * All values (positions, colors, texts) are copied on record, so buffer is a snapshot of the world view.
+ */
+public class DrawBuffer {
+
+    // commands
+    private static final int BATCH_BEGIN = 0;
+    private static final int BATCH_END   = 1;
+    private static final int SHAPE_BEGIN = 2;
+    private static final int SHAPE_END   = 3;
+    private static final int SHAPE_TYPE  = 4;   // ref: ShapeType
+    private static final int SHAPE_FLUSH = 5;
+    private static final int CIRCLE      = 6;   // rgba, x, y, radius
+    private static final int LINE        = 7;   // rgba, x1, y1, x2, y2
+    private static final int POINT       = 8;   // rgba, x, y, z
+    private static final int LINE_WIDTH  = 9;   // width
+    private static final int BLENDING    = 10;
+    private static final int REGION      = 11;  // ref: TextureRegion, x, y, originX, originY, width, height, scaleX, scaleY, angle
+    private static final int TEXT        = 12;  // ref: BitmapFont, ref: text, x, y
+
+
+    private int[] ops = new int[1024];
+    private float[] args = new float[8192];
+    private Object[] refs = new Object[256];
+
+    private int opCount;
+    private int argCount;
+    private int refCount;
+
+
+    public void clear() {
+
+        Arrays.fill(refs, 0, refCount, null);
+
+        opCount = 0;
+        argCount = 0;
+        refCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return opCount == 0;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void op(int op) {
+
+        if (opCount == ops.length) {
+            ops = Arrays.copyOf(ops, ops.length * 2);
+        }
+        ops[opCount++] = op;
+    }
+
+    private void arg(float value) {
+
+        if (argCount == args.length) {
+            args = Arrays.copyOf(args, args.length * 2);
+        }
+        args[argCount++] = value;
+    }
+
+    private void ref(Object value) {
+
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refs.length * 2);
+        }
+        refs[refCount++] = value;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    void batchBegin() {
+        op(BATCH_BEGIN);
+    }
+
+    void batchEnd() {
+        op(BATCH_END);
+    }
+
+    void shapeBegin() {
+        op(SHAPE_BEGIN);
+    }
+
+    void shapeEnd() {
+        op(SHAPE_END);
+    }
+
+    void shapeType(ShapeRenderer.ShapeType type) {
+        op(SHAPE_TYPE);
+        ref(type);
+    }
+
+    void shapeFlush() {
+        op(SHAPE_FLUSH);
+    }
+
+    void lineWidth(float width) {
+        op(LINE_WIDTH);
+        arg(width);
+    }
+
+    void blending() {
+        op(BLENDING);
+    }
+
+    void circle(float r, float g, float b, float a, float x, float y, float radius) {
+        op(CIRCLE);
+        arg(r); arg(g); arg(b); arg(a);
+        arg(x); arg(y); arg(radius);
+    }
+
+    void line(float r, float g, float b, float a, float x1, float y1, float x2, float y2) {
+        op(LINE);
+        arg(r); arg(g); arg(b); arg(a);
+        arg(x1); arg(y1); arg(x2); arg(y2);
+    }
+
+    void point(float r, float g, float b, float a, float x, float y, float z) {
+        op(POINT);
+        arg(r); arg(g); arg(b); arg(a);
+        arg(x); arg(y); arg(z);
+    }
+
+    void region(TextureRegion region, float x, float y, float originX, float originY,
+                float width, float height, float scaleX, float scaleY, float rotation) {
+        op(REGION);
+        ref(region);
+        arg(x); arg(y);
+        arg(originX); arg(originY);
+        arg(width); arg(height);
+        arg(scaleX); arg(scaleY);
+        arg(rotation);
+    }
+
+    void text(BitmapFont font, String text, float x, float y) {
+        op(TEXT);
+        ref(font);
+        ref(text);
+        arg(x); arg(y);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Execute recorded commands, must be called on GL thread
+     */
+    public void replay(SpriteBatch batch, ShapeRenderer shape) {
+
+        int a = 0;
+        int r = 0;
+
+        for (int i = 0; i < opCount; i++) {
+
+            switch (ops[i]) {
+
+                case BATCH_BEGIN:
+                    batch.begin();
+                    break;
+
+                case BATCH_END:
+                    batch.end();
+                    break;
+
+                case SHAPE_BEGIN:
+                    shape.begin();
+                    break;
+
+                case SHAPE_END:
+                    shape.end();
+                    break;
+
+                case SHAPE_TYPE:
+                    shape.set((ShapeRenderer.ShapeType) refs[r++]);
+                    break;
+
+                case SHAPE_FLUSH:
+                    shape.flush();
+                    break;
+
+                case LINE_WIDTH:
+                    Gdx.gl.glLineWidth(args[a++]);
+                    break;
+
+                case BLENDING:
+                    Gdx.gl.glEnable(GL20.GL_BLEND);
+                    Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+                    break;
+
+                case CIRCLE:
+                    shape.setColor(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                    shape.circle(args[a + 4], args[a + 5], args[a + 6]);
+                    a += 7;
+                    break;
+
+                case LINE:
+                    shape.setColor(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                    shape.line(args[a + 4], args[a + 5], args[a + 6], args[a + 7]);
+                    a += 8;
+                    break;
+
+                case POINT:
+                    shape.setColor(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                    shape.point(args[a + 4], args[a + 5], args[a + 6]);
+                    a += 7;
+                    break;
+
+                case REGION:
+                    batch.draw((TextureRegion) refs[r++],
+                        args[a], args[a + 1],
+                        args[a + 2], args[a + 3],
+                        args[a + 4], args[a + 5],
+                        args[a + 6], args[a + 7],
+                        args[a + 8]);
+                    a += 9;
+                    break;
+
+                case TEXT:
+                    BitmapFont font = (BitmapFont) refs[r++];
+                    String text = (String) refs[r++];
+                    font.draw(batch, text, args[a], args[a + 1]);
+                    a += 2;
+                    break;
+            }
+        }
+    }
+}
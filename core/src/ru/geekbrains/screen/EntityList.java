@@ -0,0 +1,180 @@
+package ru.geekbrains.screen;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import ru.geekbrains.entities.objects.GameObject;
+
+/**
+ * Dense array of objects for per-tick passes (update, collision, draw).
+ * <br>
+ * Ordering is stable: objects keep insertion order (add - to the end,
+ * insertFirst - before all others), removal never reorders the rest.
+ * <br>
+ * Removal during pass: markRemoved(i) clears the slot, compact() at the end of pass
+ * squeezes cleared slots out in one sweep (no per-element shifting).
+ * Iterator skips cleared slots, so list may be safely iterated between markRemoved() and compact().
+ * <br>
+ * Not thread safe, owned by World (simulation thread).
+ */
+public class EntityList extends AbstractCollection<GameObject> {
+
+    private GameObject[] items = new GameObject[256];
+    private int size = 0;
+    private int removed = 0;       // cleared slots waiting for compact()
+
+
+    @Override
+    public boolean add(GameObject obj) {
+
+        ensureCapacity(size + 1);
+        items[size++] = obj;
+        return true;
+    }
+
+    /**
+     * Place objects before all others, in reverse order
+     * (last of src goes first, same as addFirst() of src objects one by one)
+     */
+    public void insertFirst(EntityList src) {
+
+        int n = src.size;
+        if (n == 0) {
+            return;
+        }
+
+        ensureCapacity(size + n);
+        System.arraycopy(items, 0, items, n, size);
+
+        for (int i = 0; i < n; i++) {
+            items[i] = src.items[n - 1 - i];
+        }
+
+        size += n;
+        removed += src.removed;
+    }
+
+    /**
+     * Object at index, null if slot was cleared by markRemoved()
+     */
+    public GameObject get(int index) {
+        return items[index];
+    }
+
+    /**
+     * Clear slot, object will be removed by compact()
+     */
+    public void markRemoved(int index) {
+
+        if (items[index] != null) {
+            items[index] = null;
+            removed++;
+        }
+    }
+
+    /**
+     * Remove cleared slots, keeps order of the rest
+     */
+    public void compact() {
+
+        if (removed == 0) {
+            return;
+        }
+
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+
+            if (items[i] != null) {
+                items[j++] = items[i];
+            }
+        }
+
+        Arrays.fill(items, j, size, null);
+        size = j;
+        removed = 0;
+    }
+
+
+    @Override
+    public boolean remove(Object obj) {
+
+        for (int i = 0; i < size; i++) {
+
+            if (items[i] == obj) {
+
+                System.arraycopy(items, i + 1, items, i, size - i - 1);
+                items[--size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        removed = 0;
+    }
+
+    /**
+     * Number of objects (cleared slots not counted)
+     */
+    @Override
+    public int size() {
+        return size - removed;
+    }
+
+    /**
+     * Upper bound of index for get(), including cleared slots
+     */
+    public int rawSize() {
+        return size;
+    }
+
+
+    @Override
+    public Iterator<GameObject> iterator() {
+
+        return new Iterator<GameObject>() {
+
+            int next = skip(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public GameObject next() {
+
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                GameObject result = items[next];
+                next = skip(next + 1);
+                return result;
+            }
+        };
+    }
+
+
+    private int skip(int index) {
+
+        while (index < size && items[index] == null) {
+            index++;
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > items.length) {
+            items = Arrays.copyOf(items, Math.max(capacity, items.length * 2));
+        }
+    }
+}
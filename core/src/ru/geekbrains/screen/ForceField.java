@@ -0,0 +1,85 @@
+package ru.geekbrains.screen;
+
+import ru.geekbrains.entities.objects.GameObject;
+
+/**
+ * Source of force field: circle of influence around owner object, falloff of force with distance
+ * and lifetime in game time (World.getTime()).
+ * <br>
+ * Registered in World.forceFields, removed when lifetime is over or owner is disposed.
+ * Default force is radial, strength * falloff(r) * mass of object,
+ * strength > 0 - repulse, < 0 - attract.
+ * Subclasses override apply() for other kinds of force (swirl, shield).
+ * <br>
+ * Fields are not changed after registration, variable state belongs to owner.
+ */
+public class ForceField {
+
+    public enum Falloff {
+
+        CONSTANT,
+        INVERSE,            // ~ 1/r
+        INVERSE_SQUARE;     // ~ 1/r^2
+
+        public float scale(float r) {
+
+            switch (this) {
+                case INVERSE:
+                    return 1 / r;
+                case INVERSE_SQUARE:
+                    return 1 / (r * r);
+                default:
+                    return 1;
+            }
+        }
+    }
+
+
+    public final GameObject owner;      // field center
+    public final float radius;          // shape - circle around owner
+    public final float strength;
+    public final Falloff falloff;
+
+    public final long from;             // active game time [from, to)
+    public final long to;
+
+
+    /**
+     * Field active while owner is alive
+     */
+    public ForceField(GameObject owner, float radius, float strength, Falloff falloff) {
+        this(owner, radius, strength, falloff, 0, Long.MAX_VALUE);
+    }
+
+    public ForceField(GameObject owner, float radius, float strength, Falloff falloff, long from, long to) {
+
+        this.owner = owner;
+        this.radius = radius;
+        this.strength = strength;
+        this.falloff = falloff;
+        this.from = from;
+        this.to = to;
+    }
+
+
+    public boolean isActive(long time) {
+        return time >= from && time < to;
+    }
+
+    public boolean isExpired(long time) {
+        return owner.readyToDispose || time >= to;
+    }
+
+
+    /**
+     * Apply force to obj inside field circle (obj is not owner)
+     * @param dx vector from field center to obj
+     * @param dy
+     * @param r distance from field center, not less than 1
+     */
+    public void apply(GameObject obj, float dx, float dy, float r, float dt) {
+
+        float scale = strength * falloff.scale(r) * obj.getMass() / r;
+        obj.applyForce(dx * scale, dy * scale);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.geekbrains.screen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.geekbrains.entities.objects.GameObject;
+
+/**
+ * Registered force fields (black holes, shields) and their index.
+ * <br>
+ * Once per tick (World.rebuildIndex) expired fields are dropped and active ones are put to cells
+ * of coarse grid by their circles. Field forces are then accumulated in one pass over objects
+ * (GameScreen.integrateObjects): each object checks only fields of its cell,
+ * so adding fields does not add quadTree queries.
+ * <br>
+ * Coordinates outside of the grid are clamped to border cells, exact distance check is always done.
+ * Not thread safe: fields may change other objects (shield reaction), applied serially;
+ * owners of fields register them on creation and are not created from parallel update.
+ */
+public class ForceFields {
+
+    private static final float CELL = 512f;
+    private static final int SIZE = 32;                     // cells per side
+    private static final float ORIGIN = -CELL * SIZE / 2;   // grid covers -8192..8192 (as quadTree)
+
+    private final List<ForceField> fields = new ArrayList<>();   // in order of registration
+
+    private final List<List<ForceField>> cells = new ArrayList<>(SIZE * SIZE);   // row by row
+    private final List<List<ForceField>> used = new ArrayList<>();  // non-empty cells
+    private boolean empty = true;
+
+
+    public ForceFields() {
+
+        for (int k = 0; k < SIZE * SIZE; k++) {
+            cells.add(new ArrayList<>(0));
+        }
+    }
+
+
+    public void add(ForceField field) {
+        fields.add(field);
+    }
+
+    public List<ForceField> getFields() {
+        return fields;
+    }
+
+
+    /**
+     * Drop expired fields, put active fields to grid cells
+     * @param time game time (World.getTime())
+     */
+    void update(long time) {
+
+        fields.removeIf(f -> f.isExpired(time));
+
+        for (List<ForceField> list : used) {
+            list.clear();
+        }
+        used.clear();
+        empty = true;
+
+        for (ForceField field : fields) {
+
+            if (!field.isActive(time)) {
+                continue;
+            }
+
+            float x = field.owner.pos.x;
+            float y = field.owner.pos.y;
+
+            int i0 = cell(x - field.radius);
+            int i1 = cell(x + field.radius);
+            int j0 = cell(y - field.radius);
+            int j1 = cell(y + field.radius);
+
+            for (int j = j0; j <= j1; j++) {
+                for (int i = i0; i <= i1; i++) {
+
+                    List<ForceField> cell = cells.get(j * SIZE + i);
+
+                    if (cell.isEmpty()) {
+                        used.add(cell);
+                    }
+                    cell.add(field);
+                }
+            }
+            empty = false;
+        }
+    }
+
+
+    /**
+     * Apply forces of all fields covering obj
+     */
+    public void applyForces(GameObject obj, float dt) {
+
+        if (empty) {
+            return;
+        }
+
+        List<ForceField> list = cells.get(cell(obj.pos.y) * SIZE + cell(obj.pos.x));
+
+        for (int n = 0; n < list.size(); n++) {
+
+            ForceField field = list.get(n);
+
+            if (obj == field.owner) {
+                continue;
+            }
+
+            float dx = obj.pos.x - field.owner.pos.x;
+            float dy = obj.pos.y - field.owner.pos.y;
+            float d2 = dx * dx + dy * dy;
+
+            if (d2 > field.radius * field.radius) {
+                continue;
+            }
+
+            field.apply(obj, dx, dy, Math.max((float)Math.sqrt(d2), 1f), dt);
+        }
+    }
+
+
+    private static int cell(float coord) {
+
+        int i = (int)Math.floor((coord - ORIGIN) / CELL);
+        return Math.min(Math.max(i, 0), SIZE - 1);
+    }
+}
@@ -3,32 +3,31 @@ package ru.geekbrains.screen;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.math.MathUtils;
 import com.github.varunpant.quadtree.Point;
-import com.github.varunpant.quadtree.QuadTree;
 
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.equipment.Sensor;
 import ru.geekbrains.entities.objects.DummyObject;
 import ru.geekbrains.entities.objects.EnemyShip;
 import ru.geekbrains.entities.objects.ObjectType;
@@ -41,7 +40,9 @@ import ru.geekbrains.entities.particles.SmokeTrailList;
 import ru.geekbrains.entities.projectile.missile.EmpMissile;
 import ru.geekbrains.entities.projectile.missile.Missile;
 import ru.geekbrains.entities.projectile.missile.NewtonMissile;
+import ru.geekbrains.math.Integrator;
 import ru.geekbrains.math.Rect;
+import ru.geekbrains.screen.TickProfiler.Phase;
 import ru.geekbrains.sprite.Background;
 import ru.geekbrains.sprite.Reticle;
 
@@ -50,29 +51,60 @@ import org.apache.commons.lang3.time.DurationFormatUtils;
 
 public class GameScreen extends BaseScreen {
 
-    public static final float BACKGROUND_SIZE = 2050f;
-    private static Vector2 tmp0s = new Vector2();
-    private static Vector2 tmp1s = new Vector2();
+    public GameScreen() {
+        this(false);
+    }
 
-    public static GameScreen INSTANCE = null;
+    /**
+     * @param headless run without GL rendering, window and audio (simulation only, see step())
+     */
+    public GameScreen(boolean headless) {
+        this.headless = headless;
+    }
 
-    private static Texture missileTexture;
-    private long tick = 0;
+    /**
+     * Replay recorded session
+     * @param replay recorded seed and input
+     */
+    public GameScreen(boolean headless, InputLog replay) {
+        this.headless = headless;
+        this.replayLog = replay;
+    }
 
     /**
-     * Get current value
+     * @param seed random seed (instead of app.seed), batch runs of many worlds
      */
-    public long getTick() {
+    public GameScreen(boolean headless, long seed) {
+        this.headless = headless;
+        this.seed = seed;
+    }
 
-        return tick;
+    /**
+     * Stress scenario (call before show()): big enemy waves every few seconds and player ship
+     * that survives them - many missiles and targets at once for point defence weapons,
+     * fire control and intercept solvers (headless benchmarks and regression checks)
+     */
+    public void setStress(boolean stress) {
+        this.stress = stress;
     }
 
+    public static final float BACKGROUND_SIZE = 2050f;
+
+    private static Texture missileTexture;
+
+    // simulation state: objects, tick, planet, random streams, input, AI scheduler
+    private World world = new World();
+
     /**
-     * Progress updateTick
+     * Get current value
      */
-    public void updateTick() {
+    public long getTick() {
 
-        tick++;
+        return world.getTick();
+    }
+
+    public World getWorld() {
+        return world;
     }
 
     public boolean isDEBUG() {
@@ -102,27 +134,10 @@ public class GameScreen extends BaseScreen {
 
     private Background background;
     private Reticle reticle;
-    public  Planet planet;
-
-    private Set<GameObject> spawningObjects = new HashSet<>(); // objects to spawn
-
-    private LinkedList<GameObject> gameObjects = new LinkedList<>();
-
-    private Set<GameObject> particleObjects = new HashSet<>();
-
-    private Set<GameObject> explosionObjects = new HashSet<>();
-
-    // Список объектов, по которым можно попадать снарядами
-    // Используется в quadTree в качестве целей, отсортирован по убыванию радиуса
-    private ArrayList<GameObject> hittableObjects = new ArrayList<>();
-
-    //private Map<Float,GameObject> hittableObjects = new TreeMap<>((f1, f2) -> -Float.compare(f1, f2));
 
     //private List<GameObject> objectsToDelete = new ArrayList<>();
     private BorderNormals borderNormals = new BorderNormals();
 
-    private QuadTree<GameObject> quadTree;
-
     private boolean win = false;
 
     //private Message msgRemains;
@@ -144,7 +159,45 @@ public class GameScreen extends BaseScreen {
 
 
 
-    private int ENEMY_RESPAWN_TIME;
+    private int TICK_RATE = 60;             // simulation steps per second
+    private int MAX_CATCH_UP_TICKS = 5;     // max simulation steps per rendered frame
+    private float tickTime = 1f / TICK_RATE;
+    private float accumulator = 0;          // real time not yet simulated
+
+    // simulation thread, null if simulation performed on GL thread in render()
+    private Thread simulationThread;
+    private volatile boolean simulationRunning;
+    private boolean simulationThreadEnabled = false;
+
+    // draw command buffers: recording by simulation, last published, rendering by GL thread
+    // and one spare - recording always gets free buffer, even if GL thread has just taken published one
+    private DrawBuffer recordingFrame = new DrawBuffer();
+    private AtomicReference<DrawBuffer> publishedFrame = new AtomicReference<>();
+    private DrawBuffer renderingFrame;
+    private Queue<DrawBuffer> freeFrames = new ConcurrentLinkedQueue<>(Arrays.asList(new DrawBuffer(), new DrawBuffer(), new DrawBuffer()));
+
+    // input captured on GL thread (cursor, keys, screen size), taken by simulation at tick start
+    private final InputState liveInput = new InputState();
+
+    private long seed;
+    private boolean stress;             // stress scenario, see setStress()
+    private InputLog inputLog;          // recording, null if disabled
+    private InputLog replayLog;         // replaying, null if live input
+
+    // per-phase timing
+    private TickProfiler profiler = new TickProfiler();
+
+    // parallel update of independent objects (projectiles, explosions)
+    private ParallelPhase parallelPhase = new ParallelPhase(world);
+    private boolean parallelUpdateEnabled = false;
+
+    // batch integration of moving objects
+    private Integrator integrator = new Integrator(1024);
+    private List<GameObject> integrated = new ArrayList<>();
+
+    private List<GameObject> retargetList = new ArrayList<>();
+
+    private int ENEMY_RESPAWN_TIME;            // base ticks (World.getTime())
     private int ENEMIES_COUNT_IN_WAVE;
     private int ENEMIES_COUNT_IN_WAVE_PREVOIUS;
 
@@ -156,18 +209,25 @@ public class GameScreen extends BaseScreen {
     public void show() {
         super.show();
 
-        if (GameScreen.INSTANCE == null) {
-            GameScreen.INSTANCE = this;
-        }
+        // objects created below belong to this world
+        World.setCurrent(world);
+        world.bounds = new Rect(worldBounds);       // own copy, updated from input every tick
+        world.aspect = aspect;
+        liveInput.capture(target, aspect, worldBounds);
+
+        // RANDOM SEED, INPUT RECORDING ------------------------------------------------------------
+        // before any object creation
+        getReplaySettings();
 
+        // SIMULATION RATE, SETTINGS OF SUBSYSTEMS -------------------------------------------------
+        // before any object creation
+        getSimulationRate();
 
-        quadTree = new QuadTree<>(-8000,-8000,8000,8000);
 
         background = new Background(new TextureRegion(new Texture("A_Deep_Look_into_a_Dark_Sky.jpg")));
         background.setHeightAndResize(BACKGROUND_SIZE);
 
-        planet = new Planet(new TextureRegion(new Texture("dune.png")),100f, null);
-        planet.pos = new Vector2(0, 0);
+        createPlanets();
 
 
         target.set(500f,500f);
@@ -186,17 +246,17 @@ public class GameScreen extends BaseScreen {
 
 
 
-        addObject(playerShip);
+        world.addObject(playerShip);
 
 
 
         Message msg = new Message("New objectives: survive till warp engine have been repaired.", 0);
-        particleObjects.add(msg);
+        world.particleObjects.add(msg);
 
         msgEST = new Message("EST: ", 1);
         msgFuel = new Message("FUEL: ", 2);
-        particleObjects.add(msgEST);
-        particleObjects.add(msgFuel);
+        world.particleObjects.add(msgEST);
+        world.particleObjects.add(msgFuel);
 
 //        Тесты для CIWS minigun
 
@@ -259,6 +319,20 @@ public class GameScreen extends BaseScreen {
         // DIFFICULTY LEVEL ------------------------------------------------------------------------
         getDifficultyLevel();
 
+        if (stress) {
+            ENEMY_RESPAWN_TIME = 300;
+            ENEMIES_COUNT_IN_WAVE = 6;
+            ENEMIES_COUNT_IN_WAVE_PREVOIUS = ENEMIES_COUNT_IN_WAVE;
+            playerShip.setMaxHealth(playerShip.getMaxHealth() * 1000);
+        }
+
+        // ENEMY SHIPS RETARGETING ----------------------------------------------------------------
+        world.scheduler.register(10, 20, 1, dt -> retargetEnemyShips());
+
+        if (simulationThreadEnabled && !headless) {
+            startSimulationThread();
+        }
+
 
         // -----------------------------------------------------------------------------------------
     }
@@ -268,8 +342,35 @@ public class GameScreen extends BaseScreen {
 
     private void update(float dt) {
 
+        World.setCurrent(world);
+
+        profiler.begin(Phase.TICK);
+        profiler.begin(Phase.SPAWN);
+
+        // player input of this tick
+        if (replayLog != null) {
+            replayLog.replay(getTick(), world.input);
+        }
+        else {
+            liveInput.take(world.input);
+
+            if (inputLog != null) {
+                inputLog.record(getTick(), world.input);
+            }
+        }
+        world.aspect = world.input.aspect;
+        if (world.input.bounds.getHalfWidth() > 0) {
+            world.bounds.set(world.input.bounds);
+        }
+
+        // stress scenario - player ship holds position, explosions don't throw it on the planet
+        if (stress && !playerShip.readyToDispose) {
+            playerShip.pos.set(500f, 500f);
+            playerShip.vel.setZero();
+        }
+
         // spawnEnemyShip
-        if (getTick() % ENEMY_RESPAWN_TIME == 0) {
+        if (world.every(ENEMY_RESPAWN_TIME)) {
             enemyShipsToSpawn += ENEMIES_COUNT_IN_WAVE;
         }
 
@@ -277,44 +378,46 @@ public class GameScreen extends BaseScreen {
             spawnEnemyShip();
         }
 
-        if (getTick() > 0 &&
-                getTick() % 4000 == 0) {
+        if (world.getTime() > 0 &&
+                world.every(4000)) {
 
             Missile missile = new NewtonMissile(new TextureRegion(missileTexture), 7, playerShip);
-            missile.pos.set(worldBounds.getHalfWidth() * aspect, worldBounds.getHalfHeight());
+            missile.pos.set(world.bounds.getHalfWidth() * world.aspect, world.bounds.getHalfHeight());
             missile.engineTrail.color = new Color(0.6f, 0.6f, 0.8f, 1);
             missile.setMaxHealth(missile.getMaxHealth()*3);
             missile.setMaxThrottle(missile.throttle*1.5f);
             missile.maxRotationSpeed *= 2;
 
-            addObject(missile);
+            world.addObject(missile);
 
             Message msg = new Message("Reinforcements have arrived.", 0);
-            particleObjects.add(msg);
+            world.particleObjects.add(msg);
         }
 
 
 
 
-        planet.update(dt);
+        for (Planet planet : world.planets) {
+            planet.update(dt);
+        }
 
         // Duration.Formatter.ofPattern("hh:mm:ss").format(dur);
 
 
 
-        Duration remaining = Duration.ofSeconds(musicLength - (long)music.getPosition());
+        Duration remaining = Duration.ofSeconds(musicLength - (long)getMissionTime());
 
         //Duration current =   musicDuration.minus( music.getPosition(), ChronoUnit.SECONDS);
         msgEST.text = "EST: " + DurationFormatUtils.formatDuration(remaining.toMillis(), "mm:ss", true);
         msgFuel.text = "FUEL: " + (long)playerShip.fuel;
 
-        if (remaining.getSeconds() <= ENEMY_RESPAWN_TIME/60 * 3 && ENEMIES_COUNT_IN_WAVE_PREVOIUS == ENEMIES_COUNT_IN_WAVE) {
+        if (remaining.getSeconds() <= ENEMY_RESPAWN_TIME/World.BASE_TICK_RATE * 3 && ENEMIES_COUNT_IN_WAVE_PREVOIUS == ENEMIES_COUNT_IN_WAVE) {
             ENEMIES_COUNT_IN_WAVE++;
         }
-        if (remaining.getSeconds() <= ENEMY_RESPAWN_TIME/60 * 2 && ENEMIES_COUNT_IN_WAVE_PREVOIUS == ENEMIES_COUNT_IN_WAVE - 1) {
+        if (remaining.getSeconds() <= ENEMY_RESPAWN_TIME/World.BASE_TICK_RATE * 2 && ENEMIES_COUNT_IN_WAVE_PREVOIUS == ENEMIES_COUNT_IN_WAVE - 1) {
             ENEMIES_COUNT_IN_WAVE++;
         }
-        if (remaining.getSeconds() <= ENEMY_RESPAWN_TIME/60 && ENEMIES_COUNT_IN_WAVE_PREVOIUS == ENEMIES_COUNT_IN_WAVE - 2) {
+        if (remaining.getSeconds() <= ENEMY_RESPAWN_TIME/World.BASE_TICK_RATE && ENEMIES_COUNT_IN_WAVE_PREVOIUS == ENEMIES_COUNT_IN_WAVE - 2) {
             ENEMIES_COUNT_IN_WAVE++;
         }
 
@@ -325,102 +428,85 @@ public class GameScreen extends BaseScreen {
         // spawn new objects
         // -----------------------------------------------------------------------------------------
 
-        // ToDo: check
-        for (GameObject obj: spawningObjects) {
-
-            //  addFirst, if addLast then shells will kill self gunner ship
-            //  when ship have great acceleration
-            gameObjects.addFirst(obj);
+        world.spawnObjects();
 
-
-//            if (obj.type.contains(ObjectType.DRIVEN_OBJECT) ||
-//                    obj.type.contains(ObjectType.FORCE_SHIELD)) { // haack for forceshield
-//                hittableObjects.add(obj);
-//            }
-        }
-        spawningObjects.clear();
-//        hittableObjects.sort((o1, o2) -> -Float.compare(o1.getRadius(), o2.getRadius()));
+        profiler.end(Phase.SPAWN);
 
 
         // -----------------------------------------------------------------------------------------
         // quadTree
         // -----------------------------------------------------------------------------------------
 
-        quadTree.clear();       // NOT SO efficient
-        hittableObjects.clear();
-
-        // add planet to quadTree
-        //quadTree.set(planet.pos.x, planet.pos.y, planet);
-
-        // fill quadTree with gameObjects
-        // fill hittableObjects too
+        profiler.begin(Phase.INDEX);
 
-        // manually add planet to hittableObjects because it's not in gameObjects
-        hittableObjects.add(planet);
+        world.rebuildIndex();
 
-        for (GameObject obj : gameObjects) {
-
-            quadTree.set(obj.pos.x, obj.pos.y, obj);
-
-            //  add to hittableObjects only if it is ship or missile
-            if (obj.type.contains(ObjectType.DRIVEN_OBJECT)) {
-                hittableObjects.add(obj);
-            }
-        }
-
-        // ToDo: check
-        // sort that bigger objects goes first
-        hittableObjects.sort((o1, o2) -> -Float.compare(o1.getRadius(), o2.getRadius()));
+        profiler.end(Phase.INDEX);
 
         // -----------------------------------------------------------------------------------------
-        // update targets for enemy ships
+        // AI jobs (update targets for enemy ships, weapons threat evaluation, missiles retargeting)
         // -----------------------------------------------------------------------------------------
 
-        retargetEnemyShips();
+        profiler.begin(Phase.AI);
+        world.scheduler.run(getTick(), dt);
+        profiler.end(Phase.AI);
 
 
         // -----------------------------------------------------------------------------------------
         // player reticle
         // -----------------------------------------------------------------------------------------
 
-        reticle.setPos(target);
+        reticle.setPos(world.input.cursor);
 
 
 
         // check collision
+        profiler.begin(Phase.COLLISION);
         collisionDetection(dt);
 
 
         // check out of bounds ------------------------------------------------
 
-        for (GameObject obj : gameObjects) {
+        for (GameObject obj : world.gameObjects) {
             // removing player ship
             if (!obj.readyToDispose &&
-                    obj.pos.len() > GameScreen.INSTANCE.worldBounds.getWidth()*2) {
+                    obj.pos.len() > world.bounds.getWidth()*2) {
 
                 obj.readyToDispose = true;
             }
         }
+        profiler.end(Phase.COLLISION);
         // ----------------------------------------------------------------------
 
         // -----------------------------------------------------------------------------------------
         // gameObjects
         // -----------------------------------------------------------------------------------------
 
-        Iterator<GameObject> it = gameObjects.iterator();
+        profiler.begin(Phase.UPDATE);
+
+        // gravity, velocity and position of all moving objects
+        integrateObjects(dt);
+
+        EntityList objects = world.gameObjects;
         GameObject obj;
 
-        while (it.hasNext()) {
+        for (int i = 0; i < objects.rawSize(); i++) {
 
-            obj = it.next();
+            obj = objects.get(i);
 
-            if (!obj.readyToDispose) {
+            if (obj == null) {
+                continue;
+            }
 
+            if (!obj.readyToDispose) {
 
-                // calculate gravitation force from planet
-                applyPlanetGravForce(obj, planet);
+                // independent objects - update later in parallel
+                if (parallelUpdateEnabled && obj.isParallelUpdateSafe()) {
+                    parallelPhase.add(obj);
+                    continue;
+                }
 
-                // update velocity, position, self-guiding, prepare animation, etc
+                // self-guiding, prepare animation, etc
                 obj.update(dt);
 
                 // check wall bouncing
@@ -431,8 +517,8 @@ public class GameScreen extends BaseScreen {
             // add obj to objectsToDelete
             else {
 
-                // removing from gameObjects
-                it.remove();
+                // removing from gameObjects (on compact)
+                objects.markRemoved(i);
 
                 playExplosionSound(obj, null);
 
@@ -440,7 +526,7 @@ public class GameScreen extends BaseScreen {
                 if (!obj.type.contains(ObjectType.PLANET)) {
                     Explosion expl = new Explosion(obj);
                     //particleObjects.add(expl);
-                    explosionObjects.add(expl);
+                    world.explosionObjects.add(expl);
                 }
 
 
@@ -449,14 +535,30 @@ public class GameScreen extends BaseScreen {
                 obj.dispose();
             }
         }
+        objects.compact();
+
+        // parallel update of independent objects
+        parallelPhase.run(o -> {
+
+            o.update(dt);
+            borderBounce(o);
+        });
+
+        profiler.end(Phase.UPDATE);
 
         // -----------------------------------------------------------------------------------------
         // particleObjects
         // -----------------------------------------------------------------------------------------
-        it = particleObjects.iterator();
-        while (it.hasNext()) {
+        profiler.begin(Phase.PARTICLES);
+
+        objects = world.particleObjects;
+        for (int i = 0; i < objects.rawSize(); i++) {
+
+            obj = objects.get(i);
 
-            obj = it.next();
+            if (obj == null) {
+                continue;
+            }
 
             // update velocity, position
             obj.update(dt);
@@ -464,54 +566,82 @@ public class GameScreen extends BaseScreen {
             // add obj to objectsToDelete
             if (obj.readyToDispose) {
                 // removing from particleObjects
-                it.remove();
+                objects.markRemoved(i);
                 obj.dispose();
             }
         }
+        objects.compact();
+
+        profiler.end(Phase.PARTICLES);
 
 
         // -----------------------------------------------------------------------------------------
         // explosionObjects
         // -----------------------------------------------------------------------------------------
-        it = explosionObjects.iterator();
-        while (it.hasNext()) {
+        profiler.begin(Phase.EXPLOSIONS);
+
+        if (parallelUpdateEnabled) {
+
+            for (GameObject o : world.explosionObjects) {
+                parallelPhase.add(o);
+            }
+            parallelPhase.run(o -> o.update(dt));
+        }
+
+        objects = world.explosionObjects;
+        for (int i = 0; i < objects.rawSize(); i++) {
 
-            obj = it.next();
+            obj = objects.get(i);
+
+            if (obj == null) {
+                continue;
+            }
 
             // update velocity, position
-            obj.update(dt);
+            if (!parallelUpdateEnabled) {
+                obj.update(dt);
+            }
 
             // add obj to objectsToDelete
             if (obj.readyToDispose) {
                 // removing from explosionObjects
-                it.remove();
+                objects.markRemoved(i);
                 obj.dispose();
             }
         }
+        objects.compact();
+
+        profiler.end(Phase.EXPLOSIONS);
 
         // -----------------------------------------------------------------------------------------
 
         // increment game tick
-        updateTick();
+        world.updateTick();
 
 
         checkWin();
+
+        profiler.end(Phase.TICK);
+
+        // live game - less AI work per tick if simulation can't keep up
+        if (!isSimulatedClock()) {
+            world.scheduler.adapt(profiler.getLast(Phase.TICK) > profiler.getBudget(Phase.TICK));
+        }
     }
 
 
     @Override
     public void render(float delta) {
 
-        Instant inst = Instant.now();
+        // cursor, keys, screen size - GL thread state, simulation reads only this snapshot
+        liveInput.capture(target, aspect, worldBounds);
 
-        //DEBUG delta
-        float dt = this.isDEBUG() ? 1/60f : delta;
-
-        // perform simulation step
-        update(dt);
-
-        // -----------------------------------------------------------------------------------------
+        // perform simulation steps and record frame (if simulation not running in own thread)
+        if (simulationThread == null) {
 
+            advance(delta);
+            recordFrame();
+        }
 
         // rendering
         //super.render(dt);
@@ -520,18 +650,143 @@ public class GameScreen extends BaseScreen {
         Gdx.gl.glClearColor(0.3f, 0.3f, 0.3f, 1f);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+        // take last published frame (or draw previous one again),
+        // previous one goes back to free buffers first
+        if (publishedFrame.get() != null) {
+
+            if (renderingFrame != null) {
+                freeFrames.offer(renderingFrame);
+            }
+            renderingFrame = publishedFrame.getAndSet(null);
+        }
+
+        if (renderingFrame != null) {
+
+            profiler.begin(Phase.REPLAY);
+            renderer.replay(renderingFrame);
+            profiler.end(Phase.REPLAY);
+        }
+    }
+
+
+    /**
+     * Perform one simulation step (headless mode, no rendering)
+     */
+    public void step() {
+
+        liveInput.capture(target, aspect, worldBounds);
+        update(tickTime);
+    }
+
+
+    /**
+     * Mission clock in seconds - music position,
+     * in headless mode (no audio) or when recording/replaying input - simulated time
+     */
+    private float getMissionTime() {
+
+        return isSimulatedClock() ? getTick() * tickTime : music.getPosition();
+    }
+
+    private boolean isMissionTimeOver() {
+
+        return isSimulatedClock() ? getMissionTime() >= musicLength : !music.isPlaying();
+    }
+
+    private boolean isSimulatedClock() {
+        return headless || inputLog != null || replayLog != null;
+    }
+
+    /**
+     * Input of current tick
+     */
+    public InputState getInput() {
+        return world.input;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Hash of world state (kinematics and health of all objects),
+     * same seed and input should give same checksum
+     */
+    public long getStateChecksum() {
+
+        long result = getTick();
+
+        for (GameObject obj : world.gameObjects) {
+
+            result = 31 * result + Float.floatToIntBits(obj.pos.x);
+            result = 31 * result + Float.floatToIntBits(obj.pos.y);
+            result = 31 * result + Float.floatToIntBits(obj.vel.x);
+            result = 31 * result + Float.floatToIntBits(obj.vel.y);
+            result = 31 * result + Float.floatToIntBits(obj.getHealth());
+        }
+        return result;
+    }
+
+    public boolean isWin() {
+        return win;
+    }
+
+    public boolean isPlayerAlive() {
+        return !playerShip.readyToDispose;
+    }
+
+    public int getObjectCount() {
+        return world.gameObjects.size() + world.particleObjects.size() + world.explosionObjects.size();
+    }
+
+
+    /**
+     * Perform simulation steps for elapsed time
+     * fixed timestep, game speed not depends on frame rate
+     */
+    private void advance(float delta) {
+
+        accumulator += delta;
+
+        int steps = 0;
+        while (accumulator >= tickTime && steps < MAX_CATCH_UP_TICKS) {
+
+            update(tickTime);
+            accumulator -= tickTime;
+            steps++;
+        }
+
+        // can't catch up - drop lagged time (game slows down instead of spiral of death)
+        if (accumulator >= tickTime) {
+            accumulator %= tickTime;
+        }
+    }
+
+
+    /**
+     * Record draw commands of all objects to frame buffer and publish it to renderer
+     */
+    private void recordFrame() {
+
+        recordingFrame.clear();
+        renderer.setBuffer(recordingFrame);
+
 
         // RENDER ALL BATCH TEXTURE OBJECTS ------------------------------------
 
 
+        profiler.begin(Phase.RECORD_TEXTURE);
+
         renderer.rendererType = RendererType.TEXTURE;
 
         renderer.batch.begin();
 
         background.draw(renderer);
 
-        if (!planet.readyToDispose) {
-            planet.draw(renderer);
+        for (Planet planet : world.planets) {
+            if (!planet.readyToDispose) {
+                planet.draw(renderer);
+            }
         }
 
 
@@ -539,69 +794,127 @@ public class GameScreen extends BaseScreen {
         reticle.draw(renderer);
 
         // gameObjects
-        for (GameObject obj : gameObjects) {
+        for (GameObject obj : world.gameObjects) {
             obj.draw(renderer);
         }
 
         renderer.batch.end();
 
+        profiler.end(Phase.RECORD_TEXTURE);
+
         // RENDER ALL SHAPE OBJECTS ------------------------------------
 
+        profiler.begin(Phase.RECORD_SHAPE);
+
         renderer.rendererType = RendererType.SHAPE;
 
         renderer.shape.begin();
 
         // gameObjects
-        for (GameObject obj : gameObjects) {
+        for (GameObject obj : world.gameObjects) {
             obj.draw(renderer);
         }
 
         // particleObjects
-        for (GameObject obj : particleObjects) {
+        for (GameObject obj : world.particleObjects) {
             obj.draw(renderer);
         }
 
         // explosionObjects
-        for (GameObject obj : explosionObjects) {
+        for (GameObject obj : world.explosionObjects) {
             obj.draw(renderer);
         }
 
         renderer.shape.end();
 
+        profiler.end(Phase.RECORD_SHAPE);
+
 
         // RENDER ALL FONT OBJECTS ------------------------------------
 
+        profiler.begin(Phase.RECORD_FONT);
+
         renderer.rendererType = RendererType.FONT;
 
         renderer.batch.begin();
 
         // particleObjects
-        for (GameObject obj : particleObjects) {
+        for (GameObject obj : world.particleObjects) {
             obj.draw(renderer);
         }
 
         renderer.batch.end();
 
+        profiler.end(Phase.RECORD_FONT);
 
 
+        // publish frame, take back not rendered one (or free one)
+        DrawBuffer old = publishedFrame.getAndSet(recordingFrame);
+        recordingFrame = old != null ? old : freeFrames.poll();
 
+        // 4 buffers - never empty, just in case
+        if (recordingFrame == null) {
+            recordingFrame = new DrawBuffer();
+        }
+    }
 
 
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Run simulation in separate thread, GL thread only renders published frames
+     */
+    private void startSimulationThread() {
+
+        simulationRunning = true;
+
+        simulationThread = new Thread(() -> {
+
+            try {
+                long last = System.nanoTime();
+
+                while (simulationRunning) {
+
+                    long now = System.nanoTime();
+                    advance((now - last) / 1e9f);
+                    last = now;
+
+                    recordFrame();
+
+                    // wait for next tick
+                    long sleep = (long)((tickTime - accumulator) * 1000);
+                    if (sleep > 0) {
+                        Thread.sleep(sleep);
+                    }
+                }
+            }
+            catch (InterruptedException ignore) {}
+            catch (Throwable e) {
+                // rethrow on GL thread
+                Gdx.app.postRunnable(() -> {throw new RuntimeException("Simulation thread failed", e);});
+            }
 
-        ;
+        }, "simulation");
 
-        // ---------------------------------------------------------------------------------------
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
 
 
-        Duration du = Duration.between(inst, Instant.now());
+    private void stopSimulationThread() {
 
+        if (simulationThread == null) {
+            return;
+        }
 
-        long milli = du.toMillis();
+        simulationRunning = false;
+        simulationThread.interrupt();
 
-        // data processing (root finding) real-time violation
-        if ( milli > (1/60d)*1000) {
-            System.out.println("TIME ERR >> " + milli);
+        try {
+            simulationThread.join(1000);
         }
+        catch (InterruptedException ignore) {}
     }
 
 
@@ -630,42 +943,71 @@ public class GameScreen extends BaseScreen {
     }
 
     /**
-     * Apply gravity force from planet to obj
-     * @param obj GameObject
-     * @param planet Planet
+     * Apply gravity and force fields, integrate all moving (not module) objects in one batch,
+     * their update() will not integrate again
      */
-    public static void applyPlanetGravForce(GameObject obj, Planet planet) {
+    private void integrateObjects(float dt) {
 
-        if (obj == planet)
-            return;
+        EntityList objects = world.gameObjects;
 
-        // Newton's law of universal gravitation
-        // F = G * m1*m2/r^2;
+        for (int i = 0; i < objects.rawSize(); i++) {
 
-        tmp1s.set(planet.pos).sub(obj.pos);
+            GameObject obj = objects.get(i);
 
-        float G = 2f;
-        //float G = 0f;
+            if (obj != null && !obj.readyToDispose && !obj.isModule) {
+                integrated.add(obj);
+            }
+        }
 
-        float divider = tmp1s.len2();
-        // avoid division by zero 
-        if (divider < 1)
-            divider = 1f;
+        // calculate gravitation force from planets (and massive bodies)
+        if (parallelUpdateEnabled) {
 
-        tmp0s.set(tmp1s.setLength(G*planet.getMass() * obj.getMass()/divider));
-        obj.applyForce(tmp0s);
-    }
+            for (GameObject obj : integrated) {
+                parallelPhase.add(obj);
+            }
+            parallelPhase.run(this::applyGravity);
+        }
+        else {
+            for (GameObject obj : integrated) {
+                applyGravity(obj);
+            }
+        }
+
+        // black holes, shields
+        for (GameObject obj : integrated) {
+            world.forceFields.applyForces(obj, dt);
+        }
+
+        integrator.clear();
+        for (GameObject obj : integrated) {
+            obj.gather(integrator);
+        }
 
+        integrator.step(dt);
 
+        for (int i = 0; i < integrated.size(); i++) {
+            integrated.get(i).scatter(integrator, i);
+        }
+        integrated.clear();
+    }
 
+    /**
+     * Apply gravity force from planets and from massive bodies (mutual gravity mode) to obj
+     */
+    private void applyGravity(GameObject obj) {
 
+        world.gravityField.applyForce(obj);
 
+        if (world.gravity != null) {
+            world.gravity.applyForce(obj);
+        }
+    }
 
 
     private void collisionDetection(float dt) {
 
         // objects with greater radius goes first
-        for(GameObject tgt : hittableObjects) {
+        for(GameObject tgt : world.hittableObjects) {
 
             if (tgt.readyToDispose)
                 continue;
@@ -682,25 +1024,7 @@ public class GameScreen extends BaseScreen {
             y2 = tgt.pos.y + 2.1*tgt.getRadius();
 
 
-            // HAAACK for shield
-            if (tgt == playerShip) {
-
-                PlayerShip plsp = playerShip;
-                x1 = tgt.pos.x - 2.2*plsp.shield.getRadius();
-                x2 = tgt.pos.x + 2.2*plsp.shield.getRadius();
-                y1 = tgt.pos.y - 2.2*plsp.shield.getRadius();
-                y2 = tgt.pos.y + 2.2*plsp.shield.getRadius();
-            }
-
-
-
-
-            List<Point<GameObject>> points = quadTree.searchIntersect2(x1, y1, x2, y2);
-
-            if (points.size() <= 1) {
-                playerShip.shield.targetSet.clear();
-            }
-
+            List<Point<GameObject>> points = world.quadTree.searchIntersect2(x1, y1, x2, y2);
 
             for(int i = 0; i < points.size(); i++) {
 
@@ -713,101 +1037,11 @@ public class GameScreen extends BaseScreen {
 
                 // vector from target to projectile
                 tmp1.set(prj.pos).sub(tgt.pos);
-                tmp4.set(prj.vel).sub(playerShip.vel);
-
-
-                // FORCE SHIELD REPULSING ---------------------------------------------------
-                if (tgt == playerShip &&
-                        (prj.type.contains(ObjectType.PROJECTILE) || prj.type.contains(ObjectType.MISSILE)) &&
-
-
-                        (tmp1.dot(tmp4) < 0  /*|| playerShip.shield.targetSet.contains(prj)*/)
-                    //(prj.owner != tgt || prj.type.contains(ObjectType.FRAG))
-
-
-                ) {
-
-                    PlayerShip plsp = playerShip;
-
-
-                    if (tmp1.len() <= plsp.shield.getRadius() + prj.getRadius()) {
-
-
-                        //plsp.shield.targetSet.add(prj);
-
-                        Vector2 n = tmp3; // vector from target to projectile, normalized
-                        n.set(prj.pos).sub(tgt.pos).nor();
-
-
-                        // Силовое поле щита имеет потенциал Const/r,
-                        // Соответственно сила поля, действующая на prj равна -n*prj.mass*Const*/r^2
-                        // Как гравитационное поле, но со знаком "-"
-                        tmp0.set(n.scl(prj.getMass()*plsp.shield.forceValue * plsp.shield.getRadius()/tmp1.len2()));
-                        n = null;
-
-                        // dA = m*E.dx // dx - ?
-
-                        // dx = (x0=0) + (V0*t=0) + (a*t^2)/2
-
-                        // a = tmp0/m = E
-
-                        tmp3.set(tmp0).scl(1/prj.getMass());  // = E  напряженность поля щита
-
-                        // dA = m * (tmp3)^2 * t^2/2; // работа щита на перемещение prj за dt
-
-                        float dA =  (float)(tmp3.len2() * prj.getMass() * dt*dt*0.5);
-
-                        //System.out.println(dA);
-
-                        // EMP ordinance BLAST
-                        if (prj.isEmpOrdinance) {
-                            //prj.setMass(0.1f);
-
-                            dA += prj.empDamage;
-                            prj.readyToDispose = true;
-
-                        }
-
-
-
-                        //float currentA = Math.min(plsp.shield.power, dA);
-
-                        // Если энергии поля не хватает совершить эту работу (не хватает запасенной энергии)
-                        // то уменьшим силу, действующую на prj/plsp
-                        if (dA > plsp.shield.power) {
-                            tmp0.scl(plsp.shield.power/dA);
-                        }
-
-
-                        // отражаем снаряд
-                        prj.applyForce(tmp0);
-                        // 3 закон Ньютона - отражаем корабль
-                        plsp.applyForce(tmp0.scl(-1));
-
-                        // depleting power shield
-                        plsp.shield.power -= Math.min(plsp.shield.power, dA);
-
-                        //System.out.println(dA);
-
-
-                        // абсолютно неупругое столкновение
-                        // affect impact on target ship
-                        // tmp2.set(prj.vel).scl(prj.getMass() / dt);
-                        // plsp.applyForce(tmp2);
-
-                    }
-                    else {
-                        //plsp.shield.targetSet.remove(prj);
-                    }
-                }
-
-                // END FORCE SHIELD ---------------------------------------------------------------
-
 
 
                 if (tmp1.len() <= tgt.getRadius() + prj.getRadius()) {
 
-                    if (tgt == planet) {
+                    if (tgt.type.contains(ObjectType.PLANET)) {
                         // stop projectile - fallen on planet
                         prj.vel.setZero();
 
@@ -816,7 +1050,7 @@ public class GameScreen extends BaseScreen {
                             ((SmokeTrailList)prj).stop();
                         }
 
-                        planet.hit(prj);
+                        ((Planet)tgt).hit(prj);
                         // destroy projectile (or driven object)
                         prj.readyToDispose = true;
                     }
@@ -940,8 +1174,23 @@ public class GameScreen extends BaseScreen {
     @Override
     public void dispose() {
 
+        stopSimulationThread();
+
+        if (inputLog != null) {
+
+            inputLog.endTick = getTick();
+            inputLog.checksum = getStateChecksum();
+
+            FileHandle file = Gdx.files.local("replay_" + seed + ".log");
+            inputLog.save(file);
+
+            System.out.println("Input recorded: " + file.path() + ", ticks: " + getTick() + ", changes: " + inputLog.size());
+        }
+
         background.dispose();
-        planet.dispose();
+        for (Planet planet : world.planets) {
+            planet.dispose();
+        }
         reticle.dispose();
 
 //        for (GameObject obj : gameObjects) {
@@ -965,6 +1214,10 @@ public class GameScreen extends BaseScreen {
         }
         System.out.println("---------");
 
+        if (world.solverMode == BPU.SolverMode.COMPARE) {
+            System.out.println("\nBPU solver compare: " + world.solverStats.print());
+        }
+
 
         super.dispose();
     }
@@ -998,14 +1251,14 @@ public class GameScreen extends BaseScreen {
 
 
 
-            float x = MathUtils.random(-worldBounds.getHalfWidth() * aspect + 25, worldBounds.getHalfWidth() * aspect - 25);
-            float y = MathUtils.random(-worldBounds.getHalfWidth() + 25, worldBounds.getHalfWidth() - 25);
+            float x = world.spawnRnd.nextFloat(-world.bounds.getHalfWidth() * world.aspect + 25, world.bounds.getHalfWidth() * world.aspect - 25);
+            float y = world.spawnRnd.nextFloat(-world.bounds.getHalfWidth() + 25, world.bounds.getHalfWidth() - 25);
 
             tmp1.set(x,y);
             tmp2.set(tmp1).sub(tmp0);
 
 
-            tmp3.set(tmp1).sub(planet.pos);
+            tmp3.set(tmp1).sub(world.getClosestPlanet(tmp1).pos);
             if (tmp3.len() < 400) {
                 nearCount = 1;
             }
@@ -1013,7 +1266,7 @@ public class GameScreen extends BaseScreen {
 
             dummy = new DummyObject(10,null);
             dummy.pos.set(tmp1);
-            List<GameObject> list = getCloseObjects(dummy, 200);
+            List<GameObject> list = world.getCloseObjects(dummy, 200);
 
 
             list = list.stream().filter(o ->
@@ -1053,7 +1306,7 @@ public class GameScreen extends BaseScreen {
 
             enemyShipsToSpawn--;
 
-            if (ThreadLocalRandom.current().nextFloat() > 0.8) {
+            if (world.spawnRnd.nextFloat() > 0.8) {
 
                 //new NewtonMissile(new TextureRegion(missileTexture), 5, null);
 
@@ -1062,7 +1315,7 @@ public class GameScreen extends BaseScreen {
                 missile.pos = tmp1.cpy();
                 missile.target = playerShip;
                 missile.maxRotationSpeed *= 1.5f;
-                addObject(missile);
+                world.addObject(missile);
 
             }
             else {
@@ -1078,7 +1331,7 @@ public class GameScreen extends BaseScreen {
                 enemyShip.pos = tmp1.cpy();
                 enemyShip.name = "enemyship";
 
-                addObject(enemyShip);
+                world.addObject(enemyShip);
             }
 
         }
@@ -1092,23 +1345,24 @@ public class GameScreen extends BaseScreen {
 
     /**
      * Will add new target to EnmyShips if they didn't have one
+     * @return work done (JobScheduler units) - checked ships and targets
      */
-    private void retargetEnemyShips() {
+    private int retargetEnemyShips() {
 
+        int work = 0;
 
-        for (GameObject obj : hittableObjects) {
+        for (GameObject obj : world.hittableObjects) {
             if (obj.type.contains(ObjectType.ENEMY_SHIP)) {
 
                 EnemyShip ship = (EnemyShip) obj;
 
-                if (ship.target == null) {
+                work++;
 
-                    List<GameObject> targets = GameScreen.getCloseObjects(ship, 2000);
+                if (ship.target == null) {
 
-                    targets.removeIf(t -> (!t.type.contains(ObjectType.SHIP) && !t.type.contains(ObjectType.GRAVITY_REPULSE_MISSILE)) ||
-                            t.readyToDispose ||
-                            t == ship ||
-                            t.owner !=null && t.owner == ship);
+                    List<GameObject> targets = ship.getSensor().getObjects(2000,
+                            Sensor.SHIP | Sensor.GRAVITY_REPULSE_MISSILE, retargetList);
+                    work += targets.size();
 
                     if(targets.size() > 0) {
                         ship.target = targets.get(0);
@@ -1163,6 +1417,7 @@ public class GameScreen extends BaseScreen {
             }
         }
 
+        return work;
     }
 
 
@@ -1180,11 +1435,11 @@ public class GameScreen extends BaseScreen {
             Vector2 n;
 
             // Подстраиваем левую и правую стенки игрового мира(world) под соотношенире сторон устройства
-            float leftBound = worldBounds.getLeft() * aspect;
-            float rightBound = worldBounds.getRight() * aspect;
+            float leftBound = world.bounds.getLeft() * world.aspect;
+            float rightBound = world.bounds.getRight() * world.aspect;
 
-            float upBound = worldBounds.getTop();
-            float downBound = worldBounds.getBottom();
+            float upBound = world.bounds.getTop();
+            float downBound = world.bounds.getBottom();
 
             // -----------------------------------------------------------------------------------------
 
@@ -1270,22 +1525,22 @@ public class GameScreen extends BaseScreen {
         // -----------------------------------------------------------------------------------------
         // game objective completed
         // -----------------------------------------------------------------------------------------
-        if (!playerShip.readyToDispose && !win && !music.isPlaying()) {
+        if (!playerShip.readyToDispose && !win && isMissionTimeOver()) {
 
 
 
             Message msg = new Message("You win", 0);
-            particleObjects.add(msg);
+            world.particleObjects.add(msg);
             //music = null;
 
             // haaaack - make player ship invincible while warp jumping
-            gameObjects.remove(playerShip);
-            hittableObjects.remove(playerShip);
+            world.gameObjects.remove(playerShip);
+            world.hittableObjects.remove(playerShip);
 
-            gameObjects.remove(playerShip.shield);
-            hittableObjects.remove(playerShip.shield);
+            world.gameObjects.remove(playerShip.shield);
+            world.hittableObjects.remove(playerShip.shield);
 
-            particleObjects.add(playerShip);
+            world.particleObjects.add(playerShip);
 
             win = true;
         }
@@ -1316,83 +1571,180 @@ public class GameScreen extends BaseScreen {
     // ---------------------------------------------------------------------------------------------
 
 
-    public static void addObject(GameObject obj) {
+    /**
+     * Load simulation rate and settings of world subsystems (stored in World) from config.ini:
+     * app.tickRate - simulation steps per second (game speed is the same, see World.BASE_TICK_RATE),
+     * app.maxCatchUpTicks - max simulation steps per rendered frame,
+     * app.simulationThread - 1 to run simulation in separate thread,
+     * app.parallelUpdate - 1 to update projectiles and explosions in parallel,
+     * app.nBodyGravity - 1 to enable mutual gravity of massive bodies (black holes, heavy ships),
+     * app.bpuSolver - impact time solver of BPU: quartic, brent or compare (both, accuracy stats on exit),
+     * app.bpuGravity - 1 to correct gun solutions of BPU for gravity of planets,
+     * app.sensorPeriod - ticks between sweeps of ship sensors (1 - every tick),
+     * app.fireControl - 1 to assign targets of player point defence weapons by ship fire control
+     */
+    private void getSimulationRate() {
 
-        INSTANCE.spawningObjects.add(obj);
-    }
+        Properties prop = new Properties();
+        try (InputStream stream = new FileInputStream("config.ini")) {
+            prop.load(stream);
+        }
+        catch (Exception ignore) {}
 
+        try {
+            TICK_RATE = Math.max(1, Integer.parseInt(prop.getProperty("app.tickRate").trim()));
+        }
+        catch (Exception ignore) {}
 
-    public static void addParticleObject(GameObject obj) {
+        try {
+            MAX_CATCH_UP_TICKS = Math.max(1, Integer.parseInt(prop.getProperty("app.maxCatchUpTicks").trim()));
+        }
+        catch (Exception ignore) {}
 
-        INSTANCE.particleObjects.add(obj);
-    }
+        try {
+            simulationThreadEnabled = Integer.parseInt(prop.getProperty("app.simulationThread").trim()) != 0;
+        }
+        catch (Exception ignore) {}
 
-    public static List<GameObject> getHittableObjects() {
-        return INSTANCE.hittableObjects;
-    }
+        try {
+            parallelUpdateEnabled = Integer.parseInt(prop.getProperty("app.parallelUpdate").trim()) != 0;
+        }
+        catch (Exception ignore) {}
+
+        try {
+            if (Integer.parseInt(prop.getProperty("app.nBodyGravity").trim()) != 0) {
+                world.gravity = new NBodyGravity(world.quadTree);
+            }
+        }
+        catch (Exception ignore) {}
 
-    public static GameObject getPlanet() {
+        try {
+            world.solverMode = BPU.SolverMode.valueOf(prop.getProperty("app.bpuSolver").trim().toUpperCase());
+        }
+        catch (Exception ignore) {}
 
-        return INSTANCE.planet;
+        try {
+            world.bpuGravity = Integer.parseInt(prop.getProperty("app.bpuGravity").trim()) != 0;
+        }
+        catch (Exception ignore) {}
 
-    }
+        try {
+            world.sensorPeriod = Math.max(1, Integer.parseInt(prop.getProperty("app.sensorPeriod").trim()));
+        }
+        catch (Exception ignore) {}
 
+        try {
+            world.fireControl = Integer.parseInt(prop.getProperty("app.fireControl").trim()) != 0;
+        }
+        catch (Exception ignore) {}
 
-    public static List<GameObject> getCloseObjects(GameObject target, float radius) {
+        tickTime = 1f / TICK_RATE;
+        world.setTickRate(TICK_RATE);
 
+        profiler.setBudget(Phase.TICK, tickTime * 1000);
+    }
 
-        List<GameObject> result = new ArrayList<>();
+    public int getTickRate() {
+        return TICK_RATE;
+    }
 
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
 
-        double x1,x2,y1,y2;
+    public JobScheduler getScheduler() {
+        return world.scheduler;
+    }
 
-        x1 = target.pos.x - radius;
-        x2 = target.pos.x + radius;
-        y1 = target.pos.y - radius;
-        y2 = target.pos.y + radius;
 
+    /**
+     * Load from config.ini:
+     * app.seed - random seed, 0 - new seed every game,
+     * app.recordInput - 1 to record seed and input to replay_[seed].log on exit
+     * (replay: HeadlessLauncher --replay replay_[seed].log)
+     */
+    private void getReplaySettings() {
+
+        Properties prop = new Properties();
+        try (InputStream stream = new FileInputStream("config.ini")) {
+            prop.load(stream);
+        }
+        catch (Exception ignore) {}
 
-        // https://github.com/varunpant/Quadtree
-        // Примеры как использовать - там же в tests
+        if (replayLog != null) {
+            seed = replayLog.seed;
+        }
+        else {
 
-        List<Point<GameObject>> points = INSTANCE.quadTree.searchIntersect2(x1, y1, x2, y2);
+            try {
+                if (seed == 0) {
+                    seed = Long.parseLong(prop.getProperty("app.seed").trim());
+                }
+            }
+            catch (Exception ignore) {}
 
-        //remove invalid
-        for (Point<GameObject> p : points) {
+            if (seed == 0) {
+                seed = System.nanoTime();
+            }
 
-            if (!p.getValue().readyToDispose){
-                result.add(p.getValue());
+            try {
+                if (Integer.parseInt(prop.getProperty("app.recordInput").trim()) != 0) {
+                    inputLog = new InputLog(seed);
+                }
             }
+            catch (Exception ignore) {}
         }
 
+        world.setSeed(seed);
+    }
 
-        //System.out.println("Before result.sort");
-        result.sort((p1, p2) -> {
-
-            tmp0s.set(p1.pos).sub(target.pos);
-            tmp1s.set(p2.pos).sub(target.pos);
 
-            return Float.compare(tmp0s.len(), tmp1s.len());
+    /**
+     * Create static planets from config.ini:
+     * app.planets - "x,y,size" of each planet separated by ';' (default - one planet in the center),
+     * planet mass is proportional to size^2
+     */
+    private void createPlanets() {
 
-        });
+        Properties prop = new Properties();
+        try (InputStream stream = new FileInputStream("config.ini")) {
+            prop.load(stream);
+        }
+        catch (Exception ignore) {}
 
-        //System.out.println("Sorted.");
+        TextureRegion region = new TextureRegion(new Texture("dune.png"));
 
+        for (String item : prop.getProperty("app.planets", "0,0,100").split(";")) {
 
+            try {
+                String[] values = item.split(",");
+                float size = Float.parseFloat(values[2].trim());
 
-        return result;
-    }
+                Planet planet = new Planet(region, size, null);
+                planet.pos = new Vector2(Float.parseFloat(values[0].trim()), Float.parseFloat(values[1].trim()));
 
+                float mass = planet.getMass() * (size / 100f) * (size / 100f);
+                planet.setMass(mass);
+                planet.setGravityMass(mass);
 
+                world.planets.add(planet);
+            }
+            catch (Exception e) {
+                System.out.println("Invalid planet in config.ini: " + item);
+            }
+        }
 
+        if (world.planets.isEmpty()) {
 
-    public static Renderer getRenderer() {
+            Planet planet = new Planet(region, 100f, null);
+            planet.pos = new Vector2(0, 0);
+            world.planets.add(planet);
+        }
 
-        return INSTANCE.renderer;
+        world.gravityField = new GravityField(world.planets);
     }
 
 
-
     private void getDifficultyLevel() {
         int rank = 1;
         try {
@@ -0,0 +1,246 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.List;
+
+import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.entities.objects.Planet;
+import ru.geekbrains.math.Integrator;
+
+/**
+ * Combined gravity of static planets, sampled on a grid.
+ * <br>
+ * Planets do not move, so their field (acceleration per unit mass) is computed once in build()
+ * and gravity of object is one bilinear lookup, whatever the number of planets.
+ * Near planet surface the field is too steep for interpolation -
+ * in cells around planet (NEAR) interpolated part of this planet is replaced by exact value.
+ * Cells also keep index of near planet - collision with planets without checking all of them.
+ * <br>
+ * Outside of the grid planets are summed exactly.
+ * <br>
+ * Read only after build(), may be used from parallel update.
+ */
+public class GravityField {
+
+    public static final float G = 2f;
+
+    private static final float CELL = 16f;                  // grid step
+    private static final int SIZE = 512;                    // cells per side
+    private static final float ORIGIN = -CELL * SIZE / 2;   // grid covers -4096..4096
+    private static final float NEAR = 8 * CELL;             // exact zone above planet surface
+
+    private final List<Planet> planets;
+
+    private final float[] gx = new float[(SIZE + 1) * (SIZE + 1)];     // samples in grid nodes
+    private final float[] gy = new float[(SIZE + 1) * (SIZE + 1)];
+    private final short[] near = new short[SIZE * SIZE];              // planet index per cell, -1 - none
+
+
+    /**
+     * @param planets static planets (list is kept, call build() after it is changed)
+     */
+    public GravityField(List<Planet> planets) {
+        this.planets = planets;
+        build();
+    }
+
+
+    /**
+     * Sample field of all planets
+     */
+    public void build() {
+
+        for (int j = 0; j <= SIZE; j++) {
+            for (int i = 0; i <= SIZE; i++) {
+
+                float x = ORIGIN + i * CELL;
+                float y = ORIGIN + j * CELL;
+
+                float ax = 0;
+                float ay = 0;
+
+                for (Planet planet : planets) {
+                    ax += fieldX(planet, x, y);
+                    ay += fieldY(planet, x, y);
+                }
+
+                gx[j * (SIZE + 1) + i] = ax;
+                gy[j * (SIZE + 1) + i] = ay;
+            }
+        }
+
+        // near planet for each cell (closest surface if zones overlap)
+        for (int j = 0; j < SIZE; j++) {
+            for (int i = 0; i < SIZE; i++) {
+
+                float x = ORIGIN + (i + 0.5f) * CELL;
+                float y = ORIGIN + (j + 0.5f) * CELL;
+
+                short index = -1;
+                float best = Float.MAX_VALUE;
+
+                for (int p = 0; p < planets.size(); p++) {
+
+                    Planet planet = planets.get(p);
+                    float surface = Vector2.dst(x, y, planet.pos.x, planet.pos.y) - planet.getRadius();
+
+                    // cell center + half diagonal
+                    if (surface < NEAR + CELL && surface < best) {
+                        best = surface;
+                        index = (short)p;
+                    }
+                }
+                near[j * SIZE + i] = index;
+            }
+        }
+    }
+
+
+    /**
+     * Apply gravity force of all planets to obj
+     */
+    public void applyForce(GameObject obj) {
+        lookup(obj.pos.x, obj.pos.y, obj, null);
+    }
+
+    /**
+     * Apply gravity force of all planets to all bodies of batch
+     * @param buf buffer (per thread)
+     */
+    public void applyForces(Integrator batch, Vector2 buf) {
+
+        for (int i = 0; i < batch.size(); i++) {
+
+            lookup(batch.x[i], batch.y[i], null, buf);
+            batch.fx[i] += buf.x * batch.mass[i];
+            batch.fy[i] += buf.y * batch.mass[i];
+        }
+    }
+
+    /**
+     * Gravity acceleration (force per unit mass) at point
+     */
+    public Vector2 getAcceleration(float x, float y, Vector2 out) {
+
+        lookup(x, y, null, out);
+        return out;
+    }
+
+    /**
+     * Planet whose surface is closer than NEAR to point, null if none
+     */
+    public Planet getNearPlanet(float x, float y) {
+
+        int i = (int)Math.floor((x - ORIGIN) / CELL);
+        int j = (int)Math.floor((y - ORIGIN) / CELL);
+
+        if (i >= 0 && j >= 0 && i < SIZE && j < SIZE) {
+
+            int index = near[j * SIZE + i];
+            return index >= 0 ? planets.get(index) : null;
+        }
+
+        // out of grid
+        for (Planet planet : planets) {
+
+            if (Vector2.dst(x, y, planet.pos.x, planet.pos.y) - planet.getRadius() < NEAR) {
+                return planet;
+            }
+        }
+        return null;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Field at (x, y): applied as force to obj or written to out
+     */
+    private void lookup(float x, float y, GameObject obj, Vector2 out) {
+
+        float ax = 0;
+        float ay = 0;
+
+        float fx = (x - ORIGIN) / CELL;
+        float fy = (y - ORIGIN) / CELL;
+
+        if (fx >= 0 && fy >= 0 && fx < SIZE && fy < SIZE) {
+
+            int i = (int)fx;
+            int j = (int)fy;
+            float u = fx - i;
+            float v = fy - j;
+
+            int k = j * (SIZE + 1) + i;
+            ax = lerp(gx[k], gx[k + 1], gx[k + SIZE + 1], gx[k + SIZE + 2], u, v);
+            ay = lerp(gy[k], gy[k + 1], gy[k + SIZE + 1], gy[k + SIZE + 2], u, v);
+
+            int index = near[j * SIZE + i];
+
+            // near surface - interpolated field of this planet replaced by exact one
+            if (index >= 0) {
+
+                Planet planet = planets.get(index);
+
+                float x0 = ORIGIN + i * CELL;
+                float y0 = ORIGIN + j * CELL;
+                float x1 = x0 + CELL;
+                float y1 = y0 + CELL;
+
+                ax += fieldX(planet, x, y) - lerp(fieldX(planet, x0, y0), fieldX(planet, x1, y0),
+                        fieldX(planet, x0, y1), fieldX(planet, x1, y1), u, v);
+                ay += fieldY(planet, x, y) - lerp(fieldY(planet, x0, y0), fieldY(planet, x1, y0),
+                        fieldY(planet, x0, y1), fieldY(planet, x1, y1), u, v);
+            }
+        }
+        else {
+
+            for (Planet planet : planets) {
+                ax += fieldX(planet, x, y);
+                ay += fieldY(planet, x, y);
+            }
+        }
+
+        if (out != null) {
+            out.set(ax, ay);
+        }
+        else {
+            obj.applyForce(ax * obj.getMass(), ay * obj.getMass());
+        }
+    }
+
+
+    private static float lerp(float v00, float v10, float v01, float v11, float u, float v) {
+
+        float bottom = v00 + (v10 - v00) * u;
+        float top = v01 + (v11 - v01) * u;
+        return bottom + (top - bottom) * v;
+    }
+
+
+    // Newton's law of universal gravitation, a = G * m / r^2 (r^2 not less than 1)
+
+    private static float fieldX(Planet planet, float x, float y) {
+
+        float dx = planet.pos.x - x;
+        float dy = planet.pos.y - y;
+        return dx * scale(planet, dx * dx + dy * dy);
+    }
+
+    private static float fieldY(Planet planet, float x, float y) {
+
+        float dx = planet.pos.x - x;
+        float dy = planet.pos.y - y;
+        return dy * scale(planet, dx * dx + dy * dy);
+    }
+
+    private static float scale(Planet planet, float d2) {
+
+        if (d2 == 0) {
+            return 0;
+        }
+        return G * planet.getMass() / Math.max(d2, 1f) / (float)Math.sqrt(d2);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recorded session: random seed and player input.
+ * <br>
+ * Input stored only on change (tick of change + new state), replay of same seed
+ * and same input gives same game (checked by world state checksum at the end).
+ */
+public class InputLog {
+
+    private static final int MAGIC_V1 = 0x53544731;     // STG1 - without world bounds
+    private static final int MAGIC_V2 = 0x53544732;     // STG2 - scroll stored as byte
+    private static final int MAGIC = 0x53544733;        // STG3
+
+    public long seed;
+    public long endTick = -1;       // last recorded tick
+    public long checksum;           // world state checksum on endTick
+
+    private long[] ticks = new long[256];
+    private List<InputState> states = new ArrayList<>();
+
+    private int replayPos = 0;
+
+
+    public InputLog(long seed) {
+        this.seed = seed;
+    }
+
+
+    /**
+     * Record input of tick (stored only if changed)
+     */
+    public void record(long tick, InputState state) {
+
+        int count = states.size();
+
+        if (count > 0 && states.get(count - 1).sameAs(state)) {
+            return;
+        }
+
+        if (count == ticks.length) {
+            ticks = Arrays.copyOf(ticks, count * 2);
+        }
+
+        InputState copy = new InputState();
+        copy.set(state);
+
+        ticks[count] = tick;
+        states.add(copy);
+    }
+
+    /**
+     * Get recorded input of tick, ticks should go in ascending order
+     */
+    public void replay(long tick, InputState out) {
+
+        while (replayPos < states.size() && ticks[replayPos] <= tick) {
+
+            out.set(states.get(replayPos));
+            replayPos++;
+        }
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    public void save(FileHandle file) {
+
+        try (DataOutputStream out = new DataOutputStream(file.write(false, 8192))) {
+
+            out.writeInt(MAGIC);
+            out.writeLong(seed);
+            out.writeLong(endTick);
+            out.writeLong(checksum);
+            out.writeInt(states.size());
+
+            long last = 0;
+            for (int i = 0; i < states.size(); i++) {
+
+                out.writeInt((int)(ticks[i] - last));
+                states.get(i).write(out);
+                last = ticks[i];
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Can't save input log " + file, e);
+        }
+    }
+
+    public static InputLog load(FileHandle file) {
+
+        try (DataInputStream in = new DataInputStream(file.read(8192))) {
+
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V2 && magic != MAGIC_V1) {
+                throw new IOException("not an input log");
+            }
+            int version = magic - MAGIC_V1 + 1;
+
+            InputLog result = new InputLog(in.readLong());
+            result.endTick = in.readLong();
+            result.checksum = in.readLong();
+
+            int count = in.readInt();
+            long tick = 0;
+
+            for (int i = 0; i < count; i++) {
+
+                tick += in.readInt();
+
+                InputState state = new InputState();
+                state.read(in, version);
+                result.record(tick, state);
+            }
+            return result;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Can't load input log " + file, e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.math.Vector2;
+
+import ru.geekbrains.math.Rect;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Player input for one simulation tick.
+ * <br>
+ * Captured from KeyDown / KeyToggle, cursor and screen size on UI (GL) thread to live snapshot,
+ * simulation takes it at the beginning of tick (take()) or reads it from InputLog (replay).
+ * Simulation reads input only from here, never from screen state directly.
+ */
+public class InputState {
+
+    public boolean W, A, S, D;
+    public boolean SPACE, SHIFT, CTRL;
+    public boolean MOUSE0, MOUSE1;
+
+    // flak cannon firing mode toggles
+    public boolean F, G, V;
+
+    public int scrolled;
+
+    public Vector2 cursor = new Vector2();      // cursor in world coordinates
+    public float aspect;                        // screen aspect ratio (world width)
+    public Rect bounds = new Rect();            // world bounds (zero size - not known)
+
+
+    /**
+     * Take current input state (UI thread),
+     * mouse wheel scroll is consumed and summed until snapshot is taken by simulation
+     */
+    public synchronized void capture(Vector2 cursor, float aspect, Rect bounds) {
+
+        W = KeyDown.W;
+        A = KeyDown.A;
+        S = KeyDown.S;
+        D = KeyDown.D;
+        SPACE = KeyDown.SPACE;
+        SHIFT = KeyDown.SHIFT;
+        CTRL = KeyDown.CTRL;
+        MOUSE0 = KeyDown.MOUSE0;
+        MOUSE1 = KeyDown.MOUSE1;
+
+        F = KeyToggle.F;
+        G = KeyToggle.G;
+        V = KeyToggle.V;
+
+        scrolled += KeyDown.SCROLLED;
+        KeyDown.SCROLLED = 0;
+
+        this.cursor.set(cursor);
+        this.aspect = aspect;
+        this.bounds.set(bounds);
+    }
+
+    /**
+     * Copy captured state to out (simulation thread), scroll is passed once
+     */
+    public synchronized void take(InputState out) {
+
+        out.set(this);
+        scrolled = 0;
+    }
+
+
+    public void set(InputState other) {
+
+        setKeys(other.getKeys());
+        scrolled = other.scrolled;
+        cursor.set(other.cursor);
+        aspect = other.aspect;
+        bounds.set(other.bounds);
+    }
+
+    public boolean sameAs(InputState other) {
+
+        return getKeys() == other.getKeys() &&
+                scrolled == other.scrolled &&
+                cursor.x == other.cursor.x &&
+                cursor.y == other.cursor.y &&
+                aspect == other.aspect &&
+                bounds.getLeft() == other.bounds.getLeft() &&
+                bounds.getBottom() == other.bounds.getBottom() &&
+                bounds.getHalfWidth() == other.bounds.getHalfWidth() &&
+                bounds.getHalfHeight() == other.bounds.getHalfHeight();
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Keys packed to bits
+     */
+    private int getKeys() {
+
+        return  (W ? 1 : 0) |
+                (A ? 1 << 1 : 0) |
+                (S ? 1 << 2 : 0) |
+                (D ? 1 << 3 : 0) |
+                (SPACE ? 1 << 4 : 0) |
+                (SHIFT ? 1 << 5 : 0) |
+                (CTRL ? 1 << 6 : 0) |
+                (MOUSE0 ? 1 << 7 : 0) |
+                (MOUSE1 ? 1 << 8 : 0) |
+                (F ? 1 << 9 : 0) |
+                (G ? 1 << 10 : 0) |
+                (V ? 1 << 11 : 0);
+    }
+
+    private void setKeys(int keys) {
+
+        W = (keys & 1) != 0;
+        A = (keys & 1 << 1) != 0;
+        S = (keys & 1 << 2) != 0;
+        D = (keys & 1 << 3) != 0;
+        SPACE = (keys & 1 << 4) != 0;
+        SHIFT = (keys & 1 << 5) != 0;
+        CTRL = (keys & 1 << 6) != 0;
+        MOUSE0 = (keys & 1 << 7) != 0;
+        MOUSE1 = (keys & 1 << 8) != 0;
+        F = (keys & 1 << 9) != 0;
+        G = (keys & 1 << 10) != 0;
+        V = (keys & 1 << 11) != 0;
+    }
+
+
+    void write(DataOutputStream out) throws IOException {
+
+        out.writeShort(getKeys());
+        out.writeInt(scrolled);
+        out.writeFloat(cursor.x);
+        out.writeFloat(cursor.y);
+        out.writeFloat(aspect);
+        out.writeFloat(bounds.getLeft() + bounds.getHalfWidth());
+        out.writeFloat(bounds.getBottom() + bounds.getHalfHeight());
+        out.writeFloat(bounds.getHalfWidth());
+        out.writeFloat(bounds.getHalfHeight());
+    }
+
+    /**
+     * @param version log version: 1 - byte scroll, no world bounds, 2 - byte scroll, 3 - current
+     */
+    void read(DataInputStream in, int version) throws IOException {
+
+        setKeys(in.readShort());
+        scrolled = version < 3 ? in.readByte() : in.readInt();
+        cursor.x = in.readFloat();
+        cursor.y = in.readFloat();
+        aspect = in.readFloat();
+
+        if (version >= 2) {
+            float x = in.readFloat();
+            float y = in.readFloat();
+            bounds.set(new Rect(x, y, in.readFloat(), in.readFloat()));
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package ru.geekbrains.screen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time-sliced scheduler of expensive AI work (threat evaluation, retargeting, group detection).
+ * <br>
+ * Job declares refresh period (or runs on request), deadline and priority,
+ * results are cached by job owner and used on every tick.
+ * Once per tick run() executes due jobs ordered by aged priority
+ * (priority * ticks waited) until tick budget is spent,
+ * the rest wait for next ticks. Job waiting longer than its deadline runs even over budget.
+ * <br>
+ * Budget is measured in work units reported by jobs (simulation steps, checked targets),
+ * not in wall time - schedule does not depend on machine load and replays the same way.
+ * In live game budget is adapted to real tick time, see adapt().
+ * <br>
+ * Simulation thread only.
+ */
+public class JobScheduler {
+
+    /**
+     * Job body
+     */
+    public interface Task {
+
+        /**
+         * @return amount of work done (work units)
+         */
+        int run(float dt);
+    }
+
+
+    public static class Job {
+
+        public int period;          // ticks between runs, 0 - run on request only
+        public int deadline;        // max ticks to wait after job became due
+        public float priority;
+
+        private final Task task;
+        private final long id;      // registration order, tie breaking
+        private final JobScheduler scheduler;
+
+        private long lastRun = -1;      // tick of last run, -1 - never
+        private long requested = -1;    // tick of request, -1 - not requested
+        private boolean cancelled;
+
+        private float score;
+
+        private Job(JobScheduler scheduler, long id, int period, int deadline, float priority, Task task) {
+            this.scheduler = scheduler;
+            this.id = id;
+            this.period = period;
+            this.deadline = deadline;
+            this.priority = priority;
+            this.task = task;
+        }
+
+        /**
+         * Run job as soon as possible (on next ticks)
+         */
+        public void request() {
+
+            if (requested < 0) {
+                requested = scheduler.tick;
+            }
+        }
+
+        public boolean isRequested() {
+            return requested >= 0;
+        }
+
+        /**
+         * Remove job from scheduler (owner disposed)
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public long getLastRun() {
+            return lastRun;
+        }
+
+        /**
+         * Ticks since job became due, -1 if not due
+         */
+        private long waited(long tick) {
+
+            if (lastRun < 0 && period > 0) {
+                return deadline;            // periodic, never run - run now
+            }
+
+            long result = -1;
+
+            if (requested >= 0) {
+                result = tick - requested - 1;
+            }
+
+            if (period > 0) {
+                result = Math.max(result, tick - lastRun - period);
+            }
+            return result;
+        }
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    public int maxBudget = 4000;    // work units per tick
+    public int minBudget = 500;
+    public int budget = maxBudget;
+
+    private List<Job> jobs = new ArrayList<>();
+    private List<Job> registered = new ArrayList<>();   // added since last run
+    private List<Job> due = new ArrayList<>();
+    private long nextId = 0;
+    private long tick = 0;
+
+    // last run stats
+    private int spent;
+    private int runCount;
+    private int deferredCount;
+    private int forcedCount;
+
+
+    /**
+     * @param period ticks between runs, 0 - run on request only (Job.request())
+     * @param deadline max ticks to wait after job became due
+     * @param priority bigger - earlier
+     */
+    public Job register(int period, int deadline, float priority, Task task) {
+
+        Job job = new Job(this, nextId++, period, deadline, priority, task);
+        registered.add(job);
+        return job;
+    }
+
+
+    /**
+     * Execute due jobs within tick budget
+     */
+    public void run(long tick, float dt) {
+
+        // time went back (world reset) - jobs from "future" are due now
+        if (tick < this.tick) {
+            rewind(tick);
+        }
+        this.tick = tick;
+
+        jobs.addAll(registered);
+        registered.clear();
+        jobs.removeIf(j -> j.cancelled);
+
+        spent = 0;
+        runCount = 0;
+        deferredCount = 0;
+        forcedCount = 0;
+
+        // collect due jobs, aged priority
+        due.clear();
+        for (Job job : jobs) {
+
+            long waited = job.waited(tick);
+
+            if (waited >= 0) {
+                job.score = job.priority * (waited + 1);
+                due.add(job);
+            }
+        }
+
+        due.sort((j1, j2) -> {
+            int result = -Float.compare(j1.score, j2.score);
+            return result != 0 ? result : Long.compare(j1.id, j2.id);
+        });
+
+        for (Job job : due) {
+
+            boolean forced = job.waited(tick) >= job.deadline;
+
+            if (spent >= budget && !forced) {
+                deferredCount++;
+                continue;
+            }
+
+            job.lastRun = tick;
+            job.requested = -1;
+
+            spent += job.task.run(dt);
+            runCount++;
+
+            if (forced) {
+                forcedCount++;
+            }
+        }
+        due.clear();
+    }
+
+
+    private void rewind(long tick) {
+
+        for (List<Job> list : Arrays.asList(jobs, registered)) {
+            for (Job job : list) {
+
+                if (job.lastRun > tick) {
+                    job.lastRun = tick - Math.max(job.period, 1);
+                }
+                if (job.requested > tick) {
+                    job.requested = tick - 1;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Adapt budget to real tick time (live game only - makes schedule depend on machine load)
+     * @param overBudget last tick was longer than tick time
+     */
+    public void adapt(boolean overBudget) {
+
+        if (overBudget) {
+            budget = Math.max(minBudget, budget * 3 / 4);
+        }
+        else {
+            budget = Math.min(maxBudget, budget + maxBudget / 20);
+        }
+    }
+
+
+    public int getJobCount() {
+        return jobs.size() + registered.size();
+    }
+
+    /**
+     * Work units spent on last run
+     */
+    public int getSpent() {
+        return spent;
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * Due jobs postponed on last run (out of budget)
+     */
+    public int getDeferredCount() {
+        return deferredCount;
+    }
+
+    /**
+     * Jobs executed over budget on last run (deadline reached)
+     */
+    public int getForcedCount() {
+        return forcedCount;
+    }
+}
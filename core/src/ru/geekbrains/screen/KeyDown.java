@@ -18,6 +18,4 @@ public class  KeyDown {
     public static boolean G = false;
     public static boolean V = false;
     //public static boolean  = false;
-
-    public static boolean SPACE_TRIGGER_ON = true;
 }
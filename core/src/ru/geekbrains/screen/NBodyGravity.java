@@ -0,0 +1,105 @@
+package ru.geekbrains.screen;
+
+import com.github.varunpant.quadtree.Node;
+import com.github.varunpant.quadtree.QuadTree;
+
+import ru.geekbrains.entities.objects.GameObject;
+
+/**
+ * Mutual gravity of massive bodies, Barnes–Hut approximation.
+ * <br>
+ * Sources - objects with getGravityMass() > 0 (black holes, heavy ships),
+ * they attract each other and all other objects.
+ * Mass aggregates (total mass, center of mass) are computed on World.quadTree after index rebuild,
+ * force on object is a tree walk: node far enough (size / distance < theta) acts as one body
+ * in its center of mass, otherwise its children are visited - O(log n) per object instead of O(n).
+ * <br>
+ * Planets are not in quadTree - their gravity is precomputed (GravityField), they stay in place.
+ * <br>
+ * applyForce() only reads the tree, may be called from parallel update.
+ */
+public class NBodyGravity {
+
+    private static final float G = GravityField.G;
+
+    public float theta = 0.5f;              // opening angle, 0 - exact (all sources visited)
+    public float minDistance2 = 1f;         // avoid division by zero
+
+    private final QuadTree<GameObject> tree;
+    private boolean hasSources;
+
+
+    public NBodyGravity(QuadTree<GameObject> tree) {
+        this.tree = tree;
+    }
+
+
+    /**
+     * Compute mass aggregates, should be called after quadTree rebuild
+     */
+    public void update() {
+
+        tree.aggregate(GameObject::getGravityMass);
+        hasSources = tree.getRootNode().getMass() > 0;
+    }
+
+    /**
+     * Apply gravity force of all sources (except obj itself) to obj
+     */
+    public void applyForce(GameObject obj) {
+
+        if (hasSources) {
+            walk(tree.getRootNode(), obj);
+        }
+    }
+
+
+    private void walk(Node<GameObject> node, GameObject obj) {
+
+        switch (node.getNodeType()) {
+
+            case LEAF:
+                if (node.getMass() > 0 && node.getPoint().getValue() != obj) {
+                    pull(node, obj);
+                }
+                break;
+
+            case POINTER:
+                if (node.getMass() <= 0) {
+                    break;
+                }
+
+                double dx = node.getMassX() - obj.pos.x;
+                double dy = node.getMassY() - obj.pos.y;
+                double w = node.getW();
+
+                // far node - as one body
+                if (w * w < theta * theta * (dx * dx + dy * dy)) {
+                    pull(node, obj);
+                    break;
+                }
+
+                walk(node.getNe(), obj);
+                walk(node.getSe(), obj);
+                walk(node.getSw(), obj);
+                walk(node.getNw(), obj);
+                break;
+        }
+    }
+
+
+    /**
+     * Newton's law of universal gravitation, F = G * m1*m2/r^2
+     */
+    private void pull(Node<GameObject> node, GameObject obj) {
+
+        float x = (float)(node.getMassX() - obj.pos.x);
+        float y = (float)(node.getMassY() - obj.pos.y);
+
+        float r2 = Math.max(x * x + y * y, minDistance2);
+        float len = G * (float)node.getMass() * obj.getMass() / r2;
+        float scale = len / (float)Math.sqrt(r2);
+
+        obj.applyForce(x * scale, y * scale);
+    }
+}
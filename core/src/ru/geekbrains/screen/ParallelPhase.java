@@ -0,0 +1,203 @@
+package ru.geekbrains.screen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import ru.geekbrains.entities.objects.GameObject;
+
+/**
+ * Parallel update of independent objects (projectiles, explosions) on fork-join pool.
+ * <br>
+ * Objects are split into fixed size chunks. Cross-object effects made from worker threads
+ * (applyForce to other object, spawning via World.addObject / addParticleObject)
+ * are collected in per-chunk buffers and applied after the phase in chunk order,
+ * so result does not depend on threads count and scheduling.
+ * <br>
+ * Small batches are updated serially on the calling thread.
+ */
+public class ParallelPhase {
+
+    private static final int CHUNK_SIZE = 64;
+
+    // buffer of chunk being updated by current thread, null outside of parallel phase
+    private static final ThreadLocal<Chunk> CURRENT = new ThreadLocal<>();
+
+    public int minParallelSize = 512;    // batches smaller than this are updated serially
+
+    private final World world;
+
+    private GameObject[] objects = new GameObject[256];
+    private int count = 0;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+
+    public ParallelPhase(World world) {
+        this.world = world;
+    }
+
+
+    /**
+     * Add object to batch
+     */
+    public void add(GameObject obj) {
+
+        if (count == objects.length) {
+            objects = Arrays.copyOf(objects, objects.length * 2);
+        }
+        objects[count++] = obj;
+    }
+
+    public int size() {
+        return count;
+    }
+
+
+    /**
+     * Update all added objects and clear batch
+     * @param action update of single object, should change only this object
+     *               (or use applyForce/addObject for others)
+     */
+    public void run(Consumer<GameObject> action) {
+
+        if (count < minParallelSize) {
+
+            for (int i = 0; i < count; i++) {
+                action.accept(objects[i]);
+            }
+        }
+        else {
+
+            int chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            while (chunks.size() < chunkCount) {
+                chunks.add(new Chunk());
+            }
+
+            IntStream.range(0, chunkCount).parallel().forEach(i -> runChunk(chunks.get(i), i, action));
+
+            // apply deferred effects in chunk order
+            for (int i = 0; i < chunkCount; i++) {
+                chunks.get(i).apply(world);
+            }
+        }
+
+        Arrays.fill(objects, 0, count, null);
+        count = 0;
+    }
+
+
+    private void runChunk(Chunk chunk, int index, Consumer<GameObject> action) {
+
+        int from = index * CHUNK_SIZE;
+        int to = Math.min(from + CHUNK_SIZE, count);
+
+        // objects created by worker belong to the same world
+        World previous = World.current();
+        World.setCurrent(world);
+
+        CURRENT.set(chunk);
+        try {
+            for (int i = from; i < to; i++) {
+
+                chunk.current = objects[i];
+                action.accept(objects[i]);
+            }
+        }
+        finally {
+            chunk.current = null;
+            CURRENT.remove();
+            World.setCurrent(previous);
+        }
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Defer force applied to obj from worker thread
+     * @return false if not in parallel phase (or obj is being updated by this thread) - apply force directly
+     */
+    public static boolean deferForce(GameObject obj, float x, float y) {
+
+        Chunk chunk = CURRENT.get();
+
+        if (chunk == null || chunk.current == obj) {
+            return false;
+        }
+
+        chunk.addForce(obj, x, y);
+        return true;
+    }
+
+    /**
+     * Defer spawning from worker thread
+     * @return false if not in parallel phase - spawn directly
+     */
+    public static boolean deferSpawn(GameObject obj, boolean particle) {
+
+        Chunk chunk = CURRENT.get();
+
+        if (chunk == null) {
+            return false;
+        }
+
+        (particle ? chunk.particles : chunk.spawns).add(obj);
+        return true;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * Per-chunk buffer of deferred cross-object effects
+     */
+    private static class Chunk {
+
+        GameObject current;
+
+        List<GameObject> spawns = new ArrayList<>();
+        List<GameObject> particles = new ArrayList<>();
+
+        GameObject[] forceTargets = new GameObject[16];
+        float[] forces = new float[32];
+        int forceCount = 0;
+
+        void addForce(GameObject obj, float x, float y) {
+
+            if (forceCount == forceTargets.length) {
+                forceTargets = Arrays.copyOf(forceTargets, forceCount * 2);
+                forces = Arrays.copyOf(forces, forceCount * 4);
+            }
+
+            forceTargets[forceCount] = obj;
+            forces[2 * forceCount] = x;
+            forces[2 * forceCount + 1] = y;
+            forceCount++;
+        }
+
+        void apply(World world) {
+
+            for (int i = 0; i < forceCount; i++) {
+                forceTargets[i].applyForce(forces[2 * i], forces[2 * i + 1]);
+                forceTargets[i] = null;
+            }
+            forceCount = 0;
+
+            for (GameObject obj : spawns) {
+                world.addObject(obj);
+            }
+            spawns.clear();
+
+            for (GameObject obj : particles) {
+                world.addParticleObject(obj);
+            }
+            particles.clear();
+        }
+    }
+}
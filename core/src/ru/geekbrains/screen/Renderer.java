@@ -2,25 +2,58 @@ package ru.geekbrains.screen;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
 
+/**
+ * Objects draw() through batch and shape recorders into DrawBuffer,
+ * DrawBuffer is replayed on GL thread with spriteBatch and shapeRenderer
+ */
 public class Renderer {
 
-    public SpriteBatch batch;
-    public ShapeRenderer shape;
+    public BatchRecorder batch = new BatchRecorder();
+    public ShapeRecorder shape = new ShapeRecorder();
     public RendererType rendererType;
 
+    private SpriteBatch spriteBatch;
+    private ShapeRenderer shapeRenderer;
+
     public Renderer(SpriteBatch batch, ShapeRenderer shape, RendererType rendererType) {
-        this.batch = batch;
-        this.shape = shape;
+        this.spriteBatch = batch;
+        this.shapeRenderer = shape;
         this.rendererType = rendererType;
+
+        shapeRenderer.setAutoShapeType(true);
+    }
+
+
+    /**
+     * Set buffer to record to
+     */
+    public void setBuffer(DrawBuffer buffer) {
+
+        batch.setBuffer(buffer);
+        shape.setBuffer(buffer);
+    }
+
+    /**
+     * Draw recorded frame (GL thread only)
+     */
+    public void replay(DrawBuffer buffer) {
+
+        buffer.replay(spriteBatch, shapeRenderer);
+    }
+
+    public void setProjectionMatrix(Matrix4 projection) {
+
+        spriteBatch.setProjectionMatrix(projection);
+        shapeRenderer.setProjectionMatrix(projection);
     }
 
-    
 
     public void dispose() {
 
-        batch.dispose();
-        shape.dispose();
+        spriteBatch.dispose();
+        shapeRenderer.dispose();
     }
 
     public void begin() {
@@ -0,0 +1,85 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * ShapeRenderer facade, records shapes to DrawBuffer instead of drawing.
+ * <br>
+ * Current color is captured on each primitive, so getColor() can be modified as in ShapeRenderer.
+ * GL state changes (line width, blending) should go here too, not to Gdx.gl directly.
+ */
+public class ShapeRecorder {
+
+    private DrawBuffer buffer;
+
+    private final Color color = new Color(1, 1, 1, 1);
+
+
+    void setBuffer(DrawBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+
+    public void begin() {
+        buffer.shapeBegin();
+    }
+
+    public void end() {
+        buffer.shapeEnd();
+    }
+
+    public void flush() {
+        buffer.shapeFlush();
+    }
+
+    public void set(ShapeRenderer.ShapeType type) {
+        buffer.shapeType(type);
+    }
+
+
+    public void setColor(Color color) {
+        this.color.set(color);
+    }
+
+    public void setColor(float r, float g, float b, float a) {
+        this.color.set(r, g, b, a);
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+
+    /**
+     * Replacement of Gdx.gl.glLineWidth()
+     */
+    public void setLineWidth(float width) {
+        buffer.lineWidth(width);
+    }
+
+    /**
+     * Replacement of glEnable(GL_BLEND) + glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA)
+     */
+    public void enableBlending() {
+        buffer.blending();
+    }
+
+
+    public void circle(float x, float y, float radius) {
+        buffer.circle(color.r, color.g, color.b, color.a, x, y, radius);
+    }
+
+    public void line(float x1, float y1, float x2, float y2) {
+        buffer.line(color.r, color.g, color.b, color.a, x1, y1, x2, y2);
+    }
+
+    public void line(Vector2 v0, Vector2 v1) {
+        line(v0.x, v0.y, v1.x, v1.y);
+    }
+
+    public void point(float x, float y, float z) {
+        buffer.point(color.r, color.g, color.b, color.a, x, y, z);
+    }
+}
@@ -0,0 +1,197 @@
+package ru.geekbrains.screen;
+
+import java.util.Arrays;
+
+/**
+ * Per-phase timing of simulation tick and rendering.
+ * <br>
+ * begin(phase) / end(phase) around each phase, last HISTORY samples of each phase
+ * are kept in ring buffer (p50 / p99 / max on request).
+ * Phase exceeding its budget is logged (not more often than once per second for each phase).
+ * <br>
+ * Each phase should be measured by one thread only (simulation phases - simulation thread,
+ * REPLAY - GL thread), statistics may be read from any thread (approximate values).
+ */
+public class TickProfiler {
+
+    public enum Phase {
+
+        TICK(16f),              // whole simulation step
+        SPAWN(1f),              // input, enemy waves, spawning
+        INDEX(2f),              // quadTree, hittableObjects rebuild
+        AI(2f),                 // scheduled AI jobs (retargeting, threat evaluation)
+        COLLISION(6f),          // collision detection, out of bounds
+        UPDATE(6f),             // gameObjects update (serial + parallel)
+        PARTICLES(1f),          // particleObjects update
+        EXPLOSIONS(1f),         // explosionObjects update
+        RECORD_TEXTURE(2f),     // render passes, recording of draw commands
+        RECORD_SHAPE(4f),
+        RECORD_FONT(1f),
+        REPLAY(8f);             // drawing of recorded frame (GL thread)
+
+        final float defaultBudget;  // ms
+
+        Phase(float defaultBudget) {
+            this.defaultBudget = defaultBudget;
+        }
+    }
+
+    private static final int HISTORY = 512;                    // samples per phase
+    private static final long LOG_INTERVAL = 1_000_000_000L;   // ns, min interval between logs of phase
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] start = new long[PHASES.length];
+    private final long[][] samples = new long[PHASES.length][HISTORY];
+    private final long[] count = new long[PHASES.length];        // total samples
+    private final long[] budget = new long[PHASES.length];       // ns
+    private final long[] violations = new long[PHASES.length];   // total over budget
+    private final long[] lastLog = new long[PHASES.length];
+    private final long[] notLogged = new long[PHASES.length];    // violations since last log
+
+    public boolean enabled = true;
+    public boolean logViolations = true;
+
+
+    public TickProfiler() {
+
+        for (Phase phase : PHASES) {
+            budget[phase.ordinal()] = (long)(phase.defaultBudget * 1_000_000);
+        }
+    }
+
+
+    public void begin(Phase phase) {
+
+        if (enabled) {
+            start[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public void end(Phase phase) {
+
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        int i = phase.ordinal();
+        long time = now - start[i];
+
+        samples[i][(int)(count[i] % HISTORY)] = time;
+        count[i]++;
+
+        if (time > budget[i]) {
+
+            violations[i]++;
+            notLogged[i]++;
+
+            if (logViolations && now - lastLog[i] >= LOG_INTERVAL) {
+
+                System.out.println(String.format("TIME ERR >> %s %.2f ms (budget %.2f ms, %d times)",
+                        phase, time / 1e6, budget[i] / 1e6, notLogged[i]));
+
+                lastLog[i] = now;
+                notLogged[i] = 0;
+            }
+        }
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    /**
+     * @param ms max phase duration
+     */
+    public void setBudget(Phase phase, float ms) {
+        budget[phase.ordinal()] = (long)(ms * 1_000_000);
+    }
+
+    public float getBudget(Phase phase) {
+        return budget[phase.ordinal()] / 1e6f;
+    }
+
+    public long getViolations(Phase phase) {
+        return violations[phase.ordinal()];
+    }
+
+    public long getCount(Phase phase) {
+        return count[phase.ordinal()];
+    }
+
+    /**
+     * Last measured duration, ms
+     */
+    public float getLast(Phase phase) {
+
+        int i = phase.ordinal();
+        return count[i] == 0 ? 0 : samples[i][(int)((count[i] - 1) % HISTORY)] / 1e6f;
+    }
+
+    /**
+     * Percentile of recent samples, ms
+     * @param p 0..1
+     */
+    public float getPercentile(Phase phase, float p) {
+
+        long[] sorted = recent(phase);
+
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int)Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6f;
+    }
+
+    public float getP50(Phase phase) {
+        return getPercentile(phase, 0.5f);
+    }
+
+    public float getP99(Phase phase) {
+        return getPercentile(phase, 0.99f);
+    }
+
+    /**
+     * Max of recent samples, ms
+     */
+    public float getMax(Phase phase) {
+
+        long result = 0;
+        for (long t : recent(phase)) {
+            result = Math.max(result, t);
+        }
+        return result / 1e6f;
+    }
+
+
+    /**
+     * Table of all measured phases
+     */
+    public String report() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %8s %8s %8s %8s %8s%n", "phase", "p50", "p99", "max", "budget", "over"));
+
+        for (Phase phase : PHASES) {
+
+            if (getCount(phase) == 0) {
+                continue;
+            }
+
+            sb.append(String.format("%-16s %8.3f %8.3f %8.3f %8.2f %8d%n", phase,
+                    getP50(phase), getP99(phase), getMax(phase), getBudget(phase), getViolations(phase)));
+        }
+        return sb.toString();
+    }
+
+
+    private long[] recent(Phase phase) {
+
+        int i = phase.ordinal();
+        int n = (int)Math.min(count[i], HISTORY);
+        return Arrays.copyOf(samples[i], n);
+    }
+}
@@ -0,0 +1,316 @@
+package ru.geekbrains.screen;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.varunpant.quadtree.Point;
+import com.github.varunpant.quadtree.QuadTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.geekbrains.entities.equipment.BPU;
+import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.entities.objects.ObjectType;
+import ru.geekbrains.entities.objects.Planet;
+import ru.geekbrains.math.Rect;
+import ru.geekbrains.math.Rnd;
+
+/**
+ * Simulation state: tick counter, object lists, spawn queue, spatial index, planets,
+ * force fields, random streams, input of current tick, AI scheduler and settings of subsystems.
+ * <br>
+ * Objects take World from owner (or from World.current() if no owner) on creation,
+ * so several independent worlds may be simulated in one JVM, each in own thread.
+ * World.current() is set by GameScreen while world is created and updated.
+ */
+public class World {
+
+    private static final ThreadLocal<World> CURRENT = new ThreadLocal<>();
+
+    // timers (TTL, fire rate, respawn) and per-tick rates (rotation, cooling, impulses) of objects
+    // are given in ticks of 60 Hz - game time, app.tickRate changes only step of simulation
+    public static final int BASE_TICK_RATE = 60;
+    public static final float BASE_TICK_TIME = 1f / BASE_TICK_RATE;
+
+    long tick = 0;
+
+    private int tickRate = BASE_TICK_RATE;
+    private float tickScale = 1;        // base ticks per simulation tick
+
+    public List<Planet> planets = new ArrayList<>();   // static planets
+
+    public GravityField gravityField;                   // sampled gravity of planets
+
+    public Rect bounds;     // world coordinates (own copy, set from input every tick)
+    public float aspect;    // screen aspect ratio, world width = bounds.width * aspect
+
+    // object lists, stable order (see EntityList)
+    EntityList spawningObjects = new EntityList();  // objects to spawn (in order of spawning - replay)
+
+    EntityList gameObjects = new EntityList();      // spawned objects of tick go first
+
+    EntityList particleObjects = new EntityList();
+
+    EntityList explosionObjects = new EntityList();
+
+    // Список объектов, по которым можно попадать снарядами
+    // Используется в quadTree в качестве целей, отсортирован по убыванию радиуса
+    ArrayList<GameObject> hittableObjects = new ArrayList<>();
+
+    QuadTree<GameObject> quadTree = new QuadTree<>(-8000,-8000,8000,8000);
+
+    // mutual gravity of massive bodies on quadTree, null - planet gravity only
+    public NBodyGravity gravity;
+
+    // black holes, shields
+    public final ForceFields forceFields = new ForceFields();
+
+    // random streams of subsystems
+    public final Rnd spawnRnd = new Rnd(1);         // enemy waves, spawn points
+    public final Rnd weaponRnd = new Rnd(2);        // gun drift, launchers
+    public final Rnd projectileRnd = new Rnd(3);    // fragments, shells, missiles
+
+    // player input of current tick
+    InputState input = new InputState();
+
+    // settings of subsystems (config.ini, see GameScreen), set before objects are created
+    public BPU.SolverMode solverMode = BPU.SolverMode.QUARTIC;     // app.bpuSolver
+    public boolean bpuGravity = true;       // app.bpuGravity - gun solutions corrected for gravity of planets
+    public int sensorPeriod = 1;            // app.sensorPeriod
+    public boolean fireControl = true;      // app.fireControl
+
+    public final BPU.SolverStats solverStats = new BPU.SolverStats();
+
+    // expensive AI work spread over ticks
+    JobScheduler scheduler = new JobScheduler();
+
+
+    /**
+     * World of objects being created / updated by this thread
+     */
+    public static World current() {
+        return CURRENT.get();
+    }
+
+    static void setCurrent(World world) {
+        CURRENT.set(world);
+    }
+
+
+    public long getTick() {
+        return tick;
+    }
+
+    public void updateTick() {
+        tick++;
+    }
+
+    /**
+     * Game time in base ticks (1/60 s) - birth, age and timers of objects count it
+     */
+    public long getTime() {
+        return tick * BASE_TICK_RATE / tickRate;
+    }
+
+    /**
+     * True on ticks game time reaches next multiple of period (once per period for any tick rate)
+     */
+    public boolean every(long period) {
+        return Math.floorDiv(getTime(), period) != Math.floorDiv(Math.floorDiv((tick - 1) * BASE_TICK_RATE, tickRate), period);
+    }
+
+    /**
+     * Rate given per base tick (rotation speed, cooling, one tick impulse) for step of simulation
+     */
+    public float perTick(float rate) {
+        return rate * tickScale;
+    }
+
+    public double perTick(double rate) {
+        return rate * tickScale;
+    }
+
+    public void setTickRate(int tickRate) {
+        this.tickRate = tickRate;
+        tickScale = BASE_TICK_RATE / (float) tickRate;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    public void addObject(GameObject obj) {
+
+        // spawned from parallel update - add later
+        if (ParallelPhase.deferSpawn(obj, false)) {
+            return;
+        }
+
+        spawningObjects.add(obj);
+    }
+
+
+    public void addParticleObject(GameObject obj) {
+
+        if (ParallelPhase.deferSpawn(obj, true)) {
+            return;
+        }
+
+        particleObjects.add(obj);
+    }
+
+
+    /**
+     * Move spawned objects to gameObjects
+     */
+    void spawnObjects() {
+
+        //  addFirst, if addLast then shells will kill self gunner ship
+        //  when ship have great acceleration
+        gameObjects.insertFirst(spawningObjects);
+        spawningObjects.clear();
+    }
+
+
+    /**
+     * Rebuild quadTree, hittableObjects, gravity mass aggregates and force fields index
+     */
+    void rebuildIndex() {
+
+        quadTree.clear();       // NOT SO efficient
+        hittableObjects.clear();
+
+        // manually add planets to hittableObjects because they are not in gameObjects
+        hittableObjects.addAll(planets);
+
+        for (GameObject obj : gameObjects) {
+
+            quadTree.set(obj.pos.x, obj.pos.y, obj);
+
+            //  add to hittableObjects only if it is ship or missile
+            if (obj.type.contains(ObjectType.DRIVEN_OBJECT)) {
+                hittableObjects.add(obj);
+            }
+        }
+
+        // sort that bigger objects goes first
+        hittableObjects.sort((o1, o2) -> -Float.compare(o1.getRadius(), o2.getRadius()));
+
+        if (gravity != null) {
+            gravity.update();
+        }
+
+        forceFields.update(getTime());
+    }
+
+
+    /**
+     * Planet closest to point (by surface)
+     */
+    public Planet getClosestPlanet(Vector2 pos) {
+
+        Planet result = null;
+        float best = Float.MAX_VALUE;
+
+        for (Planet planet : planets) {
+
+            float dist = planet.pos.dst(pos) - planet.getRadius();
+            if (dist < best) {
+                best = dist;
+                result = planet;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Planet obj has fallen on, null if none
+     */
+    public Planet getPlanetHit(GameObject obj) {
+        return getPlanetHit(obj.pos.x, obj.pos.y, obj.getRadius());
+    }
+
+    /**
+     * Planet body of radius at (x, y) has fallen on, null if none
+     */
+    public Planet getPlanetHit(float x, float y, float radius) {
+
+        Planet planet = gravityField.getNearPlanet(x, y);
+
+        if (planet != null && planet.pos.dst(x, y) <= planet.getRadius() + radius) {
+            return planet;
+        }
+        return null;
+    }
+
+
+    public List<GameObject> getHittableObjects() {
+        return hittableObjects;
+    }
+
+    /**
+     * Objects in square around target, sorted by distance to target
+     */
+    public List<GameObject> getCloseObjects(GameObject target, float radius) {
+
+        List<GameObject> result = new ArrayList<>();
+
+        double x1,x2,y1,y2;
+
+        x1 = target.pos.x - radius;
+        x2 = target.pos.x + radius;
+        y1 = target.pos.y - radius;
+        y2 = target.pos.y + radius;
+
+
+        // https://github.com/varunpant/Quadtree
+        // Примеры как использовать - там же в tests
+
+        List<Point<GameObject>> points = quadTree.searchIntersect2(x1, y1, x2, y2);
+
+        //remove invalid
+        for (Point<GameObject> p : points) {
+
+            if (!p.getValue().readyToDispose){
+                result.add(p.getValue());
+            }
+        }
+
+        result.sort((p1, p2) -> Float.compare(p1.pos.dst(target.pos), p2.pos.dst(target.pos)));
+
+        return result;
+    }
+
+
+    /**
+     * Objects in box with their positions in index (positions at last rebuildIndex)
+     */
+    public List<Point<GameObject>> getIndexPoints(float x1, float y1, float x2, float y2) {
+        return quadTree.searchIntersect2(x1, y1, x2, y2);
+    }
+
+
+    // ---------------------------------------------------------------------------------------------
+
+
+    public InputState getInput() {
+        return input;
+    }
+
+    public JobScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Reseed all random streams
+     */
+    public void setSeed(long seed) {
+
+        spawnRnd.setSeed(seed);
+        weaponRnd.setSeed(seed);
+        projectileRnd.setSeed(seed);
+    }
+}
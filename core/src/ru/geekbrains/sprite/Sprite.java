@@ -1,11 +1,12 @@
 package ru.geekbrains.sprite;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 
 import ru.geekbrains.math.Rect;
+import ru.geekbrains.screen.BatchRecorder;
 import ru.geekbrains.screen.Renderer;
 
 public class Sprite extends Rect {
@@ -40,7 +41,7 @@ public class Sprite extends Rect {
 
     public void draw(Renderer renderer) {
 
-        SpriteBatch sprite = renderer.batch;
+        BatchRecorder sprite = renderer.batch;
 
         sprite.draw(
                 textureList[frame],
@@ -100,7 +101,15 @@ public class Sprite extends Rect {
      * Linear filter
      */
     public void setFilter() {
-        textureList[frame].getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+
+        final Texture texture = textureList[frame].getTexture();
+
+        // sprites are created by simulation (may be not GL thread) - change filter only once, on GL thread
+        if (texture.getMinFilter() != Texture.TextureFilter.Linear ||
+            texture.getMagFilter() != Texture.TextureFilter.Linear) {
+
+            Gdx.app.postRunnable(() -> texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear));
+        }
     }
 
     public void dispose() {
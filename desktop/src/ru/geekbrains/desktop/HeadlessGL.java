@@ -0,0 +1,42 @@
+package ru.geekbrains.desktop;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * No-op OpenGL for headless mode.
+ * Textures and fonts still can be created (pixmaps are decoded, uploading does nothing),
+ * all GL calls return default values (0, false, null).
+ */
+class HeadlessGL {
+
+	static GL20 create() {
+
+		return (GL20) Proxy.newProxyInstance(
+			HeadlessGL.class.getClassLoader(),
+			new Class<?>[] {GL20.class, GL30.class},
+			(proxy, method, args) -> {
+
+				Class<?> type = method.getReturnType();
+
+				if (type == boolean.class) {
+					return false;
+				}
+				if (type == int.class) {
+					return 0;
+				}
+				if (type == long.class) {
+					return 0L;
+				}
+				if (type == float.class) {
+					return 0f;
+				}
+				if (type == String.class) {
+					return "";
+				}
+				return null;
+			});
+	}
+}
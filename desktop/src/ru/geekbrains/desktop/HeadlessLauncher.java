@@ -0,0 +1,210 @@
+package ru.geekbrains.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ru.geekbrains.screen.GameScreen;
+import ru.geekbrains.screen.InputLog;
+
+/**
+ * Simulation without window, GL rendering and audio.
+ * Runs GameScreen update loop as fast as possible for specified number of ticks
+ * (benchmarks, soak tests, AI tuning).
+ * <br>
+ * Usage: HeadlessLauncher [ticks], working dir - android/assets
+ * <br>
+ * Replay of recorded session (app.recordInput in config.ini):
+ * HeadlessLauncher --replay replay_[seed].log - runs recorded ticks with recorded seed and input
+ * and compares final world state checksum.
+ * <br>
+ * Batch of independent worlds (seeds 1..N), each simulated in own thread:
+ * HeadlessLauncher --worlds N [ticks]
+ * <br>
+ * Stress scenario - big enemy waves, player ship survives (many missiles for point defence):
+ * HeadlessLauncher --stress [ticks]
+ * <br>
+ * Offline checks of solvers against reference implementations (see SelfCheck), no simulation:
+ * HeadlessLauncher --selfcheck
+ */
+public class HeadlessLauncher {
+
+	private static final int DEFAULT_TICKS = 60 * 60 * 5;   // whole mission
+
+
+	public static void main (String[] arg) {
+
+		if (arg.length > 0 && arg[0].equals("--selfcheck")) {
+			System.exit(SelfCheck.run() ? 0 : 1);
+		}
+
+		final InputLog replay;
+		final long ticks;
+		final int worlds;
+		final boolean stress;
+
+		if (arg.length > 1 && arg[0].equals("--replay")) {
+			replay = InputLog.load(new FileHandle(arg[1]));
+			ticks = replay.endTick;
+			worlds = 0;
+			stress = false;
+		}
+		else if (arg.length > 1 && arg[0].equals("--worlds")) {
+			replay = null;
+			worlds = Integer.parseInt(arg[1]);
+			ticks = arg.length > 2 ? Integer.parseInt(arg[2]) : DEFAULT_TICKS;
+			stress = false;
+		}
+		else if (arg.length > 0 && arg[0].equals("--stress")) {
+			replay = null;
+			ticks = arg.length > 1 ? Integer.parseInt(arg[1]) : DEFAULT_TICKS;
+			worlds = 0;
+			stress = true;
+		}
+		else {
+			replay = null;
+			ticks = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_TICKS;
+			worlds = 0;
+			stress = false;
+		}
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = 0;  // no frame limit
+
+		Gdx.gl = Gdx.gl20 = HeadlessGL.create();
+
+		new HeadlessApplication(new ApplicationAdapter() {
+
+			GameScreen screen;
+			long start;
+			boolean done;
+
+			@Override
+			public void create() {
+
+				if (worlds > 0) {
+					runWorlds(worlds, ticks);
+					done = true;
+					Gdx.app.exit();
+					return;
+				}
+
+				screen = new GameScreen(true, replay);
+				screen.setStress(stress);
+				screen.show();
+				start = System.nanoTime();
+			}
+
+			@Override
+			public void render() {
+
+				if (done) {
+					return;
+				}
+
+				screen.step();
+
+				if (screen.getTick() >= ticks) {
+
+					done = true;
+
+					double seconds = (System.nanoTime() - start) / 1e9;
+
+					System.out.println("\nHeadless run: ----------");
+					System.out.println("ticks: " + screen.getTick());
+					System.out.println("time: " + String.format("%.2f", seconds) + " s");
+					System.out.println("ticks/s: " + String.format("%.1f", screen.getTick() / seconds));
+					System.out.println("objects: " + screen.getObjectCount());
+					System.out.println("player alive: " + screen.isPlayerAlive() + ", win: " + screen.isWin());
+					System.out.println("seed: " + screen.getSeed() + ", checksum: " + screen.getStateChecksum());
+
+					if (replay != null) {
+						System.out.println("replay: " + (screen.getStateChecksum() == replay.checksum ? "OK" : "MISMATCH, expected " + replay.checksum));
+					}
+					System.out.println("---------");
+					System.out.print(screen.getProfiler().report());
+
+					Gdx.app.exit();
+				}
+			}
+
+			@Override
+			public void dispose() {
+
+				if (screen != null) {
+					screen.dispose();
+				}
+			}
+
+		}, config);
+	}
+
+
+	/**
+	 * Simulate worlds with seeds 1..count in parallel, print result of each world
+	 */
+	private static void runWorlds(int count, long ticks) {
+
+		// assets loading and world creation - on this thread
+		List<GameScreen> screens = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+
+			GameScreen screen = new GameScreen(true, i);
+			screen.show();
+			screens.add(screen);
+		}
+
+		long start = System.nanoTime();
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		List<Future<?>> results = new ArrayList<>();
+
+		for (GameScreen screen : screens) {
+
+			results.add(executor.submit(() -> {
+				while (screen.getTick() < ticks) {
+					screen.step();
+				}
+			}));
+		}
+
+		try {
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("\nHeadless batch: ----------");
+		System.out.println("worlds: " + count + ", ticks: " + ticks);
+		System.out.println("time: " + String.format("%.2f", seconds) + " s");
+		System.out.println("ticks/s: " + String.format("%.1f", count * ticks / seconds));
+
+		for (GameScreen screen : screens) {
+
+			System.out.println("seed: " + screen.getSeed() + ", checksum: " + screen.getStateChecksum() +
+					", objects: " + screen.getObjectCount() +
+					", player alive: " + screen.isPlayerAlive() + ", win: " + screen.isWin());
+		}
+		System.out.println("---------");
+
+		for (GameScreen screen : screens) {
+			screen.dispose();
+		}
+	}
+}
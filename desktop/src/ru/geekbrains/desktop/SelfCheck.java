@@ -0,0 +1,606 @@
+package ru.geekbrains.desktop;
+
+import org.apache.commons.math3.analysis.UnivariateFunction;
+import org.apache.commons.math3.analysis.solvers.BrentSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import ru.geekbrains.entities.equipment.FireControl;
+import ru.geekbrains.entities.objects.DummyObject;
+import ru.geekbrains.entities.objects.GameObject;
+import ru.geekbrains.entities.objects.ObjectType;
+import ru.geekbrains.math.IndexHeap;
+import ru.geekbrains.math.QuarticSolver;
+
+/**
+ * Offline checks of solvers and allocators against slow reference implementations
+ * on random cases with fixed seeds (no GL, no assets).
+ * <br>
+ * Usage: HeadlessLauncher --selfcheck, exit code 1 if some check failed.
+ */
+class SelfCheck {
+
+	private static final int MAX_REPORTED = 5;     // errors printed per check
+	private static final double MIN_COVERAGE = 0.98;   // engaged targets / maximum, fire control
+
+	private int failures;
+
+
+	static boolean run() {
+
+		SelfCheck check = new SelfCheck();
+		boolean ok = true;
+
+		ok &= check.report("quartic solver", check.quarticSolver());
+		ok &= check.report("fire control", check.fireControl());
+		ok &= check.report("index heap", check.indexHeap());
+
+		System.out.println("self check: " + (ok ? "OK" : "FAILED"));
+		return ok;
+	}
+
+
+	private boolean report(String name, int cases) {
+
+		System.out.println(name + ": " + (failures == 0 ? "OK" : "FAILED, " + failures + " errors") + ", " + cases + " cases");
+
+		boolean result = failures == 0;
+		failures = 0;
+		return result;
+	}
+
+	private void fail(String message) {
+
+		if (failures++ < MAX_REPORTED) {
+			System.out.println("  " + message);
+		}
+	}
+
+
+	// QuarticSolver -------------------------------------------------------------------------------
+
+
+	private int quarticSolver() {
+
+		Random rnd = new Random(1);
+		double[] roots = new double[4];
+		double[] known = new double[4];
+		int cases = 0;
+
+		// polynomials from known roots: a * (t - r0) * ... , degree 1..4,
+		// degree 4 and 2 also with complex pair instead of two real roots
+		for (int i = 0; i < 50000; i++, cases++) {
+
+			int degree = 1 + i % 4;
+			boolean complex = degree % 2 == 0 && rnd.nextBoolean();
+
+			double[] k = {rnd.nextBoolean() ? 1 : -1};
+			k[0] *= Math.pow(10, rnd.nextDouble() * 6 - 3);
+
+			int real = complex ? degree - 2 : degree;
+			for (int j = 0; j < real; j++) {
+
+				// separated roots - multiple ones are not accurate in double
+				do {
+					known[j] = (rnd.nextDouble() - 0.3) * 40;
+				}
+				while (tooClose(known, j));
+
+				k = multiply(k, new double[] {1, -known[j]});
+			}
+			if (complex) {
+				double re = (rnd.nextDouble() - 0.5) * 40;
+				double im = 0.1 + rnd.nextDouble() * 10;
+				k = multiply(k, new double[] {1, -2 * re, re * re + im * im});
+			}
+
+			double max = rnd.nextDouble() * 30;
+			double expected = Double.NaN;
+			for (int j = 0; j < real; j++) {
+				if (known[j] > 0 && known[j] <= max && !(known[j] >= expected)) {
+					expected = known[j];
+				}
+			}
+
+			// leading zeros - lower degree equation
+			double[] c = new double[5];
+			System.arraycopy(k, 0, c, 5 - k.length, k.length);
+
+			double t = QuarticSolver.smallestPositiveRoot(c[0], c[1], c[2], c[3], c[4], max, roots);
+
+			if (Double.isNaN(expected)) {
+				// root near max may go either side
+				if (!Double.isNaN(t) && !(Math.abs(t - max) < 1e-6 * Math.max(1, max))) {
+					fail("degree " + degree + ": " + Arrays.toString(c) + " max " + max +
+							", no root expected, got " + t);
+				}
+			}
+			else if (!(Math.abs(t - expected) < 1e-6 * Math.max(1, expected)) &&
+					!(Double.isNaN(t) && Math.abs(expected - max) < 1e-6 * Math.max(1, max))) {
+				fail("degree " + degree + ": " + Arrays.toString(c) + " max " + max +
+						", expected " + expected + ", got " + t);
+			}
+		}
+
+		// gun aim polynomial (BPU.AimFunctionGun) against Brent on sign change brackets (old BPU solver)
+		BrentSolver brent = new BrentSolver(1e-10, 1e-8);
+		final double[] k = new double[5];
+		UnivariateFunction f = t -> (((k[0] * t + k[1]) * t + k[2]) * t + k[3]) * t + k[4];
+
+		float dt = 1 / 60f;
+		int brackets = 100;
+		double step = dt * 10;
+
+		for (int i = 0; i < 50000; i++, cases++) {
+
+			double rx = rnd.nextGaussian() * 500;
+			double ry = rnd.nextGaussian() * 500;
+			double vx = rnd.nextGaussian() * 100;
+			double vy = rnd.nextGaussian() * 100;
+			double ax = i % 2 == 0 ? 0 : rnd.nextGaussian() * 30;
+			double ay = i % 2 == 0 ? 0 : rnd.nextGaussian() * 30;
+			double speed = 50 + rnd.nextDouble() * 300;
+
+			k[0] = (ax * ax + ay * ay) / 4;
+			k[1] = ax * vx + ay * vy;
+			k[2] = ax * rx + ay * ry - speed * speed + vx * vx + vy * vy;
+			k[3] = 2 * (rx * vx + ry * vy);
+			k[4] = rx * rx + ry * ry;
+
+			double max = step * (brackets - 1);
+			double t = QuarticSolver.smallestPositiveRoot(k[0], k[1], k[2], k[3], k[4], max, roots);
+
+			double reference = Double.NaN;
+			for (int j = 1; j < brackets && Double.isNaN(reference); j++) {
+
+				if (Math.signum(f.value(0)) * Math.signum(f.value(step * j)) <= 0) {
+					reference = brent.solve(100, f, 0, step * j);
+				}
+			}
+
+			if (!Double.isNaN(t)) {
+				// residual relative to size of terms
+				double scale = Math.abs(k[0]) * t * t * t * t + Math.abs(k[1]) * t * t * t +
+						Math.abs(k[2]) * t * t + Math.abs(k[3]) * t + k[4];
+				if (Math.abs(f.value(t)) > 1e-6 * scale) {
+					fail("gun aim " + Arrays.toString(k) + ": " + t + " is not a root");
+				}
+			}
+
+			// sign change scan misses double roots (touching), so quartic may find smaller one, never bigger
+			if (!Double.isNaN(reference) && !(t <= reference + 1e-6)) {
+				fail("gun aim " + Arrays.toString(k) + ": expected " + reference + ", got " + t);
+			}
+		}
+		return cases;
+	}
+
+	/**
+	 * Last root is near zero or near one of previous roots
+	 */
+	private static boolean tooClose(double[] roots, int count) {
+
+		if (Math.abs(roots[count]) < 0.05) {
+			return true;
+		}
+		for (int j = 0; j < count; j++) {
+			if (Math.abs(roots[j] - roots[count]) < 0.05) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Product of polynomials, coefficients from the highest degree
+	 */
+	private static double[] multiply(double[] p, double[] q) {
+
+		double[] result = new double[p.length + q.length - 1];
+
+		for (int i = 0; i < p.length; i++) {
+			for (int j = 0; j < q.length; j++) {
+				result[i + j] += p[i] * q[j];
+			}
+		}
+		return result;
+	}
+
+
+	// FireControl ---------------------------------------------------------------------------------
+
+
+	/**
+	 * Weapon with predefined bids
+	 */
+	private static class ScriptedWeapon implements FireControl.Weapon {
+
+		GameObject[] targets;
+		List<Integer> covered = new ArrayList<>();      // reported by this weapon before bids
+		int capacity = 1;
+
+		List<Integer> bidTarget = new ArrayList<>();
+		List<Float> bidIntercept = new ArrayList<>();
+		List<Float> bidThreat = new ArrayList<>();
+
+		@Override
+		public void collectTargets(FireControl fireControl, float dt) {
+
+			fireControl.setCapacity(this, capacity);
+
+			for (int t : covered) {
+				fireControl.cover(targets[t]);
+			}
+			for (int i = 0; i < bidTarget.size(); i++) {
+				fireControl.bid(this, targets[bidTarget.get(i)], bidIntercept.get(i), bidThreat.get(i));
+			}
+		}
+
+		boolean reaches(int target) {
+			return bidTarget.contains(target);
+		}
+	}
+
+	/**
+	 * Random scenarios, invariants of assignment (it is heuristic, result is not always optimal):
+	 * assigned target was bid by weapon, weapon with bids gets target,
+	 * target is shared only if one of its weapons has nothing else to engage,
+	 * at least half of possible targets is engaged (maximal assignment), at least MIN_COVERAGE in total,
+	 * most important target (not covered missiles first, most urgent first) is engaged,
+	 * same bids with other target objects (hash order) and repeated update give same result
+	 */
+	private int fireControl() {
+
+		Random rnd = new Random(2);
+		int cases = 0;
+		long engagedTotal = 0;
+		long possibleTotal = 0;
+
+		for (int i = 0; i < 20000; i++, cases++) {
+
+			int n = 1 + rnd.nextInt(6);
+			int m = 1 + rnd.nextInt(i % 10 == 0 ? 40 : 12);   // more than 16 - arrays grow
+
+			ScriptedWeapon[] weapons = new ScriptedWeapon[n];
+			boolean[] covered = new boolean[m];
+			float[] urgency = new float[m];
+			Arrays.fill(urgency, Float.POSITIVE_INFINITY);
+
+			for (int w = 0; w < n; w++) {
+
+				weapons[w] = new ScriptedWeapon();
+				weapons[w].capacity = rnd.nextInt(10) == 0 ? 0 : 1;
+
+				int count = rnd.nextInt(Math.min(m, 8) + 1);
+				for (int b = 0; b < count; b++) {
+
+					int t = rnd.nextInt(m);
+					float intercept = 0.1f + rnd.nextFloat() * 5;
+					float threat = rnd.nextInt(3) == 0 ? Float.NaN : 0.5f + rnd.nextFloat() * 10;
+
+					weapons[w].bidTarget.add(t);
+					weapons[w].bidIntercept.add(intercept);
+					weapons[w].bidThreat.add(threat);
+					urgency[t] = Math.min(urgency[t], Float.isNaN(threat) ? intercept : threat);
+				}
+			}
+
+			GameObject[] targets = targets(m);
+			for (int t = 0; t < m; t++) {
+				if (rnd.nextInt(4) == 0) {
+					covered[t] = true;
+					weapons[rnd.nextInt(n)].covered.add(t);
+				}
+			}
+
+			int[] result;
+			try {
+				result = assign(weapons, targets);
+			}
+			catch (RuntimeException e) {
+				fail("case " + i + ": " + e);
+				continue;
+			}
+
+			int[] engaged = new int[m];
+			for (int w = 0; w < n; w++) {
+
+				int t = result[w];
+				boolean bids = !weapons[w].bidTarget.isEmpty() && weapons[w].capacity > 0;
+
+				if (t >= 0 && !weapons[w].reaches(t)) {
+					fail("case " + i + ": weapon " + w + " got target " + t + " without bid");
+				}
+				if (t < 0 && bids) {
+					fail("case " + i + ": weapon " + w + " with bids got no target");
+				}
+				if (t >= 0) {
+					engaged[t]++;
+				}
+			}
+
+			// shared target - some of its weapons can't engage anything else
+			for (int t = 0; t < m; t++) {
+
+				if (engaged[t] < 2) {
+					continue;
+				}
+
+				boolean idle = false;
+				for (int w = 0; w < n && !idle; w++) {
+					idle = result[w] == t && allEngaged(weapons[w], engaged);
+				}
+				if (!idle) {
+					fail("case " + i + ": target " + t + " shared while other targets are not engaged");
+				}
+			}
+
+			// greedy assignment is maximal - at least half of maximum
+			int count = 0;
+			for (int t = 0; t < m; t++) {
+				count += engaged[t] > 0 ? 1 : 0;
+			}
+			int best = maxMatching(weapons, m);
+			if (2 * count < best) {
+				fail("case " + i + ": " + count + " targets engaged, " + best + " possible");
+			}
+			engagedTotal += count;
+			possibleTotal += best;
+
+			// most important reachable target
+			int top = -1;
+			boolean tie = false;
+			for (int t = 0; t < m; t++) {
+
+				if (!reachable(weapons, t)) {
+					continue;
+				}
+				int c = top < 0 ? -1 : compare(targets, covered, urgency, t, top);
+				if (c < 0) {
+					top = t;
+					tie = false;
+				}
+				else if (c == 0) {
+					tie = true;
+				}
+			}
+			if (top >= 0 && !tie && engaged[top] == 0) {
+				fail("case " + i + ": most important target " + top + " not engaged");
+			}
+
+			// same bids with new target objects
+			if (!Arrays.equals(result, assign(weapons, targets(m)))) {
+				fail("case " + i + ": result depends on target objects");
+			}
+		}
+
+		System.out.println("  engaged " + engagedTotal + " of " + possibleTotal + " possible targets");
+		if (engagedTotal < possibleTotal * MIN_COVERAGE) {
+			fail("coverage below " + MIN_COVERAGE);
+		}
+		return cases;
+	}
+
+	/**
+	 * Target of each weapon after two updates (second must not differ), -1 - none
+	 */
+	private int[] assign(ScriptedWeapon[] weapons, GameObject[] targets) {
+
+		FireControl fireControl = new FireControl();
+
+		for (ScriptedWeapon weapon : weapons) {
+			weapon.targets = targets;
+			fireControl.add(weapon);
+		}
+
+		int[] result = null;
+		for (int pass = 0; pass < 2; pass++) {
+
+			fireControl.update(1 / 60f);
+
+			int[] current = new int[weapons.length];
+			for (int w = 0; w < weapons.length; w++) {
+				current[w] = Arrays.asList(targets).indexOf(fireControl.getTarget(weapons[w]));
+			}
+
+			if (result != null && !Arrays.equals(result, current)) {
+				fail("repeated update gives other result " + Arrays.toString(current) +
+						", was " + Arrays.toString(result));
+			}
+			result = current;
+		}
+		return result;
+	}
+
+	/**
+	 * New target objects (other identity hash codes), missiles by index parity
+	 */
+	private static GameObject[] targets(int count) {
+
+		GameObject[] result = new GameObject[count];
+
+		for (int i = 0; i < count; i++) {
+
+			result[i] = new DummyObject(10, null);
+
+			if (i % 2 == 0) {
+				result[i].type.add(ObjectType.MISSILE);
+				result[i].type.add(ObjectType.BASIC_MISSILE);
+			}
+			else {
+				result[i].type.add(ObjectType.SHIP);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Priority of targets: not covered first, missiles first, most urgent first
+	 */
+	private static int compare(GameObject[] targets, boolean[] covered, float[] urgency, int a, int b) {
+
+		if (covered[a] != covered[b]) {
+			return covered[a] ? 1 : -1;
+		}
+
+		boolean missileA = targets[a].type.contains(ObjectType.MISSILE);
+		boolean missileB = targets[b].type.contains(ObjectType.MISSILE);
+		if (missileA != missileB) {
+			return missileA ? -1 : 1;
+		}
+		return Float.compare(urgency[a], urgency[b]);
+	}
+
+	private static boolean reachable(ScriptedWeapon[] weapons, int target) {
+
+		for (ScriptedWeapon weapon : weapons) {
+			if (weapon.capacity > 0 && weapon.reaches(target)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Maximum number of targets engaged at once, each weapon takes one (augmenting paths)
+	 */
+	private static int maxMatching(ScriptedWeapon[] weapons, int targets) {
+
+		int[] weaponOf = new int[targets];
+		Arrays.fill(weaponOf, -1);
+
+		int result = 0;
+		for (int w = 0; w < weapons.length; w++) {
+			if (weapons[w].capacity > 0 && augment(weapons, w, weaponOf, new boolean[targets])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private static boolean augment(ScriptedWeapon[] weapons, int w, int[] weaponOf, boolean[] visited) {
+
+		for (int t : weapons[w].bidTarget) {
+
+			if (visited[t]) {
+				continue;
+			}
+			visited[t] = true;
+
+			if (weaponOf[t] < 0 || augment(weapons, weaponOf[t], weaponOf, visited)) {
+				weaponOf[t] = w;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean allEngaged(ScriptedWeapon weapon, int[] engaged) {
+
+		for (int t : weapon.bidTarget) {
+			if (engaged[t] == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	// IndexHeap -----------------------------------------------------------------------------------
+
+
+	/**
+	 * Random pairs with many equal keys against sorted list (key, then index):
+	 * poll()/peekKey() order, sort() + key(i)/index(i), retain() on sorted and not sorted heap,
+	 * adding after poll(), heap reused after clear() (arrays grow)
+	 */
+	private int indexHeap() {
+
+		Random rnd = new Random(3);
+		IndexHeap heap = new IndexHeap(2);
+		int cases = 0;
+
+		for (int i = 0; i < 20000; i++, cases++) {
+
+			int mode = i % 4;
+			int n = rnd.nextInt(70);
+
+			heap.clear();
+			List<double[]> reference = new ArrayList<>();
+
+			for (int j = 0; j < n; j++) {
+
+				double key = rnd.nextInt(8) * 0.25;
+				heap.add(key, j);
+				reference.add(new double[] {key, j});
+			}
+			reference.sort(SelfCheck::compareKeys);
+
+			if (mode == 1 || mode == 2) {
+
+				heap.sort();
+
+				if (mode == 2) {
+					heap.retain(index -> index % 3 != 0);
+					reference.removeIf(pair -> (int) pair[1] % 3 == 0);
+				}
+
+				if (heap.size() != reference.size()) {
+					fail("case " + i + ": size " + heap.size() + ", expected " + reference.size());
+					continue;
+				}
+				for (int j = 0; j < reference.size(); j++) {
+					if (heap.key(j) != reference.get(j)[0] || heap.index(j) != (int) reference.get(j)[1]) {
+						fail("case " + i + ": sorted pair " + j + " is (" + heap.key(j) + ", " + heap.index(j) +
+								"), expected " + Arrays.toString(reference.get(j)));
+						break;
+					}
+				}
+			}
+			else if (mode == 3 && n > 0) {
+
+				// poll part, retain on heap, add more
+				for (int j = rnd.nextInt(n); j > 0; j--) {
+					heap.poll();
+					reference.remove(0);
+				}
+
+				heap.retain(index -> index % 2 != 0);
+				reference.removeIf(pair -> (int) pair[1] % 2 == 0);
+
+				for (int j = 0; j < 10; j++) {
+
+					double key = rnd.nextInt(8) * 0.25;
+					heap.add(key, n + j);
+					reference.add(new double[] {key, n + j});
+				}
+				reference.sort(SelfCheck::compareKeys);
+			}
+
+			for (double[] pair : reference) {
+
+				double key = heap.peekKey();
+				int index = heap.poll();
+
+				if (key != pair[0] || index != (int) pair[1]) {
+					fail("case " + i + ": polled (" + key + ", " + index + "), expected " + Arrays.toString(pair));
+					break;
+				}
+			}
+			if (!heap.isEmpty()) {
+				fail("case " + i + ": " + heap.size() + " pairs left");
+			}
+		}
+		return cases;
+	}
+
+	/**
+	 * Order of heap pairs (key, index): by key, then by index
+	 */
+	private static int compareKeys(double[] a, double[] b) {
+		return a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]);
+	}
+}